@@ -0,0 +1,3 @@
+#!/bin/sh
+# lets db_replica of docker-compose clone and stream from the database
+echo "host replication all all md5" >> "$PGDATA/pg_hba.conf"
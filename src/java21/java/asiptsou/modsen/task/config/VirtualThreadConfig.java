@@ -0,0 +1,37 @@
+package asiptsou.modsen.task.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * Handles every request of the servlet stack on its own virtual thread, built only by the java21
+ * profile. Service, transaction and DAO calls run on the request thread, so a request waiting for
+ * the database doesn't hold a platform thread and Tomcat threads no longer limit concurrency. The
+ * connection pool does: spring.datasource.hikari.maximum-pool-size requests reach the database,
+ * the others wait up to the connection timeout and are then answered with 503.
+ */
+@Configuration
+@Profile("!" + REACTIVE_PROFILE)
+public class VirtualThreadConfig {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    return protocolHandler ->
+        protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+  }
+
+  /** Runs the async part of requests, e.g. the export stream, on virtual threads too. */
+  @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+  public AsyncTaskExecutor applicationTaskExecutor() {
+    return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+  }
+}
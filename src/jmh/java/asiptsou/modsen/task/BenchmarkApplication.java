@@ -0,0 +1,75 @@
+package asiptsou.modsen.task;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The application without web server on a Postgres of its own started in Docker, with events
+ * seeded like the ones of the load test. Benchmarks needing the database run against it, so they
+ * never touch the database of application properties and leave nothing behind once closed.
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+
+  private final PostgreSQLContainer<?> postgres;
+  private final ConfigurableApplicationContext context;
+
+  private BenchmarkApplication(PostgreSQLContainer<?> postgres, String... properties) {
+    this.postgres = postgres;
+    // passed as command line arguments, which override application properties
+    List<String> arguments = new ArrayList<>();
+    for (String property : properties) {
+      arguments.add("--" + property);
+    }
+    arguments.add("--spring.datasource.url=" + postgres.getJdbcUrl());
+    arguments.add("--spring.datasource.username=" + postgres.getUsername());
+    arguments.add("--spring.datasource.password=" + postgres.getPassword());
+    arguments.add("--logging.level.root=WARN");
+    this.context =
+        new SpringApplicationBuilder(FirstTaskApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(arguments.toArray(new String[0]));
+  }
+
+  /** Starts Postgres and the application with {@code properties} like "name=value". */
+  public static BenchmarkApplication start(String... properties) {
+    PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13.1-alpine");
+    postgres.start();
+    try {
+      return new BenchmarkApplication(postgres, properties);
+    } catch (RuntimeException e) {
+      postgres.stop();
+      throw e;
+    }
+  }
+
+  /** Inserts {@code count} events, dated ten minutes apart from 2020, by a thousand organizers. */
+  public void seed(int count) {
+    JdbcTemplate jdbcTemplate = getBean(JdbcTemplate.class);
+    jdbcTemplate.update(
+        "insert into event (id, version, topic, description, organizer, date, location) "
+            + "select nextval('event_id_sequence'), 0, 'topic ' || i, 'description ' || i, "
+            + "'organizer' || (i % 1000), timestamp '2020-01-01' + i * interval '10 minutes', "
+            + "'location ' || (i % 100) from generate_series(1, ?) as i",
+        count);
+    jdbcTemplate.execute("analyze event");
+  }
+
+  public <T> T getBean(Class<T> type) {
+    return context.getBean(type);
+  }
+
+  @Override
+  public void close() {
+    try {
+      context.close();
+    } finally {
+      postgres.stop();
+    }
+  }
+}
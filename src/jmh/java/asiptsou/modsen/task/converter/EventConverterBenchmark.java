@@ -0,0 +1,51 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.model.Event;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/** Cost of the MapStruct conversions made for every event read or written through the API. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EventConverterBenchmark {
+
+  private EventConverter eventConverter;
+  private Event event;
+  private EventDto eventDto;
+
+  @Setup
+  public void setUp() {
+    eventConverter = Mappers.getMapper(EventConverter.class);
+    LocalDateTime date = LocalDateTime.of(2025, 6, 15, 22, 49);
+    event =
+        new Event(42L, 3L, "topic 42", "description 42", "organizer 42", date, "location 42");
+    eventDto = eventConverter.toDto(event);
+  }
+
+  @Benchmark
+  public EventDto toDto() {
+    return eventConverter.toDto(event);
+  }
+
+  @Benchmark
+  public Event toEntity() {
+    return eventConverter.toEntity(eventDto);
+  }
+}
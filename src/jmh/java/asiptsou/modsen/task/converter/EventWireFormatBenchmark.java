@@ -0,0 +1,92 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of a page of events in every format the API serves, with the mappers configured
+ * the way Spring Boot configures them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EventWireFormatBenchmark {
+
+  @Param({"1000"})
+  private int size;
+
+  private EventPageDto eventPage;
+  private ObjectWriter jsonWriter;
+  private ObjectWriter smileWriter;
+  private ObjectWriter cborWriter;
+  private EventProtobufHttpMessageConverter protobufConverter;
+
+  @Setup
+  public void setUp() {
+    jsonWriter = Jackson2ObjectMapperBuilder.json().build().writerFor(EventPageDto.class);
+    smileWriter = Jackson2ObjectMapperBuilder.smile().build().writerFor(EventPageDto.class);
+    cborWriter = Jackson2ObjectMapperBuilder.cbor().build().writerFor(EventPageDto.class);
+    protobufConverter = new EventProtobufHttpMessageConverter();
+    LocalDateTime date = LocalDateTime.of(2025, 6, 15, 22, 49);
+    List<EventDto> eventDtos = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      eventDtos.add(
+          EventDto.builder()
+              .id((long) i)
+              .version(0L)
+              .topic("topic " + i)
+              .description("description " + i)
+              .organizer("organizer " + i % 100)
+              .date(date.plusMinutes(i))
+              .location("location " + i % 10)
+              .build());
+    }
+    eventPage = EventPageDto.builder().events(eventDtos).next("next").build();
+  }
+
+  @Benchmark
+  public byte[] json() throws IOException {
+    return jsonWriter.writeValueAsBytes(eventPage);
+  }
+
+  @Benchmark
+  public byte[] smile() throws IOException {
+    return smileWriter.writeValueAsBytes(eventPage);
+  }
+
+  @Benchmark
+  public byte[] cbor() throws IOException {
+    return cborWriter.writeValueAsBytes(eventPage);
+  }
+
+  @Benchmark
+  public byte[] protobuf() throws IOException {
+    MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+    protobufConverter.write(
+        eventPage, EventProtobufHttpMessageConverter.APPLICATION_PROTOBUF, outputMessage);
+    return outputMessage.getBodyAsBytes();
+  }
+}
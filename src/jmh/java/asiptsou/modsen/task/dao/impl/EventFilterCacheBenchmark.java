@@ -0,0 +1,71 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.BenchmarkApplication;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventFilter;
+import asiptsou.modsen.task.service.EventService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the same filter request repeated with the second-level and query caches of
+ * Hibernate turned off and on. Runs the application on a Postgres in Docker with 100k events, see
+ * {@link BenchmarkApplication}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventFilterCacheBenchmark {
+
+  private static final int EVENT_COUNT = 100_000;
+
+  @Param({"false", "true"})
+  private boolean caches;
+
+  private BenchmarkApplication application;
+  private EventService eventService;
+  private EventFilter eventFilter;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    application =
+        BenchmarkApplication.start(
+            "hibernate.cache.use_second_level_cache=" + caches,
+            "hibernate.cache.use_query_cache=" + caches);
+    application.seed(EVENT_COUNT);
+    eventService = application.getBean(EventService.class);
+    eventFilter =
+        EventFilter.builder()
+            .organizer("zer42")
+            .isSortDate(true)
+            .dateSortDirection("desc")
+            .limit(100)
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    application.close();
+  }
+
+  @Benchmark
+  public EventPageDto filter() {
+    return eventService.getListEventByFilter(eventFilter);
+  }
+}
@@ -0,0 +1,115 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.config.FullTextPostgreSQLDialect;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.Tuple;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the Criteria query of {@link EventDaoImpl#getAllByFilter} up to a ready to run {@link
+ * Query}, which includes rendering it and the query plan cache lookup. No database is needed:
+ * Hibernate doesn't take a connection until the query is run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EventFilterQueryBenchmark {
+
+  private static final LocalDateTime DATE = LocalDateTime.of(2025, 6, 15, 22, 49);
+  private static final List<EventField> ALL_FIELDS = List.of(EventField.values());
+
+  /** Filter shapes from the cheapest to the one with most predicates and sort keys. */
+  @Param({"unfiltered", "substring", "sortedPage", "fullTextPage"})
+  private String shape;
+
+  private SessionFactory sessionFactory;
+  private Session session;
+  private EventDaoImpl eventDao;
+  private EventFilter eventFilter;
+  private EventCursor after;
+
+  @Setup
+  public void setUp() {
+    sessionFactory =
+        new Configuration()
+            .addAnnotatedClass(Event.class)
+            .setProperty("hibernate.dialect", FullTextPostgreSQLDialect.class.getName())
+            .setProperty("hibernate.temp.use_jdbc_metadata_defaults", "false")
+            .setProperty("hibernate.cache.use_second_level_cache", "false")
+            .buildSessionFactory();
+    session = sessionFactory.openSession();
+    eventDao = new EventDaoImpl(sessionFactory);
+    EventFilter.EventFilterBuilder builder = EventFilter.builder().limit(101);
+    switch (shape) {
+      case "substring":
+        builder.topic("conf").organizer("zer42");
+        break;
+      case "sortedPage":
+        builder
+            .organizer("zer42")
+            .fromDate(DATE)
+            .toDate(DATE.plusYears(1))
+            .isSortTopic(true)
+            .topicSortDirection("asc")
+            .isSortDate(true)
+            .dateSortDirection("desc");
+        after = cursor(builder);
+        break;
+      case "fullTextPage":
+        builder.q("music festival").isSortDate(true).dateSortDirection("desc");
+        after = cursor(builder);
+        break;
+      default:
+        break;
+    }
+    eventFilter = builder.build();
+  }
+
+  @TearDown
+  public void tearDown() {
+    session.close();
+    sessionFactory.close();
+  }
+
+  @Benchmark
+  public Query<Tuple> createFilterQuery() {
+    return eventDao.createFilterQuery(
+        session, eventFilter, ALL_FIELDS, after, eventFilter.getLimit());
+  }
+
+  private EventCursor cursor(EventFilter.EventFilterBuilder builder) {
+    return EventCursor.builder()
+        .sorting(builder.build().sorting())
+        .id(42L)
+        .topic("topic 42")
+        .organizer("organizer 42")
+        .date(DATE)
+        .rank(0.1f)
+        .build();
+  }
+}
@@ -0,0 +1,132 @@
+package asiptsou.modsen.task.dao.index;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of filter queries served by {@link EventIndex}, pages of 101 events as the
+ * service asks for. Events are generated like the ones of the API: mostly distinct topics, a
+ * thousand organizers and dates spread over seven years. Run with e.g. {@code -p events=5000000}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class EventIndexBenchmark {
+
+  private static final LocalDateTime START = LocalDateTime.of(2020, 1, 1, 0, 0);
+  private static final int MINUTES = 7 * 365 * 24 * 60;
+  private static final String[] WORDS = {
+    "music", "festival", "conference", "meetup", "concert", "workshop", "exhibition", "lecture",
+    "marathon", "hackathon", "theatre", "opera", "fair", "seminar", "party", "cinema"
+  };
+  private static final Set<EventField> ALL_FIELDS = EnumSet.allOf(EventField.class);
+  private static final int LIMIT = 101;
+
+  @Param({"1000000"})
+  private int events;
+
+  /** Filter shapes of a dashboard, each sorted and paged. */
+  @Param({"unfiltered", "substring", "dateRange", "sortedPage", "rareSubstring"})
+  private String shape;
+
+  private EventIndex eventIndex;
+  private EventFilter eventFilter;
+  private EventCursor after;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    Random random = new Random(42);
+    eventIndex = new EventIndex(8192);
+    eventIndex.load(
+        action -> {
+          for (int i = 1; i <= events; i++) {
+            action.accept(
+                EventDto.builder()
+                    .id((long) i)
+                    .version(0L)
+                    .topic(word(random) + " " + word(random) + " " + random.nextInt(events))
+                    .description("description " + random.nextInt(events))
+                    .organizer("organizer " + random.nextInt(1000))
+                    .date(START.plusMinutes(random.nextInt(MINUTES)))
+                    .location("location " + random.nextInt(100))
+                    .build());
+          }
+        });
+    EventFilter.EventFilterBuilder builder = EventFilter.builder().limit(LIMIT);
+    switch (shape) {
+      case "substring":
+        builder.topic("fest").isSortDate(true).dateSortDirection("desc");
+        break;
+      case "dateRange":
+        builder
+            .fromDate(START.plusYears(3))
+            .toDate(START.plusYears(3).plusMonths(1))
+            .isSortDate(true)
+            .dateSortDirection("asc");
+        break;
+      case "sortedPage":
+        builder
+            .organizer("zer 42")
+            .fromDate(START.plusYears(1))
+            .toDate(START.plusYears(5))
+            .isSortTopic(true)
+            .topicSortDirection("asc")
+            .isSortDate(true)
+            .dateSortDirection("desc");
+        after = afterFirstPage(builder.build());
+        break;
+      case "rareSubstring":
+        builder.topic("opera fair 42").isSortOrganizer(true).organizerSortDirection("asc");
+        break;
+      default:
+        builder.isSortTopic(true).topicSortDirection("desc");
+        break;
+    }
+    eventFilter = builder.build();
+  }
+
+  @Benchmark
+  public List<EventDto> find() {
+    return eventIndex.find(eventFilter, ALL_FIELDS, after, LIMIT);
+  }
+
+  private EventCursor afterFirstPage(EventFilter eventFilter) {
+    List<EventDto> page = eventIndex.find(eventFilter, ALL_FIELDS, null, LIMIT);
+    EventDto last = page.get(page.size() - 1);
+    return EventCursor.builder()
+        .sorting(eventFilter.sorting())
+        .id(last.getId())
+        .topic(last.getTopic())
+        .organizer(last.getOrganizer())
+        .date(last.getDate())
+        .build();
+  }
+
+  private static String word(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+}
@@ -0,0 +1,78 @@
+package asiptsou.modsen.task.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a page of events and parsing of a batch request, both going through
+ * the dd-MM-yyyy HH:mm date handling of {@link EventDto}. The mapper is configured the way Spring
+ * Boot configures the one of the application.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EventJsonBenchmark {
+
+  @Param({"100", "1000"})
+  private int size;
+
+  private ObjectWriter writer;
+  private ObjectReader reader;
+  private List<EventDto> eventDtos;
+  private byte[] json;
+
+  @Setup
+  public void setUp() throws IOException {
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    writer = objectMapper.writerFor(new TypeReference<List<EventDto>>() {});
+    reader = objectMapper.readerFor(new TypeReference<List<EventDto>>() {});
+    LocalDateTime date = LocalDateTime.of(2025, 6, 15, 22, 49);
+    eventDtos = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      eventDtos.add(
+          EventDto.builder()
+              .id((long) i)
+              .version(0L)
+              .topic("topic " + i)
+              .description("description " + i)
+              .organizer("organizer " + i % 100)
+              .date(date.plusMinutes(i))
+              .location("location " + i % 10)
+              .build());
+    }
+    json = writer.writeValueAsBytes(eventDtos);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return writer.writeValueAsBytes(eventDtos);
+  }
+
+  @Benchmark
+  public List<EventDto> deserialize() throws IOException {
+    return reader.readValue(json);
+  }
+}
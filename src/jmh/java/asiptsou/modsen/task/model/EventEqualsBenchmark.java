@@ -0,0 +1,57 @@
+package asiptsou.modsen.task.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link Event#equals} and {@link Event#hashCode} built on EqualsBuilder and
+ * HashCodeBuilder, paid on every persistence context and collection lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EventEqualsBenchmark {
+
+  private Event event;
+  private Event equalEvent;
+  private Event otherEvent;
+
+  @Setup
+  public void setUp() {
+    LocalDateTime date = LocalDateTime.of(2025, 6, 15, 22, 49);
+    event = new Event(42L, 3L, "topic 42", "description 42", "organizer 42", date, "location 42");
+    equalEvent =
+        new Event(42L, 3L, "topic 42", "description 42", "organizer 42", date, "location 42");
+    otherEvent =
+        new Event(42L, 3L, "topic 42", "description 42", "organizer 42", date, "location 43");
+  }
+
+  @Benchmark
+  public boolean equalsWhenEqual() {
+    return event.equals(equalEvent);
+  }
+
+  @Benchmark
+  public boolean equalsWhenLastFieldDiffers() {
+    return event.equals(otherEvent);
+  }
+
+  @Benchmark
+  public int hashCodeOfEvent() {
+    return event.hashCode();
+  }
+}
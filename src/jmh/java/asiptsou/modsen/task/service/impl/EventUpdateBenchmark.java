@@ -0,0 +1,115 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.BenchmarkApplication;
+import asiptsou.modsen.task.converter.EventConverter;
+import asiptsou.modsen.task.dao.EventDao;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.service.EventService;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the single statement update of {@link EventServiceImpl#update} and of the previous
+ * read then merge path, which runs a select and an update, on the same seeded events. Runs the
+ * application on a Postgres in Docker, see {@link BenchmarkApplication}.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventUpdateBenchmark {
+
+  private static final int EVENT_COUNT = 1000;
+
+  @Param({"readThenMerge", "singleStatement"})
+  private String path;
+
+  private BenchmarkApplication application;
+  private EventService eventService;
+  private EventDao eventDao;
+  private EventConverter eventConverter;
+  private SessionFactory sessionFactory;
+  private TransactionTemplate transactionTemplate;
+  private List<Long> ids;
+  private EventDto eventDto;
+  private long updates;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    application = BenchmarkApplication.start();
+    application.seed(EVENT_COUNT);
+    eventService = application.getBean(EventService.class);
+    eventDao = application.getBean(EventDao.class);
+    eventConverter = application.getBean(EventConverter.class);
+    sessionFactory = application.getBean(SessionFactory.class);
+    transactionTemplate =
+        new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+    ids =
+        application
+            .getBean(JdbcTemplate.class)
+            .queryForList("select id from event order by id", Long.class);
+    eventDto =
+        EventDto.builder()
+            .topic("benchmark topic")
+            .description("benchmark description")
+            .organizer("benchmark organizer")
+            .date(LocalDateTime.of(2025, 6, 15, 22, 49))
+            .location("benchmark location")
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    application.close();
+  }
+
+  @Benchmark
+  public void update() {
+    long id = ids.get((int) (updates % ids.size()));
+    if ("readThenMerge".equals(path)) {
+      readThenMerge(id);
+    } else {
+      eventService.update(id, nextEventDto());
+    }
+  }
+
+  /** The update as it was before: select by id, then merge into the loaded event. */
+  private void readThenMerge(long id) {
+    EventDto eventDto = nextEventDto();
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          Event event = eventDao.getById(id).orElseThrow();
+          Event eventForUpdate = eventConverter.toEntity(eventDto);
+          eventForUpdate.setId(event.getId());
+          eventForUpdate.setVersion(event.getVersion());
+          sessionFactory.getCurrentSession().merge(eventForUpdate);
+        });
+  }
+
+  /** Every update changes the topic, otherwise merge finds nothing dirty and skips the update. */
+  private EventDto nextEventDto() {
+    return eventDto.toBuilder().topic("benchmark topic " + ++updates).build();
+  }
+}
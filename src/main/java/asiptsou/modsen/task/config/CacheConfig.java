@@ -0,0 +1,43 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.service.impl.EventQueryCoalescer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+
+  public static final String EVENT_BY_ID_CACHE = "eventById";
+
+  @Value("${event.cache.maximum-size}")
+  private long maximumSize;
+  @Value("${event.cache.expire-after-write}")
+  private Duration expireAfterWrite;
+  @Value("${event.coalescing.max-wait}")
+  private Duration coalescingMaxWait;
+
+  @Bean
+  public Cache<Long, EventDto> eventByIdCache(MeterRegistry meterRegistry) {
+    Cache<Long, EventDto> cache =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, EVENT_BY_ID_CACHE);
+    return cache;
+  }
+
+  @Bean
+  public EventQueryCoalescer eventQueryCoalescer(MeterRegistry meterRegistry) {
+    return new EventQueryCoalescer(coalescingMaxWait, meterRegistry);
+  }
+}
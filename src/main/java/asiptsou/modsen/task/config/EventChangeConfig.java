@@ -0,0 +1,29 @@
+package asiptsou.modsen.task.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class EventChangeConfig {
+
+  public static final String EVENT_CHANGE_SCHEDULER = "eventChangeScheduler";
+  public static final String EVENT_CHANGE_MAINTENANCE_SCHEDULER = "eventChangeMaintenanceScheduler";
+
+  /** One thread polls the change log for all open change streams. */
+  @Bean(name = EVENT_CHANGE_SCHEDULER, destroyMethod = "shutdownNow")
+  public ScheduledExecutorService eventChangeScheduler() {
+    return Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("event-change-"));
+  }
+
+  /** Deletes expired changes, see EventChangeMaintenance, apart from the polling of streams. */
+  @Bean(name = EVENT_CHANGE_MAINTENANCE_SCHEDULER, destroyMethod = "shutdownNow")
+  public ScheduledExecutorService eventChangeMaintenanceScheduler() {
+    return Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("event-change-maintenance-"));
+  }
+}
@@ -0,0 +1,71 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.service.EventChangeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static asiptsou.modsen.task.config.EventChangeConfig.EVENT_CHANGE_MAINTENANCE_SCHEDULER;
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * Deletes changes older than the retention from the change log on start and once per check
+ * interval, batch by batch so no transaction holds many rows. Nothing is deleted while the
+ * retention is 0. Running it from several instances is harmless.
+ */
+@Slf4j
+@Component
+@Profile("!" + REACTIVE_PROFILE)
+public class EventChangeMaintenance {
+
+  public static final int BATCH_SIZE = 10_000;
+
+  private final EventChangeService eventChangeService;
+  private final ScheduledExecutorService scheduler;
+  private final Duration retention;
+  private final Duration checkInterval;
+
+  public EventChangeMaintenance(
+      EventChangeService eventChangeService,
+      @Qualifier(EVENT_CHANGE_MAINTENANCE_SCHEDULER) ScheduledExecutorService scheduler,
+      @Value("${event.changes.retention}") Duration retention,
+      @Value("${event.changes.retention-check-interval}") Duration checkInterval) {
+    this.eventChangeService = eventChangeService;
+    this.scheduler = scheduler;
+    this.retention = retention;
+    this.checkInterval = checkInterval;
+  }
+
+  @PostConstruct
+  void startMaintenance() {
+    if (retention.isZero()) {
+      return;
+    }
+    scheduler.scheduleWithFixedDelay(
+        this::deleteExpiredChanges, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  void deleteExpiredChanges() {
+    try {
+      int deleted = 0;
+      int batch;
+      do {
+        batch = eventChangeService.deleteChangesOlderThan(retention, BATCH_SIZE);
+        deleted += batch;
+      } while (batch == BATCH_SIZE);
+      if (deleted > 0) {
+        log.info("Deleted {} changes older than {} from the change log", deleted, retention);
+      }
+    } catch (RuntimeException exception) {
+      // the next check retries, a failed one must not cancel the schedule
+      log.warn("Retention of event changes failed", exception);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package asiptsou.modsen.task.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class EventImportConfig {
+
+  public static final String EVENT_IMPORT_EXECUTOR = "eventImportExecutor";
+
+  /**
+   * Imports run one after another, a single import already keeps the database busy. On shutdown
+   * the running import stops after its current chunk and can be resumed later.
+   */
+  @Bean(name = EVENT_IMPORT_EXECUTOR, destroyMethod = "shutdownNow")
+  public ExecutorService eventImportExecutor() {
+    return Executors.newSingleThreadExecutor(new CustomizableThreadFactory("event-import-"));
+  }
+}
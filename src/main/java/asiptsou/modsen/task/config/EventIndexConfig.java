@@ -0,0 +1,41 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.dao.index.EventIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * In-process index of events serving filter queries, enabled by {@code event.index.enabled}. It
+ * keeps all events in memory, see EventIndexMaintenance for how it is loaded and kept in sync.
+ */
+@Configuration
+@Profile("!" + REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "event.index.enabled", havingValue = "true")
+public class EventIndexConfig {
+
+  public static final String EVENT_INDEX_SCHEDULER = "eventIndexScheduler";
+
+  @Value("${event.index.max-delta}")
+  private int maxDelta;
+
+  @Bean
+  public EventIndex eventIndex() {
+    return new EventIndex(maxDelta);
+  }
+
+  /** One thread loads the index, follows the change log and compacts the index. */
+  @Bean(name = EVENT_INDEX_SCHEDULER, destroyMethod = "shutdownNow")
+  public ScheduledExecutorService eventIndexScheduler() {
+    return Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("event-index-"));
+  }
+}
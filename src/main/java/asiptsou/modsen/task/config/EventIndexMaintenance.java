@@ -0,0 +1,120 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.dao.index.EventIndex;
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.exception.EventChangesExpiredException;
+import asiptsou.modsen.task.service.EventChangeService;
+import asiptsou.modsen.task.service.EventService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static asiptsou.modsen.task.config.EventIndexConfig.EVENT_INDEX_SCHEDULER;
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static asiptsou.modsen.task.config.ReadReplicaRoutingDataSource.onPrimary;
+
+/**
+ * Loads the {@link EventIndex} from the primary in the background after start, filter queries are
+ * served by the database until then. Afterwards it follows the change log once per sync interval,
+ * which brings writes of other nodes and imports, and compacts the index when its log grew long.
+ * The change log position is taken before loading, so writes made during the load are applied
+ * again afterwards, which the index ignores for states it already has. When the index fell behind
+ * the retention of the change log, it is loaded again.
+ *
+ * <p>The index orders topics and organizers by code point. Unless the database does the same, as
+ * with the C collation, the index is never loaded and filter queries stay with the database.
+ */
+@Slf4j
+@Component
+@Profile("!" + REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "event.index.enabled", havingValue = "true")
+public class EventIndexMaintenance {
+
+  public static final int PAGE_SIZE = 1000;
+
+  private final EventIndex eventIndex;
+  private final EventService eventService;
+  private final EventChangeService eventChangeService;
+  private final ScheduledExecutorService scheduler;
+  private final Duration syncInterval;
+  /** Change log token the index is in sync with, used by the scheduler thread only. */
+  private String position;
+  /** Set when the collation of the database doesn't order as the index, used likewise. */
+  private boolean unsupported;
+
+  public EventIndexMaintenance(
+      EventIndex eventIndex,
+      EventService eventService,
+      EventChangeService eventChangeService,
+      @Qualifier(EVENT_INDEX_SCHEDULER) ScheduledExecutorService scheduler,
+      @Value("${event.index.sync-interval}") Duration syncInterval) {
+    this.eventIndex = eventIndex;
+    this.eventService = eventService;
+    this.eventChangeService = eventChangeService;
+    this.scheduler = scheduler;
+    this.syncInterval = syncInterval;
+  }
+
+  @PostConstruct
+  void startSync() {
+    scheduler.scheduleWithFixedDelay(
+        this::sync, 0, syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  void sync() {
+    if (unsupported) {
+      return;
+    }
+    try {
+      if (!eventIndex.isLoaded()) {
+        if (!onPrimary(eventService::isCollatedByCodePoint)) {
+          unsupported = true;
+          log.warn("Event index is not loaded, topic and organizer are not in C collation");
+          return;
+        }
+        load();
+      }
+      EventChangePageDto page;
+      do {
+        try {
+          page = eventChangeService.getChanges(position, PAGE_SIZE);
+        } catch (EventChangesExpiredException exception) {
+          log.warn("Event index fell behind the retention of the change log, loading it again");
+          load();
+          page = eventChangeService.getChanges(position, PAGE_SIZE);
+        }
+        page.getChanges().forEach(eventIndex::apply);
+        position = page.getNext();
+      } while (!page.getChanges().isEmpty());
+      if (eventIndex.needsCompaction()) {
+        eventIndex.compact();
+      }
+    } catch (RuntimeException exception) {
+      // the next sync retries, a failed one must not cancel the schedule
+      log.warn("Sync of event index failed", exception);
+    }
+  }
+
+  private void load() {
+    long started = System.nanoTime();
+    String head = onPrimary(eventChangeService::getHead);
+    onPrimary(
+        () -> {
+          eventIndex.load(eventService::exportAll);
+          return null;
+        });
+    position = head;
+    log.info(
+        "Loaded {} events into the index in {} ms",
+        eventIndex.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+  }
+}
@@ -0,0 +1,73 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.model.EventFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every method of {@link asiptsou.modsen.task.service.EventService} and {@link
+ * asiptsou.modsen.task.dao.EventDao} implementations. Timers are tagged with the class, method and
+ * thrown exception, and filter calls also with the shape and sorting of the filter, so expensive
+ * filter combinations can be told apart. Other calls get "none" for the filter tags, as all timers
+ * of one name must have the same tag keys.
+ */
+@Aspect
+@Component
+@AllArgsConstructor
+public class EventMetricsAspect {
+
+  public static final String SERVICE_TIMER = "event.service";
+  public static final String DAO_TIMER = "event.dao";
+  public static final String NONE = "none";
+  public static final String UNSORTED = "id";
+
+  private final MeterRegistry meterRegistry;
+
+  @Around("execution(* asiptsou.modsen.task.service.EventService.*(..))")
+  public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(SERVICE_TIMER, joinPoint);
+  }
+
+  @Around("execution(* asiptsou.modsen.task.dao.EventDao.*(..))")
+  public Object timeDao(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(DAO_TIMER, joinPoint);
+  }
+
+  private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String exception = NONE;
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable throwable) {
+      exception = throwable.getClass().getSimpleName();
+      throw throwable;
+    } finally {
+      sample.stop(Timer.builder(name).tags(tags(joinPoint, exception)).register(meterRegistry));
+    }
+  }
+
+  private Tags tags(ProceedingJoinPoint joinPoint, String exception) {
+    String filter = NONE;
+    String sort = NONE;
+    for (Object arg : joinPoint.getArgs()) {
+      if (arg instanceof EventFilter) {
+        EventFilter eventFilter = (EventFilter) arg;
+        String sorting = eventFilter.sorting();
+        filter = eventFilter.shape();
+        sort = sorting.isEmpty() ? UNSORTED : sorting;
+      }
+    }
+    return Tags.of(
+        "class", joinPoint.getTarget().getClass().getSimpleName(),
+        "method", joinPoint.getSignature().getName(),
+        "exception", exception,
+        "filter", filter,
+        "sort", sort);
+  }
+}
@@ -0,0 +1,21 @@
+package asiptsou.modsen.task.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Configuration
+public class EventPartitionConfig {
+
+  public static final String EVENT_PARTITION_SCHEDULER = "eventPartitionScheduler";
+
+  /** Creates upcoming and detaches expired partitions of EVENT, see EventPartitionMaintenance. */
+  @Bean(name = EVENT_PARTITION_SCHEDULER, destroyMethod = "shutdownNow")
+  public ScheduledExecutorService eventPartitionScheduler() {
+    return Executors.newSingleThreadScheduledExecutor(
+        new CustomizableThreadFactory("event-partition-"));
+  }
+}
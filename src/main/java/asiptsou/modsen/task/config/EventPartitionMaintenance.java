@@ -0,0 +1,90 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.dao.index.EventIndex;
+import asiptsou.modsen.task.service.EventPartitionService;
+import asiptsou.modsen.task.service.impl.CachingEventService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static asiptsou.modsen.task.config.EventPartitionConfig.EVENT_PARTITION_SCHEDULER;
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * Keeps partitions of EVENT ahead of time on start and once per check interval, and detaches the
+ * expired ones. Both are idempotent, so running them from several instances is harmless.
+ *
+ * <p>Detaching writes no change log entries, so afterwards each instance removes the expired
+ * events from its in-memory index and id cache itself. It does so on every check, as only one of
+ * the instances sees the partitions it detached.
+ */
+@Slf4j
+@Component
+@Profile("!" + REACTIVE_PROFILE)
+public class EventPartitionMaintenance {
+
+  private final EventPartitionService eventPartitionService;
+  private final CachingEventService cachingEventService;
+  private final ObjectProvider<EventIndex> eventIndex;
+  private final ScheduledExecutorService scheduler;
+  private final Duration checkInterval;
+
+  public EventPartitionMaintenance(
+      EventPartitionService eventPartitionService,
+      CachingEventService cachingEventService,
+      ObjectProvider<EventIndex> eventIndex,
+      @Qualifier(EVENT_PARTITION_SCHEDULER) ScheduledExecutorService scheduler,
+      @Value("${event.partitions.check-interval}") Duration checkInterval) {
+    this.eventPartitionService = eventPartitionService;
+    this.cachingEventService = cachingEventService;
+    this.eventIndex = eventIndex;
+    this.scheduler = scheduler;
+    this.checkInterval = checkInterval;
+  }
+
+  @PostConstruct
+  void startMaintenance() {
+    scheduler.scheduleWithFixedDelay(
+        this::maintain, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  void maintain() {
+    try {
+      int created = eventPartitionService.createUpcomingPartitions();
+      if (created > 0) {
+        log.info("Created {} partitions of events", created);
+      }
+      List<String> detached = eventPartitionService.detachExpiredPartitions();
+      if (!detached.isEmpty()) {
+        log.info("Detached expired partitions of events {}", detached);
+      }
+      eventPartitionService
+          .getRetainedFrom()
+          .ifPresent(month -> removeExpired(month.atStartOfDay()));
+    } catch (RuntimeException exception) {
+      // e.g. lock timeout behind a long query, the next check retries
+      log.warn("Maintenance of event partitions failed", exception);
+    }
+  }
+
+  private void removeExpired(LocalDateTime retainedFrom) {
+    cachingEventService.invalidateBefore(retainedFrom);
+    eventIndex.ifAvailable(
+        index -> {
+          int removed = index.removeBefore(retainedFrom);
+          if (removed > 0) {
+            log.info("Removed {} expired events from the index", removed);
+          }
+        });
+  }
+}
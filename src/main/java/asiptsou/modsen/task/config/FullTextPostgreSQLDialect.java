@@ -0,0 +1,36 @@
+package asiptsou.modsen.task.config;
+
+import org.hibernate.dialect.PostgreSQL95Dialect;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers full text search functions over event topic, description, organizer and location.
+ * The document expression must stay equal to the one of the GIN index from
+ * add_full_text_index_to_event.yaml, otherwise Postgres won't use the index.
+ */
+public class FullTextPostgreSQLDialect extends PostgreSQL95Dialect {
+
+  public static final String FULL_TEXT_MATCH = "full_text_match";
+  public static final String FULL_TEXT_RANK = "full_text_rank";
+
+  private static final String DOCUMENT =
+      "to_tsvector('simple', coalesce(?1, '') || ' ' || coalesce(?2, '') || ' ' "
+          + "|| coalesce(?3, '') || ' ' || coalesce(?4, ''))";
+  private static final String QUERY = "plainto_tsquery('simple', ?5)";
+
+  /**
+   * SQL of the functions, ?1 to ?4 stand for topic, description, organizer and location, ?5 for
+   * the query. Shared with the plain SQL of the reactive stack.
+   */
+  public static final String FULL_TEXT_MATCH_SQL = "(" + DOCUMENT + " @@ " + QUERY + ")";
+
+  public static final String FULL_TEXT_RANK_SQL = "ts_rank(" + DOCUMENT + ", " + QUERY + ")";
+
+  public FullTextPostgreSQLDialect() {
+    registerFunction(
+        FULL_TEXT_MATCH, new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, FULL_TEXT_MATCH_SQL));
+    registerFunction(
+        FULL_TEXT_RANK, new SQLFunctionTemplate(StandardBasicTypes.FLOAT, FULL_TEXT_RANK_SQL));
+  }
+}
@@ -1,10 +1,16 @@
 package asiptsou.modsen.task.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.dao.annotation.PersistenceExceptionTranslationPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.hibernate5.HibernateTransactionManager;
 import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -13,6 +19,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 import javax.sql.DataSource;
 import java.util.Properties;
 
+import static java.util.Objects.isNull;
+
 @Configuration
 @EnableTransactionManagement
 public class HibernateConfig {
@@ -29,19 +37,36 @@ public class HibernateConfig {
   private String driver;
   @Value("${package.scan.entity}")
   private String packageToScan;
+  @Value("${hibernate.cache.use_second_level_cache}")
+  private String useSecondLevelCache;
+  @Value("${hibernate.cache.use_query_cache}")
+  private String useQueryCache;
+  @Value("${hibernate.javax.cache.uri}")
+  private String cacheConfigUri;
+  @Value("${hibernate.jdbc.batch_size}")
+  private String batchSize;
+  @Value("${hibernate.generate_statistics}")
+  private String generateStatistics;
+  @Value("${hibernate.slow_query_threshold_ms}")
+  private String slowQueryThresholdMs;
+  @Autowired private ObjectProvider<ReadReplicaRoutingDataSource> readReplicaRoutingDataSource;
 
   @Bean
   public LocalSessionFactoryBean sessionFactory() {
     LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
-    sessionFactory.setDataSource(dataSource());
+    sessionFactory.setDataSource(hibernateDataSource());
     sessionFactory.setPackagesToScan(packageToScan);
     sessionFactory.setHibernateProperties(hibernateProperties());
     return sessionFactory;
   }
 
+  /** Pool settings and PgJDBC properties are bound from spring.datasource.hikari.* */
   @Bean
-  public DataSource dataSource() {
-    DataSourceBuilder<?> dataSourceBuilder = DataSourceBuilder.create();
+  @Primary
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource dataSource() {
+    DataSourceBuilder<HikariDataSource> dataSourceBuilder =
+        DataSourceBuilder.create().type(HikariDataSource.class);
     dataSourceBuilder.driverClassName(driver);
     dataSourceBuilder.url(url);
     dataSourceBuilder.username(username);
@@ -61,9 +86,38 @@ public class HibernateConfig {
     return transactionManager;
   }
 
+  /**
+   * The primary pool, or with read replicas configured the routing between them and the primary.
+   * It takes connections lazily, once read-only of the transaction is known.
+   */
+  private DataSource hibernateDataSource() {
+    ReadReplicaRoutingDataSource routingDataSource = readReplicaRoutingDataSource.getIfAvailable();
+    return isNull(routingDataSource)
+        ? dataSource()
+        : new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
   private Properties hibernateProperties() {
     Properties hibernateProperties = new Properties();
     hibernateProperties.setProperty("hibernate.dialect", dialect);
+    hibernateProperties.setProperty("hibernate.cache.use_second_level_cache", useSecondLevelCache);
+    // results read from a lagging replica would be cached as if they were current
+    hibernateProperties.setProperty(
+        "hibernate.cache.use_query_cache",
+        isNull(readReplicaRoutingDataSource.getIfAvailable()) ? useQueryCache : "false");
+    hibernateProperties.setProperty("hibernate.cache.region.factory_class", "jcache");
+    hibernateProperties.setProperty(
+        "hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+    hibernateProperties.setProperty("hibernate.javax.cache.uri", cacheConfigUri);
+    hibernateProperties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+    hibernateProperties.setProperty("hibernate.jdbc.batch_size", batchSize);
+    hibernateProperties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
+    hibernateProperties.setProperty("hibernate.order_inserts", "true");
+    hibernateProperties.setProperty("hibernate.order_updates", "true");
+    hibernateProperties.setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+    hibernateProperties.setProperty("hibernate.generate_statistics", generateStatistics);
+    hibernateProperties.setProperty(
+        "hibernate.session.events.log.LOG_QUERIES_SLOWER_THAN_MS", slowQueryThresholdMs);
     return hibernateProperties;
   }
 }
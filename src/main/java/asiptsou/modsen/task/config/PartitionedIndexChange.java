@@ -0,0 +1,140 @@
+package asiptsou.modsen.task.config;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Creates an index on a partitioned table without blocking writes: the index is created on the
+ * parent only, then built CONCURRENTLY on each partition and attached to it, and becomes valid
+ * once all partitions have theirs. Partitions attached later get the index from the parent. The
+ * change set must have {@code runInTransaction: false}. A rerun after a failure drops the invalid
+ * partition index left by the failed build and goes on with the remaining partitions.
+ */
+@Getter
+@Setter
+public class PartitionedIndexChange implements CustomTaskChange {
+
+  private static final String PARTITIONS_SQL =
+      "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid"
+          + " WHERE i.inhparent = to_regclass(?) ORDER BY c.relname";
+  private static final String PARTITION_INDEX_SQL =
+      "SELECT x.indisvalid, EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = x.indexrelid"
+          + " AND i.inhparent = to_regclass(?)) FROM pg_index x"
+          + " WHERE x.indexrelid = to_regclass(?)";
+
+  private String tableName;
+  private String indexName;
+  private String columns;
+  private boolean unique;
+
+  @Override
+  public void execute(Database database) throws CustomChangeException {
+    String create = unique ? "CREATE UNIQUE INDEX" : "CREATE INDEX";
+    try {
+      Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+      if (!connection.getAutoCommit()) {
+        throw new CustomChangeException(
+            indexName + " is built CONCURRENTLY, set runInTransaction: false");
+      }
+      try (Statement statement = connection.createStatement()) {
+        statement.execute(
+            format("%s IF NOT EXISTS %s ON ONLY %s (%s)", create, indexName, tableName, columns));
+        for (String partition : partitions(connection)) {
+          String partitionIndex = partition + "_" + columns.replaceAll("\\W+", "_") + "_idx";
+          PartitionIndex state = partitionIndex(connection, partitionIndex);
+          if (state == PartitionIndex.ATTACHED) {
+            continue;
+          }
+          if (state == PartitionIndex.INVALID) {
+            statement.execute(format("DROP INDEX CONCURRENTLY \"%s\"", partitionIndex));
+          }
+          if (state != PartitionIndex.VALID) {
+            statement.execute(
+                format(
+                    "%s CONCURRENTLY \"%s\" ON \"%s\" (%s)",
+                    create, partitionIndex, partition, columns));
+          }
+          statement.execute(
+              format("ALTER INDEX %s ATTACH PARTITION \"%s\"", indexName, partitionIndex));
+        }
+      }
+    } catch (SQLException e) {
+      throw new CustomChangeException("Can't create index " + indexName, e);
+    }
+  }
+
+  private List<String> partitions(Connection connection) throws SQLException {
+    List<String> partitions = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(PARTITIONS_SQL)) {
+      statement.setString(1, tableName);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          partitions.add(resultSet.getString(1));
+        }
+      }
+    }
+    return partitions;
+  }
+
+  private PartitionIndex partitionIndex(Connection connection, String partitionIndex)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(PARTITION_INDEX_SQL)) {
+      statement.setString(1, indexName);
+      statement.setString(2, "\"" + partitionIndex + "\"");
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (!resultSet.next()) {
+          return PartitionIndex.MISSING;
+        }
+        if (resultSet.getBoolean(2)) {
+          return PartitionIndex.ATTACHED;
+        }
+        return resultSet.getBoolean(1) ? PartitionIndex.VALID : PartitionIndex.INVALID;
+      }
+    }
+  }
+
+  @Override
+  public String getConfirmationMessage() {
+    return "Index " + indexName + " created on partitions of " + tableName;
+  }
+
+  @Override
+  public void setUp() {
+    // nothing to set up
+  }
+
+  @Override
+  public void setFileOpener(ResourceAccessor resourceAccessor) {
+    // reads no files
+  }
+
+  @Override
+  public ValidationErrors validate(Database database) {
+    // called before the parameters are set, so there is nothing to check yet
+    return new ValidationErrors();
+  }
+
+  /** State of the index of a partition, INVALID after a failed CONCURRENTLY build. */
+  private enum PartitionIndex {
+    MISSING,
+    INVALID,
+    VALID,
+    ATTACHED
+  }
+}
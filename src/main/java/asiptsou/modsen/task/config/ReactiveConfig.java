@@ -0,0 +1,85 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.controller.EventDateFormatterFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import java.time.Duration;
+
+/**
+ * R2DBC access of the reactive profile to the database of {@code spring.datasource}. The
+ * transaction manager is not a bean, so the Hibernate one stays the only {@code
+ * PlatformTransactionManager} of {@code @Transactional}.
+ */
+@Configuration
+@Profile(ReactiveConfig.REACTIVE_PROFILE)
+public class ReactiveConfig implements WebFluxConfigurer {
+
+  public static final String REACTIVE_PROFILE = "reactive";
+  private static final String JDBC_PREFIX = "jdbc:";
+  private static final String R2DBC_PREFIX = "r2dbc:";
+
+  @Value("${spring.datasource.url}")
+  private String url;
+  @Value("${spring.datasource.username}")
+  private String username;
+  @Value("${spring.datasource.password}")
+  private String password;
+  @Value("${event.reactive.pool.max-size}")
+  private int maxSize;
+  @Value("${event.reactive.pool.max-acquire-time}")
+  private Duration maxAcquireTime;
+
+  /** Tomcat of the servlet stack is on the classpath too and would be preferred otherwise. */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  @Bean(destroyMethod = "dispose")
+  public ConnectionPool connectionPool() {
+    ConnectionFactoryOptions options =
+        ConnectionFactoryOptions.parse(url.replaceFirst(JDBC_PREFIX, R2DBC_PREFIX))
+            .mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build();
+    return new ConnectionPool(
+        ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+            .name("event-r2dbc-pool")
+            .initialSize(Math.min(maxSize, 5))
+            .maxSize(maxSize)
+            .maxAcquireTime(maxAcquireTime)
+            .build());
+  }
+
+  @Bean
+  public DatabaseClient databaseClient(ConnectionPool connectionPool) {
+    return DatabaseClient.builder()
+        .connectionFactory(connectionPool)
+        .namedParameters(true)
+        .build();
+  }
+
+  @Bean
+  public TransactionalOperator reactiveTransactionalOperator(ConnectionPool connectionPool) {
+    return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+  }
+
+  @Override
+  public void addFormatters(FormatterRegistry registry) {
+    registry.addFormatterForFieldAnnotation(new EventDateFormatterFactory());
+  }
+}
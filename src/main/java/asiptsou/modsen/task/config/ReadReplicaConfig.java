@@ -0,0 +1,82 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.controller.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * Read replicas of {@code event.datasource.replica-urls}, used by {@link HibernateConfig} for
+ * read-only transactions. Replica pools have the settings and credentials of the primary pool.
+ */
+@Configuration
+@Profile("!" + REACTIVE_PROFILE)
+@ConditionalOnExpression("!'${event.datasource.replica-urls:}'.isBlank()")
+public class ReadReplicaConfig {
+
+  @Value("${event.datasource.replica-urls}")
+  private String[] replicaUrls;
+  @Value("${event.datasource.replica-max-lag}")
+  private Duration maxLag;
+  @Value("${event.datasource.replica-check-interval}")
+  private Duration checkInterval;
+
+  @Bean(destroyMethod = "close")
+  public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(
+      HikariDataSource dataSource) {
+    List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.length);
+    for (int i = 0; i < replicaUrls.length; i++) {
+      HikariConfig config = new HikariConfig();
+      config.setPoolName(dataSource.getPoolName() + "-replica-" + i);
+      config.setJdbcUrl(replicaUrls[i].trim());
+      config.setDriverClassName(dataSource.getDriverClassName());
+      config.setUsername(dataSource.getUsername());
+      config.setPassword(dataSource.getPassword());
+      config.setMaximumPoolSize(dataSource.getMaximumPoolSize());
+      config.setMinimumIdle(dataSource.getMinimumIdle());
+      config.setConnectionTimeout(dataSource.getConnectionTimeout());
+      config.setIdleTimeout(dataSource.getIdleTimeout());
+      config.setMaxLifetime(dataSource.getMaxLifetime());
+      config.setLeakDetectionThreshold(dataSource.getLeakDetectionThreshold());
+      config.setDataSourceProperties(dataSource.getDataSourceProperties());
+      config.setReadOnly(true);
+      // a replica being down must not stop the application, reads go to the primary meanwhile
+      config.setInitializationFailTimeout(-1);
+      replicas.add(new HikariDataSource(config));
+    }
+    ReadReplicaRoutingDataSource routingDataSource =
+        new ReadReplicaRoutingDataSource(dataSource, replicas, maxLag);
+    routingDataSource.startChecks(checkInterval);
+    return routingDataSource;
+  }
+
+  /** Publishes hikaricp.* metrics of replica pools, tagged with their pool names. */
+  @Bean
+  public MeterBinder readReplicaPoolMetrics(ReadReplicaRoutingDataSource routingDataSource) {
+    return meterRegistry -> {
+      for (HikariDataSource replica : routingDataSource.getReplicas()) {
+        replica.setMetricRegistry(meterRegistry);
+      }
+    };
+  }
+
+  /**
+   * Replicas lagging more than {@code maxLag} are skipped from the next check on, so after this
+   * long every replica in use has replayed the client's write.
+   */
+  @Bean
+  public ReadYourWritesFilter readYourWritesFilter() {
+    return new ReadYourWritesFilter(maxLag.plus(checkInterval));
+  }
+}
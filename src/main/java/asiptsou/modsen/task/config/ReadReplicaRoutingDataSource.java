@@ -0,0 +1,172 @@
+package asiptsou.modsen.task.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Gives connections of read-only transactions from replicas and all others from the primary.
+ * Replicas are taken round-robin from those which passed the last health check: the replica is
+ * reachable and replays WAL at most {@code maxLag} behind. Without such replicas, or when the
+ * replica can't give a connection, the primary is used.
+ *
+ * <p>The transaction is known to be read-only only after it has begun, so this data source has to
+ * be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy},
+ * which takes the connection on the first statement.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+  /** Lag is 0 while everything received is replayed, otherwise the age of the last replayed. */
+  private static final String LAG_QUERY =
+      "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+          + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+  private static final ThreadLocal<Boolean> PRIMARY_REQUIRED =
+      ThreadLocal.withInitial(() -> false);
+
+  private final DataSource primary;
+  private final List<HikariDataSource> replicas;
+  private final Duration maxLag;
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("replica-check-"));
+  private final AtomicInteger next = new AtomicInteger();
+  private volatile List<HikariDataSource> healthyReplicas = List.of();
+
+  public ReadReplicaRoutingDataSource(
+      DataSource primary,
+      List<HikariDataSource> replicas,
+      Duration maxLag) {
+    this.primary = primary;
+    this.replicas = List.copyOf(replicas);
+    this.maxLag = maxLag;
+  }
+
+  /** Checks replicas now and then once per interval, until closed. */
+  public void startChecks(Duration checkInterval) {
+    scheduler.scheduleWithFixedDelay(
+        this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Runs the action with all its transactions on the primary, e.g. reads whose results outlive
+   * the request and so must not be behind any committed write.
+   */
+  public static <T> T onPrimary(Supplier<T> action) {
+    boolean previous = requirePrimary(true);
+    try {
+      return action.get();
+    } finally {
+      requirePrimary(previous);
+    }
+  }
+
+  public static boolean isPrimaryRequired() {
+    return PRIMARY_REQUIRED.get();
+  }
+
+  /** Sets whether transactions of this thread must use the primary and returns the old value. */
+  public static boolean requirePrimary(boolean required) {
+    boolean previous = PRIMARY_REQUIRED.get();
+    PRIMARY_REQUIRED.set(required);
+    return previous;
+  }
+
+  List<HikariDataSource> getReplicas() {
+    return replicas;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    HikariDataSource replica = nextReplica();
+    if (replica != null) {
+      try {
+        return replica.getConnection();
+      } catch (SQLException exception) {
+        log.warn("Replica {} is not available, reading from primary", replica.getPoolName());
+        exclude(replica);
+      }
+    }
+    return primary.getConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    HikariDataSource replica = nextReplica();
+    return replica == null
+        ? primary.getConnection(username, password)
+        : replica.getConnection(username, password);
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    replicas.forEach(HikariDataSource::close);
+  }
+
+  /** Returns the replica for the current transaction, or null if it has to use the primary. */
+  HikariDataSource nextReplica() {
+    List<HikariDataSource> candidates = healthyReplicas;
+    if (candidates.isEmpty()
+        || PRIMARY_REQUIRED.get()
+        || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return null;
+    }
+    return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+  }
+
+  void checkReplicas() {
+    List<HikariDataSource> passed = new ArrayList<>(replicas.size());
+    for (HikariDataSource replica : replicas) {
+      if (isHealthy(replica)) {
+        passed.add(replica);
+      }
+    }
+    synchronized (this) {
+      if (passed.size() != healthyReplicas.size()) {
+        log.info("{} of {} replicas serve reads", passed.size(), replicas.size());
+      }
+      healthyReplicas = List.copyOf(passed);
+    }
+  }
+
+  private boolean isHealthy(HikariDataSource replica) {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+      resultSet.next();
+      double lagSeconds = resultSet.getDouble(1);
+      if (lagSeconds * 1000 > maxLag.toMillis()) {
+        log.warn("Replica {} lags {} s behind primary", replica.getPoolName(), lagSeconds);
+        return false;
+      }
+      return true;
+    } catch (SQLException exception) {
+      log.warn("Replica {} failed health check: {}", replica.getPoolName(), exception.getMessage());
+      return false;
+    }
+  }
+
+  private synchronized void exclude(HikariDataSource replica) {
+    List<HikariDataSource> remaining = new ArrayList<>(healthyReplicas);
+    remaining.remove(replica);
+    healthyReplicas = List.copyOf(remaining);
+  }
+}
@@ -0,0 +1,41 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.controller.EventDateFormatterFactory;
+import asiptsou.modsen.task.controller.EventExportTimeoutInterceptor;
+import asiptsou.modsen.task.converter.EventProtobufHttpMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+  private final Duration exportTimeout;
+
+  public WebConfig(@Value("${event.export.timeout}") Duration exportTimeout) {
+    this.exportTimeout = exportTimeout;
+  }
+
+  /** Serves events as Protobuf, JSON, CBOR and Smile converters are registered by Spring Boot. */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.add(new EventProtobufHttpMessageConverter());
+  }
+
+  @Override
+  public void addFormatters(FormatterRegistry registry) {
+    registry.addFormatterForFieldAnnotation(new EventDateFormatterFactory());
+  }
+
+  /** The export streams the whole table, so it's limited by its own timeout, not the default. */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.registerCallableInterceptors(new EventExportTimeoutInterceptor(exportTimeout));
+  }
+}
@@ -0,0 +1,63 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.service.EventChangeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static java.util.Objects.isNull;
+
+@RestController
+@RequestMapping("/api/events/changes")
+@Profile("!" + REACTIVE_PROFILE)
+@AllArgsConstructor
+public class EventChangeController {
+
+  private static final String DEFAULT_LIMIT = "100";
+  private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+  private final EventChangeService eventChangeService;
+  private final EventChangeEmitters eventChangeEmitters;
+
+  @Operation(
+      summary =
+          "Get events created, updated or deleted after the since token, each once with the type "
+              + "of its last change and its current state. Pass 'next' of the response as since "
+              + "of the next request, it is returned also when there were no changes")
+  @GetMapping()
+  public ResponseEntity<EventChangePageDto> getChanges(
+      @Parameter(
+              description =
+                  "Value of 'next' from the previous response. Omit it to read all changes kept")
+          @RequestParam(required = false)
+          String since,
+      @Parameter(description = "Max count of changes read at once, from 1 to 1000")
+          @RequestParam(required = false, defaultValue = DEFAULT_LIMIT)
+          int limit) {
+    return ResponseEntity.ok(eventChangeService.getChanges(since, limit));
+  }
+
+  @Operation(
+      summary =
+          "Stream changes of events as server-sent events named 'changes'. The id of every event "
+              + "is the since token after it, so reconnects resume from Last-Event-ID")
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(
+      @Parameter(description = "Token to stream changes after. Omit it for new changes only")
+          @RequestParam(required = false)
+          String since,
+      @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+    return eventChangeEmitters.subscribe(isNull(lastEventId) ? since : lastEventId);
+  }
+}
@@ -0,0 +1,150 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.service.EventChangeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static asiptsou.modsen.task.config.EventChangeConfig.EVENT_CHANGE_SCHEDULER;
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * Open server-sent event streams of the change feed. One poll per interval reads the head of the
+ * change log, and only streams behind it read their next changes, so idle streams cost nothing
+ * but that one query. Each page of changes is sent as one {@code changes} event with the token
+ * after it as event id, so a reconnecting client resumes from Last-Event-ID.
+ */
+@Slf4j
+@Component
+@Profile("!" + REACTIVE_PROFILE)
+public class EventChangeEmitters {
+
+  public static final String CHANGES_EVENT = "changes";
+  public static final int PAGE_SIZE = 1000;
+
+  private final EventChangeService eventChangeService;
+  private final ScheduledExecutorService scheduler;
+  private final Duration pollInterval;
+  private final Duration heartbeatInterval;
+  private final Duration timeout;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  public EventChangeEmitters(
+      EventChangeService eventChangeService,
+      @Qualifier(EVENT_CHANGE_SCHEDULER) ScheduledExecutorService scheduler,
+      @Value("${event.changes.poll-interval}") Duration pollInterval,
+      @Value("${event.changes.heartbeat-interval}") Duration heartbeatInterval,
+      @Value("${event.changes.stream-timeout}") Duration timeout) {
+    this.eventChangeService = eventChangeService;
+    this.scheduler = scheduler;
+    this.pollInterval = pollInterval;
+    this.heartbeatInterval = heartbeatInterval;
+    this.timeout = timeout;
+  }
+
+  @PostConstruct
+  void startPolling() {
+    scheduler.scheduleWithFixedDelay(
+        this::poll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Streams changes after the token, or only the ones to come when it is null. */
+  public SseEmitter subscribe(String since) {
+    SseEmitter emitter = new SseEmitter(timeout.toMillis());
+    String position = isNullOrEmpty(since) ? eventChangeService.getHead() : since;
+    Subscriber subscriber = new Subscriber(emitter, position);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(error -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    return emitter;
+  }
+
+  int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  /** Runs on the scheduler thread only, which is the only one sending to the emitters. */
+  void poll() {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    try {
+      String head = eventChangeService.getHead();
+      long now = System.nanoTime();
+      for (Subscriber subscriber : subscribers) {
+        if (head != null && !Objects.equals(head, subscriber.position)) {
+          sendChanges(subscriber, now);
+        } else if (now - subscriber.lastSent >= heartbeatInterval.toNanos()) {
+          send(subscriber, SseEmitter.event().comment(""), now);
+        }
+      }
+    } catch (RuntimeException exception) {
+      // the next poll retries, a failed one must not cancel the schedule
+      log.warn("Poll of event changes failed", exception);
+    }
+  }
+
+  private void sendChanges(Subscriber subscriber, long now) {
+    EventChangePageDto page;
+    try {
+      page = eventChangeService.getChanges(subscriber.position, PAGE_SIZE);
+    } catch (IllegalArgumentException exception) {
+      // a token not valid or expired, the stream can't go on but the others can
+      subscribers.remove(subscriber);
+      subscriber.emitter.completeWithError(exception);
+      return;
+    }
+    if (page.getChanges().isEmpty()) {
+      return;
+    }
+    if (send(
+        subscriber,
+        SseEmitter.event().id(page.getNext()).name(CHANGES_EVENT).data(page.getChanges()),
+        now)) {
+      subscriber.position = page.getNext();
+    }
+  }
+
+  private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event, long now) {
+    try {
+      subscriber.emitter.send(event);
+      subscriber.lastSent = now;
+      return true;
+    } catch (IOException | IllegalStateException exception) {
+      // the client went away or the stream timed out meanwhile
+      subscribers.remove(subscriber);
+      subscriber.emitter.completeWithError(exception);
+      return false;
+    }
+  }
+
+  private static boolean isNullOrEmpty(String value) {
+    return value == null || value.isEmpty();
+  }
+
+  private static final class Subscriber {
+
+    private final SseEmitter emitter;
+    private String position;
+    private long lastSent = System.nanoTime();
+
+    private Subscriber(SseEmitter emitter, String position) {
+      this.emitter = emitter;
+      this.position = position;
+    }
+  }
+}
@@ -1,13 +1,22 @@
 package asiptsou.modsen.task.controller;
 
+import asiptsou.modsen.task.converter.EventProtobufHttpMessageConverter;
 import asiptsou.modsen.task.model.EventFilter;
+import asiptsou.modsen.task.dto.EventBatchResultDto;
 import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
 import asiptsou.modsen.task.service.EventService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.protobuf.CodedOutputStream;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import lombok.AllArgsConstructor;
-import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,46 +24,156 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static asiptsou.modsen.task.controller.EventExportTimeoutInterceptor.markExport;
+import static asiptsou.modsen.task.controller.EventIdempotencyKeys.IDEMPOTENCY_KEY_HEADER;
+import static asiptsou.modsen.task.converter.EventProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+import static asiptsou.modsen.task.converter.EventProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE;
+import static java.util.Objects.isNull;
 import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.ok;
 
 @RestController
 @RequestMapping("/api/events")
+@Profile("!" + REACTIVE_PROFILE)
 @AllArgsConstructor
 public class EventController {
 
+  private static final String DEFAULT_LIMIT = "100";
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+  static final String ANY_ETAG = "*";
+  private static final String ETAG_ERROR = "ETag should be the quoted version of event but was ";
+
   private final EventService eventService;
+  private final ObjectMapper objectMapper;
+  private final EventIdempotencyKeys eventIdempotencyKeys;
 
-  @Operation(summary = "Get event by its id")
+  @Operation(
+      summary =
+          "Get event by its id. Its ETag is the quoted version, send it as If-None-Match to get "
+              + "304 without body while the event is not changed")
   @GetMapping("/{id}")
   public ResponseEntity<EventDto> getById(
       @Parameter(description = "Id of event to be searched") @PathVariable long id) {
-    return ResponseEntity.ok(eventService.getById(id));
+    EventDto eventDto = eventService.getById(id);
+    return withETag(ok(), toETag(eventDto)).body(eventDto);
   }
 
-  @Operation(summary = "Save event. For date use pattern: dd-MM-yyyy HH:mm")
+  @Operation(
+      summary =
+          "Save event. For date use pattern: dd-MM-yyyy HH:mm. Retries with the same "
+              + "Idempotency-Key get the event saved first instead of a new one")
   @PostMapping()
-  public ResponseEntity<EventDto> save(@RequestBody @Valid EventDto eventDto) {
-    return ResponseEntity.status(HttpStatus.CREATED).body(eventService.save(eventDto));
+  public ResponseEntity<EventDto> save(
+      @Parameter(description = "Unique key of the event to save, e.g. a UUID, at most 255 chars")
+          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false)
+          String idempotencyKey,
+      @RequestBody @Valid EventDto eventDto) {
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .body(eventIdempotencyKeys.save(idempotencyKey, eventDto, eventService::save));
+  }
+
+  @Operation(
+      summary =
+          "Save up to 10000 events at once. For date use pattern: dd-MM-yyyy HH:mm. "
+              + "Every event is validated on its own and gets its result at the same index")
+  @PostMapping("/batch")
+  public ResponseEntity<List<EventBatchResultDto>> saveAll(@RequestBody List<EventDto> eventDtos) {
+    return ok(eventService.saveAll(eventDtos));
   }
 
-  @Operation(summary = "Get all events")
+  @Operation(
+      summary =
+          "Get page of events ordered by id. Send its weak ETag as If-None-Match to get 304 "
+              + "while the page is not changed")
   @GetMapping()
-  public ResponseEntity<List<EventDto>> getAll() {
-    return ResponseEntity.ok(eventService.getAll());
+  public ResponseEntity<EventPageDto> getAll(
+      @Parameter(description = "Value of 'next' from the previous page. Omit it for the first page")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Max count of events on the page, from 1 to 1000. Default value 100")
+          @RequestParam(required = false, defaultValue = DEFAULT_LIMIT)
+          int limit,
+      @Parameter(
+              description =
+                  "Comma separated fields of events to return, e.g. 'topic,date'. "
+                      + "Omit it to return all fields")
+          @RequestParam(required = false)
+          String fields) {
+    EventPageDto eventPage = eventService.getAll(cursor, limit, fields);
+    return withETag(ok(), toWeakETag(eventPage)).body(eventPage);
   }
 
-  @Operation(summary = "Get all events by filter. You can choose filter and sorting parameters")
+  @Operation(
+      summary =
+          "Export all events ordered by id as newline delimited JSON, one event per line. "
+              + "Events are written while they are read, so it suits full dumps of any size")
+  @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export(NativeWebRequest request) {
+    markExport(request);
+    ObjectWriter eventWriter = objectMapper.writerFor(EventDto.class);
+    StreamingResponseBody body =
+        outputStream -> {
+          try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            eventService.exportAll(
+                eventDto -> {
+                  try {
+                    eventWriter.writeValue(generator, eventDto);
+                    generator.writeRaw('\n');
+                  } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                  }
+                });
+          }
+        };
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+        .body(body);
+  }
+
+  @Operation(
+      summary =
+          "Export all events ordered by id as a stream of length delimited Protobuf Event "
+              + "messages of event.proto, readable with parseDelimitedFrom")
+  @GetMapping(value = "/export", produces = APPLICATION_PROTOBUF_VALUE)
+  public ResponseEntity<StreamingResponseBody> exportProtobuf(NativeWebRequest request) {
+    markExport(request);
+    StreamingResponseBody body =
+        outputStream -> {
+          CodedOutputStream output = CodedOutputStream.newInstance(outputStream);
+          eventService.exportAll(
+              eventDto -> {
+                try {
+                  EventProtobufHttpMessageConverter.writeDelimited(eventDto, output);
+                } catch (IOException exception) {
+                  throw new UncheckedIOException(exception);
+                }
+              });
+          output.flush();
+        };
+    return ResponseEntity.ok().contentType(APPLICATION_PROTOBUF).body(body);
+  }
+
+  @Operation(
+      summary =
+          "Get page of events by filter. You can choose filter and sorting parameters. "
+              + "Use 'next' of the response as cursor for the next page with the same parameters")
   @GetMapping("/filter")
-  public ResponseEntity<List<EventDto>> getEventByFilter(
+  public ResponseEntity<EventPageDto> getEventByFilter(
       @Parameter(
               description =
                   "Part of topic's name for searching. Example 'ar' could return topics 'paragraph' or 'arcade'")
@@ -85,15 +204,15 @@ public class EventController {
           String organizerSortDirection,
       @Parameter(
               description =
-                  "First date for search events. Use pattern 'dd-MM-yyyy HH:mm'. Default value '01-02-1990 00:00'")
+                  "First date for search events. Use pattern 'dd-MM-yyyy HH:mm'. Omit it to search without lower bound")
           @RequestParam(required = false)
-          @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
+          @EventDateParam
           LocalDateTime fromDate,
       @Parameter(
               description =
-                  "Last date for search events. Use pattern 'dd-MM-yyyy HH:mm'. Default value '01-02-3000 00:00'")
+                  "Last date for search events. Use pattern 'dd-MM-yyyy HH:mm'. Omit it to search without upper bound")
           @RequestParam(required = false)
-          @DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")
+          @EventDateParam
           LocalDateTime toDate,
       @Parameter(
               description =
@@ -103,7 +222,25 @@ public class EventController {
       @Parameter(
               description = "Choose 'asc' for ascending sorting or 'desc' for descending sorting")
           @RequestParam(required = false, defaultValue = "")
-          String dateSortDirection) {
+          String dateSortDirection,
+      @Parameter(
+              description =
+                  "Words for full text search in topic, description, organizer and location. "
+                      + "Found events are sorted by relevance first")
+          @RequestParam(required = false)
+          String q,
+      @Parameter(description = "Value of 'next' from the previous page. Omit it for the first page")
+          @RequestParam(required = false)
+          String cursor,
+      @Parameter(description = "Max count of events on the page, from 1 to 1000. Default value 100")
+          @RequestParam(required = false, defaultValue = DEFAULT_LIMIT)
+          int limit,
+      @Parameter(
+              description =
+                  "Comma separated fields of events to return, e.g. 'topic,date'. "
+                      + "Omit it to return all fields")
+          @RequestParam(required = false)
+          String fields) {
 
     EventFilter eventFilter =
         EventFilter.builder()
@@ -117,11 +254,17 @@ public class EventController {
             .toDate(toDate)
             .isSortDate(isSortDate)
             .dateSortDirection(dateSortDirection)
+            .q(q)
+            .cursor(cursor)
+            .limit(limit)
+            .fields(fields)
             .build();
 
-    List<EventDto> eventList = eventService.getListEventByFilter(eventFilter);
+    EventPageDto eventPage = eventService.getListEventByFilter(eventFilter);
 
-    return eventList.isEmpty() ? noContent().build() : ok(eventList);
+    return eventPage.getEvents().isEmpty()
+        ? noContent().build()
+        : withETag(ok(), toWeakETag(eventPage)).body(eventPage);
   }
 
   @Operation(summary = "Delete event by id")
@@ -134,12 +277,82 @@ public class EventController {
         : ok().body("Event was not found by id = " + id);
   }
 
-  @Operation(summary = "Update event by id and new body")
+  @Operation(
+      summary =
+          "Update event by id and new body. Send the expected version in the body or as "
+              + "If-Match: \"<version>\" to update only if the event was not changed meanwhile, "
+              + "otherwise 409 is returned")
   @PutMapping("/{id}")
   public ResponseEntity<Void> update(
       @Parameter(description = "Id of event to be updated") @PathVariable("id") long id,
+      @Parameter(description = "Expected version of the event as ETag, e.g. \"3\"")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch,
       @Valid @RequestBody EventDto eventDto) {
+    if (!isNull(ifMatch) && !ANY_ETAG.equals(ifMatch.trim())) {
+      eventDto.setVersion(toVersion(ifMatch));
+    }
     eventService.update(id, eventDto);
     return ResponseEntity.noContent().build();
   }
+
+  /**
+   * Returns the strong ETag of the event, its quoted version like "3", or null if the version
+   * isn't known. The id is part of the URL, so the version alone tells representations apart, and
+   * the same value is accepted back in If-Match of {@link #update}.
+   */
+  static String toETag(EventDto eventDto) {
+    return isNull(eventDto.getVersion()) ? null : "\"" + eventDto.getVersion() + "\"";
+  }
+
+  /**
+   * Returns a weak ETag of the page built from ids and versions of its events and its cursor, or
+   * null if the selected fields don't include both id and version. Any update increments the
+   * version and inserts or deletes change the ids, so equal tags mean the same page content
+   * without hashing the serialized body.
+   */
+  static String toWeakETag(EventPageDto eventPage) {
+    long hash = isNull(eventPage.getNext()) ? 0 : eventPage.getNext().hashCode();
+    for (EventDto eventDto : eventPage.getEvents()) {
+      if (isNull(eventDto.getId()) || isNull(eventDto.getVersion())) {
+        return null;
+      }
+      hash = mix(hash * 31 + eventDto.getId());
+      hash = mix(hash * 31 + eventDto.getVersion());
+    }
+    return "W/\"" + Long.toHexString(hash) + "\"";
+  }
+
+  /**
+   * Sets the ETag unless it is null. GET and HEAD requests whose If-None-Match matches it are then
+   * answered with 304 before the body is serialized. The tag is of the content, equal for its JSON,
+   * CBOR, Smile and Protobuf bodies, so Vary: Accept keeps caches from serving one for another.
+   */
+  static <B extends ResponseEntity.HeadersBuilder<B>> B withETag(B builder, String etag) {
+    builder.varyBy(HttpHeaders.ACCEPT);
+    return isNull(etag) ? builder : builder.eTag(etag);
+  }
+
+  /** Finalizer of SplitMix64, spreads every input bit over the whole hash. */
+  private static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+    value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+    return value ^ (value >>> 31);
+  }
+
+  /**
+   * Reads the version from an ETag like "3". Weak ETags never match in If-Match. Shared with the
+   * {@link ReactiveEventController}.
+   */
+  static long toVersion(String etag) {
+    String value = etag.trim();
+    if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+      try {
+        return Long.parseLong(value.substring(1, value.length() - 1));
+      } catch (NumberFormatException exception) {
+        // reported below as any other malformed ETag
+      }
+    }
+    throw new IllegalArgumentException(ETAG_ERROR + etag);
+  }
 }
@@ -0,0 +1,38 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.service.EventDateFormat;
+import org.springframework.format.AnnotationFormatterFactory;
+import org.springframework.format.Parser;
+import org.springframework.format.Printer;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+public class EventDateFormatterFactory implements AnnotationFormatterFactory<EventDateParam> {
+
+  private static final String DATE_ERROR =
+      "Date {%s} doesn't match pattern " + EventDateFormat.PATTERN;
+
+  @Override
+  public Set<Class<?>> getFieldTypes() {
+    return Set.of(LocalDateTime.class);
+  }
+
+  @Override
+  public Printer<LocalDateTime> getPrinter(EventDateParam annotation, Class<?> fieldType) {
+    return (date, locale) -> EventDateFormat.format(date);
+  }
+
+  @Override
+  public Parser<LocalDateTime> getParser(EventDateParam annotation, Class<?> fieldType) {
+    return (text, locale) -> {
+      LocalDateTime date = EventDateFormat.parse(text);
+      if (date == null) {
+        throw new IllegalArgumentException(format(DATE_ERROR, text));
+      }
+      return date;
+    };
+  }
+}
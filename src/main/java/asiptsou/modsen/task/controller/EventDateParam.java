@@ -0,0 +1,16 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.service.EventDateFormat;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a request parameter in the {@link EventDateFormat} pattern, like {@code
+ * DateTimeFormat(pattern = "dd-MM-yyyy HH:mm")} but through the fixed width parser.
+ */
+@Target({ElementType.PARAMETER, ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface EventDateParam {}
@@ -0,0 +1,38 @@
+package asiptsou.modsen.task.controller;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Gives the export its own timeout. It streams the whole table in one async response, which would
+ * be cut by the default timeout of async requests, so requests marked by {@link #markExport} are
+ * limited by {@code timeout} instead and the other async requests keep the default.
+ */
+public class EventExportTimeoutInterceptor implements CallableProcessingInterceptor {
+
+  static final String EXPORT_ATTRIBUTE = EventExportTimeoutInterceptor.class.getName() + ".export";
+
+  private final Duration timeout;
+
+  public EventExportTimeoutInterceptor(Duration timeout) {
+    this.timeout = timeout;
+  }
+
+  static void markExport(NativeWebRequest request) {
+    request.setAttribute(EXPORT_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+  }
+
+  /** Called before the async processing starts, while its timeout can still be changed. */
+  @Override
+  public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+    if (request instanceof AsyncWebRequest
+        && request.getAttribute(EXPORT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+      ((AsyncWebRequest) request).setTimeout(timeout.toMillis());
+    }
+  }
+}
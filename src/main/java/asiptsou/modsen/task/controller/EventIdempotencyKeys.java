@@ -0,0 +1,105 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.dto.EventDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+/**
+ * Remembers events saved with an Idempotency-Key header, so a client retrying the request gets
+ * the event saved first instead of a duplicate. A retry while the first request is still running
+ * waits for it. Keys are kept in memory of this node, at most {@code maximumSize} of them and
+ * for {@code expireAfterWrite}, and a failed save forgets its key so it can be retried.
+ */
+@Component
+@Profile("!" + REACTIVE_PROFILE)
+public class EventIdempotencyKeys {
+
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String IDEMPOTENCY_KEY_CACHE = "eventByIdempotencyKey";
+  public static final int MAX_KEY_LENGTH = 255;
+  public static final String KEY_TOO_LONG_ERROR =
+      "Idempotency-Key can't be longer than " + MAX_KEY_LENGTH + " characters";
+  public static final String KEY_REUSED_ERROR =
+      "Idempotency-Key '%s' was already used to save another event";
+
+  private final Cache<String, Saving> savings;
+
+  public EventIdempotencyKeys(
+      MeterRegistry meterRegistry,
+      @Value("${event.idempotency.maximum-size}") long maximumSize,
+      @Value("${event.idempotency.expire-after-write}") Duration expireAfterWrite) {
+    savings =
+        Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, savings, IDEMPOTENCY_KEY_CACHE);
+  }
+
+  /**
+   * Saves the event by {@code save} unless the key was used before, then returns the event saved
+   * with it. A key used for another event is rejected. Without key the event is just saved.
+   */
+  public EventDto save(String key, EventDto eventDto, UnaryOperator<EventDto> save) {
+    if (isNull(key)) {
+      return save.apply(eventDto);
+    }
+    if (key.length() > MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException(KEY_TOO_LONG_ERROR);
+    }
+    Saving saving = new Saving(eventDto.toBuilder().build());
+    Saving first = savings.asMap().putIfAbsent(key, saving);
+    if (!isNull(first)) {
+      if (!first.request.equals(eventDto)) {
+        throw new IllegalArgumentException(format(KEY_REUSED_ERROR, key));
+      }
+      return awaitSaved(first).toBuilder().build();
+    }
+    try {
+      EventDto saved = save.apply(eventDto);
+      saving.saved.complete(saved.toBuilder().build());
+      return saved;
+    } catch (RuntimeException | Error e) {
+      savings.asMap().remove(key, saving);
+      saving.saved.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static EventDto awaitSaved(Saving saving) {
+    try {
+      return saving.saved.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw (RuntimeException) e.getCause();
+    }
+  }
+
+  /** Request saved with a key, and the saved event once the save has finished. */
+  private static final class Saving {
+
+    private final EventDto request;
+    private final CompletableFuture<EventDto> saved = new CompletableFuture<>();
+
+    private Saving(EventDto request) {
+      this.request = request;
+    }
+  }
+}
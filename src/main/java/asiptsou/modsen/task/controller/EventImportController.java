@@ -0,0 +1,50 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.dto.EventImportDto;
+import asiptsou.modsen.task.model.EventImportFormat;
+import asiptsou.modsen.task.service.EventImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+@RestController
+@RequestMapping("/api/events/import")
+@Profile("!" + REACTIVE_PROFILE)
+@AllArgsConstructor
+public class EventImportController {
+
+  private final EventImportService eventImportService;
+
+  @Operation(
+      summary =
+          "Start import of an event file from the import directory of the server. "
+              + "CSV needs a header row with topic, description, organizer, date and location. "
+              + "For date use pattern: dd-MM-yyyy HH:mm. Invalid records are skipped. "
+              + "A stopped or failed import is resumed after its last imported chunk")
+  @PostMapping()
+  public ResponseEntity<EventImportDto> start(
+      @Parameter(description = "Name of the file in the import directory") @RequestParam
+          String file,
+      @Parameter(description = "Format of the file: CSV or NDJSON") @RequestParam
+          EventImportFormat format) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED).body(eventImportService.start(file, format));
+  }
+
+  @Operation(summary = "Get progress of the import of the file")
+  @GetMapping()
+  public ResponseEntity<EventImportDto> getByFile(
+      @Parameter(description = "Name of the file in the import directory") @RequestParam
+          String file) {
+    return ResponseEntity.ok(eventImportService.getByFile(file));
+  }
+}
@@ -0,0 +1,170 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.dto.EventBatchResultDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventFilter;
+import asiptsou.modsen.task.service.ReactiveEventService;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static asiptsou.modsen.task.controller.EventController.ANY_ETAG;
+import static asiptsou.modsen.task.controller.EventController.APPLICATION_NDJSON_VALUE;
+import static asiptsou.modsen.task.controller.EventController.toETag;
+import static asiptsou.modsen.task.controller.EventController.toVersion;
+import static asiptsou.modsen.task.controller.EventController.toWeakETag;
+import static asiptsou.modsen.task.controller.EventController.withETag;
+import static java.util.Objects.isNull;
+import static org.springframework.http.ResponseEntity.noContent;
+import static org.springframework.http.ResponseEntity.ok;
+
+/**
+ * The {@link EventController} contract on WebFlux for the reactive profile. Filter results are
+ * also streamed as newline delimited JSON when it is accepted, rows are then read from the
+ * database only as fast as the client consumes them.
+ */
+@RestController
+@RequestMapping("/api/events")
+@Profile(REACTIVE_PROFILE)
+@AllArgsConstructor
+public class ReactiveEventController {
+
+  private static final String DEFAULT_LIMIT = "100";
+  private static final MediaType APPLICATION_NDJSON =
+      MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+  private final ReactiveEventService reactiveEventService;
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<EventDto>> getById(@PathVariable long id) {
+    return reactiveEventService
+        .getById(id)
+        .map(eventDto -> withETag(ok(), toETag(eventDto)).body(eventDto));
+  }
+
+  @PostMapping()
+  public Mono<ResponseEntity<EventDto>> save(@RequestBody @Valid EventDto eventDto) {
+    return reactiveEventService
+        .save(eventDto)
+        .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
+  }
+
+  @PostMapping("/batch")
+  public Mono<List<EventBatchResultDto>> saveAll(@RequestBody List<EventDto> eventDtos) {
+    return reactiveEventService.saveAll(eventDtos);
+  }
+
+  @GetMapping()
+  public Mono<ResponseEntity<EventPageDto>> getAll(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false, defaultValue = DEFAULT_LIMIT) int limit,
+      @RequestParam(required = false) String fields) {
+    return reactiveEventService
+        .getAll(cursor, limit, fields)
+        .map(eventPage -> withETag(ok(), toWeakETag(eventPage)).body(eventPage));
+  }
+
+  @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+  public Flux<EventDto> export() {
+    return reactiveEventService.exportAll();
+  }
+
+  /**
+   * Returns a page like {@link EventController#getEventByFilter}, or with {@code Accept:
+   * application/x-ndjson} streams every matching event from the cursor on regardless of the
+   * limit.
+   */
+  @GetMapping("/filter")
+  public Mono<ResponseEntity<?>> getEventByFilter(
+      @RequestParam(required = false, defaultValue = "") String topic,
+      @RequestParam(required = false) boolean isSortTopic,
+      @RequestParam(required = false, defaultValue = "") String topicSortDirection,
+      @RequestParam(required = false, defaultValue = "") String organizer,
+      @RequestParam(required = false) boolean isSortOrganizer,
+      @RequestParam(required = false, defaultValue = "") String organizerSortDirection,
+      @RequestParam(required = false) @EventDateParam LocalDateTime fromDate,
+      @RequestParam(required = false) @EventDateParam LocalDateTime toDate,
+      @RequestParam(required = false) boolean isSortDate,
+      @RequestParam(required = false, defaultValue = "") String dateSortDirection,
+      @RequestParam(required = false) String q,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(required = false, defaultValue = DEFAULT_LIMIT) int limit,
+      @RequestParam(required = false) String fields,
+      ServerHttpRequest request) {
+
+    EventFilter eventFilter =
+        EventFilter.builder()
+            .topic(topic)
+            .isSortTopic(isSortTopic)
+            .topicSortDirection(topicSortDirection)
+            .organizer(organizer)
+            .isSortOrganizer(isSortOrganizer)
+            .organizerSortDirection(organizerSortDirection)
+            .fromDate(fromDate)
+            .toDate(toDate)
+            .isSortDate(isSortDate)
+            .dateSortDirection(dateSortDirection)
+            .q(q)
+            .cursor(cursor)
+            .limit(limit)
+            .fields(fields)
+            .build();
+
+    if (request.getHeaders().getAccept().contains(APPLICATION_NDJSON)) {
+      return Mono.just(
+          ok().contentType(APPLICATION_NDJSON)
+              .body(reactiveEventService.streamByFilter(eventFilter)));
+    }
+    return reactiveEventService
+        .getListEventByFilter(eventFilter)
+        .map(
+            eventPage ->
+                eventPage.getEvents().isEmpty()
+                    ? noContent().build()
+                    : withETag(ok(), toWeakETag(eventPage)).body(eventPage));
+  }
+
+  @DeleteMapping("/{id}")
+  public Mono<String> deleteById(@PathVariable long id) {
+    return reactiveEventService
+        .deleteById(id)
+        .map(
+            deletedRow ->
+                deletedRow > 0
+                    ? "Event was successfully deleted with id = " + id
+                    : "Event was not found by id = " + id);
+  }
+
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<Void>> update(
+      @PathVariable("id") long id,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+      @Valid @RequestBody EventDto eventDto) {
+    if (!isNull(ifMatch) && !ANY_ETAG.equals(ifMatch.trim())) {
+      eventDto.setVersion(toVersion(ifMatch));
+    }
+    return reactiveEventService.update(id, eventDto).thenReturn(noContent().build());
+  }
+}
@@ -0,0 +1,62 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.config.ReadReplicaRoutingDataSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Lets clients read their own writes although reads go to replicas. Every write request gets a
+ * cookie living as long as replicas in use may lag behind, and requests with it read from the
+ * primary. Async parts of requests, e.g. the export stream, still read from replicas.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String READ_PRIMARY_COOKIE = "event-read-primary";
+
+  private final int maxAgeSeconds;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.maxAgeSeconds = (int) Math.max(1, (window.toMillis() + 999) / 1000);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (isWrite(request)) {
+      // set before the chain, the response may be committed by the time it returns
+      Cookie cookie = new Cookie(READ_PRIMARY_COOKIE, "1");
+      cookie.setMaxAge(maxAgeSeconds);
+      cookie.setPath("/");
+      cookie.setHttpOnly(true);
+      response.addCookie(cookie);
+    }
+    if (WebUtils.getCookie(request, READ_PRIMARY_COOKIE) == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    boolean previous = ReadReplicaRoutingDataSource.requirePrimary(true);
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReadReplicaRoutingDataSource.requirePrimary(previous);
+    }
+  }
+
+  private static boolean isWrite(HttpServletRequest request) {
+    HttpMethod method = HttpMethod.resolve(request.getMethod());
+    return method == HttpMethod.POST
+        || method == HttpMethod.PUT
+        || method == HttpMethod.PATCH
+        || method == HttpMethod.DELETE;
+  }
+}
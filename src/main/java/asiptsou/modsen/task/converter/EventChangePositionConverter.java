@@ -0,0 +1,35 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.model.EventChangePosition;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/** Converts {@link EventChangePosition} to the opaque url-safe token given to clients and back. */
+@Component
+public class EventChangePositionConverter {
+
+  private static final String NOT_VALID_TOKEN_MESSAGE = "Change token is not valid: ";
+  private static final int TOKEN_BYTES = 2 * Long.BYTES;
+
+  public String toToken(EventChangePosition position) {
+    ByteBuffer bytes = ByteBuffer.allocate(TOKEN_BYTES);
+    bytes.putLong(position.getXid()).putLong(position.getSeq());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
+  }
+
+  public EventChangePosition fromToken(String token) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException exception) {
+      throw new IllegalArgumentException(NOT_VALID_TOKEN_MESSAGE + token, exception);
+    }
+    if (bytes.length != TOKEN_BYTES) {
+      throw new IllegalArgumentException(NOT_VALID_TOKEN_MESSAGE + token);
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new EventChangePosition(buffer.getLong(), buffer.getLong());
+  }
+}
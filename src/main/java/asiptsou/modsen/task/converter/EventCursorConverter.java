@@ -0,0 +1,91 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.model.EventCursor;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import static asiptsou.modsen.task.model.EventFilter.RELEVANCE_SORTING;
+
+/** Converts {@link EventCursor} to the opaque url-safe token given to clients and back. */
+@Component
+public class EventCursorConverter {
+
+  private static final String NOT_VALID_CURSOR_MESSAGE = "Cursor is not valid: ";
+  private static final String MISSING_RANK_MESSAGE = "Relevance of the last event is missing";
+
+  public EventCursor toCursor(EventDto eventDto, String sorting) {
+    return EventCursor.builder()
+        .sorting(sorting)
+        .id(eventDto.getId())
+        .topic(eventDto.getTopic())
+        .organizer(eventDto.getOrganizer())
+        .date(eventDto.getDate())
+        .rank(eventDto.getRank())
+        .build();
+  }
+
+  public String toToken(EventCursor cursor) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeUTF(cursor.getSorting());
+      output.writeLong(cursor.getId());
+      writeNullable(output, cursor.getTopic());
+      writeNullable(output, cursor.getOrganizer());
+      writeNullable(output, cursor.getDate() == null ? null : cursor.getDate().toString());
+      output.writeBoolean(cursor.getRank() != null);
+      if (cursor.getRank() != null) {
+        output.writeFloat(cursor.getRank());
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+  }
+
+  public EventCursor fromToken(String token) {
+    try (DataInputStream input =
+        new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)))) {
+      String sorting = input.readUTF();
+      long id = input.readLong();
+      String topic = readNullable(input);
+      String organizer = readNullable(input);
+      String date = readNullable(input);
+      // cursors issued before relevance was part of them end here
+      Float rank = input.available() > 0 && input.readBoolean() ? input.readFloat() : null;
+      if (sorting.startsWith(RELEVANCE_SORTING) && rank == null) {
+        throw new IllegalArgumentException(MISSING_RANK_MESSAGE);
+      }
+      return EventCursor.builder()
+          .sorting(sorting)
+          .id(id)
+          .topic(topic)
+          .organizer(organizer)
+          .date(date == null ? null : LocalDateTime.parse(date))
+          .rank(rank)
+          .build();
+    } catch (IOException | IllegalArgumentException | DateTimeParseException exception) {
+      throw new IllegalArgumentException(NOT_VALID_CURSOR_MESSAGE + token, exception);
+    }
+  }
+
+  private void writeNullable(DataOutputStream output, String value) throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      output.writeUTF(value);
+    }
+  }
+
+  private String readNullable(DataInputStream input) throws IOException {
+    return input.readBoolean() ? input.readUTF() : null;
+  }
+}
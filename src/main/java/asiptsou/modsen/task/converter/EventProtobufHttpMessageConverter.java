@@ -0,0 +1,135 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.service.EventDateFormat;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link EventDto} and {@link EventPageDto} as the Event and EventPage messages of
+ * src/main/proto/event.proto. Messages are encoded straight from the DTOs into the response
+ * stream, so no generated classes or intermediate copies are involved. Responses only, requests
+ * are still read as JSON.
+ */
+public class EventProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+  public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+  public static final MediaType APPLICATION_PROTOBUF =
+      MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+  private static final int EVENT_ID = 1;
+  private static final int EVENT_VERSION = 2;
+  private static final int EVENT_TOPIC = 3;
+  private static final int EVENT_DESCRIPTION = 4;
+  private static final int EVENT_ORGANIZER = 5;
+  private static final int EVENT_DATE = 6;
+  private static final int EVENT_LOCATION = 7;
+  private static final int PAGE_EVENTS = 1;
+  private static final int PAGE_NEXT = 2;
+
+  public EventProtobufHttpMessageConverter() {
+    super(APPLICATION_PROTOBUF);
+  }
+
+  /** Writes the event preceded by its size, as one element of a stream of events. */
+  public static void writeDelimited(EventDto eventDto, CodedOutputStream output)
+      throws IOException {
+    output.writeUInt32NoTag(eventSize(eventDto));
+    writeEvent(eventDto, output);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return EventDto.class == clazz || EventPageDto.class == clazz;
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+    throw new HttpMessageNotReadableException(
+        "Protobuf requests are not supported", inputMessage);
+  }
+
+  @Override
+  protected void writeInternal(Object object, HttpOutputMessage outputMessage)
+      throws IOException {
+    CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+    if (object instanceof EventPageDto) {
+      writePage((EventPageDto) object, output);
+    } else {
+      writeEvent((EventDto) object, output);
+    }
+    output.flush();
+  }
+
+  private static void writePage(EventPageDto eventPage, CodedOutputStream output)
+      throws IOException {
+    for (EventDto eventDto : eventPage.getEvents()) {
+      output.writeTag(PAGE_EVENTS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+      output.writeUInt32NoTag(eventSize(eventDto));
+      writeEvent(eventDto, output);
+    }
+    if (eventPage.getNext() != null) {
+      output.writeString(PAGE_NEXT, eventPage.getNext());
+    }
+  }
+
+  private static void writeEvent(EventDto eventDto, CodedOutputStream output) throws IOException {
+    if (eventDto.getId() != null) {
+      output.writeInt64(EVENT_ID, eventDto.getId());
+    }
+    if (eventDto.getVersion() != null) {
+      output.writeInt64(EVENT_VERSION, eventDto.getVersion());
+    }
+    writeString(output, EVENT_TOPIC, eventDto.getTopic());
+    writeString(output, EVENT_DESCRIPTION, eventDto.getDescription());
+    writeString(output, EVENT_ORGANIZER, eventDto.getOrganizer());
+    if (eventDto.getDate() != null) {
+      output.writeString(EVENT_DATE, EventDateFormat.format(eventDto.getDate()));
+    }
+    writeString(output, EVENT_LOCATION, eventDto.getLocation());
+  }
+
+  private static int eventSize(EventDto eventDto) {
+    int size = 0;
+    if (eventDto.getId() != null) {
+      size += CodedOutputStream.computeInt64Size(EVENT_ID, eventDto.getId());
+    }
+    if (eventDto.getVersion() != null) {
+      size += CodedOutputStream.computeInt64Size(EVENT_VERSION, eventDto.getVersion());
+    }
+    size += stringSize(EVENT_TOPIC, eventDto.getTopic());
+    size += stringSize(EVENT_DESCRIPTION, eventDto.getDescription());
+    size += stringSize(EVENT_ORGANIZER, eventDto.getOrganizer());
+    if (eventDto.getDate() != null) {
+      size +=
+          CodedOutputStream.computeStringSize(
+              EVENT_DATE, EventDateFormat.format(eventDto.getDate()));
+    }
+    size += stringSize(EVENT_LOCATION, eventDto.getLocation());
+    return size;
+  }
+
+  private static void writeString(CodedOutputStream output, int field, String value)
+      throws IOException {
+    if (value != null) {
+      output.writeString(field, value);
+    }
+  }
+
+  private static int stringSize(int field, String value) {
+    return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+  }
+}
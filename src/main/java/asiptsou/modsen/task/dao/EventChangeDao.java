@@ -0,0 +1,33 @@
+package asiptsou.modsen.task.dao;
+
+import asiptsou.modsen.task.model.EventChange;
+import asiptsou.modsen.task.model.EventChangePosition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the change log which triggers on EVENT fill in the writing transaction, so every insert,
+ * update and delete is logged, whichever path made it.
+ */
+public interface EventChangeDao {
+
+  /**
+   * Returns up to {@code limit} changes after the position in log order, each with the current
+   * state of its event. Only changes of finished transactions are returned.
+   */
+  List<EventChange> getAfter(EventChangePosition after, int limit);
+
+  /** Returns position of the last change which {@link #getAfter} can return now. */
+  Optional<EventChangePosition> getHead();
+
+  /**
+   * Deletes up to {@code limit} of the oldest changes logged more than {@code age} ago, returns
+   * count of deleted ones.
+   */
+  int deleteOlderThan(Duration age, int limit);
+
+  /** Returns position of the last deleted change, {@link EventChangePosition#START} if none. */
+  EventChangePosition getPurged();
+}
@@ -1,10 +1,15 @@
 package asiptsou.modsen.task.dao;
 
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
 import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface EventDao {
 
@@ -12,21 +17,52 @@ public interface EventDao {
 
   Event save(Event event);
 
-  List<Event> getAll();
+  /**
+   * Inserts the event unless one with the same topic, description, organizer, date and location
+   * was inserted by this method before, and returns the inserted or existing event. It takes one
+   * statement either way. Only events inserted this way are compared, and only until updated.
+   */
+  Event saveIfAbsent(Event event);
+
+  /**
+   * Inserts the events through JDBC batches, flushing and clearing the session after every batch
+   * so the persistence context stays small. Ids are assigned to the given events.
+   */
+  void saveAll(List<Event> events);
+
+  /**
+   * Returns up to {@code limit} events ordered by id, starting right after the {@code after}
+   * cursor or from the beginning when it is null. Only the given fields are selected, straight
+   * into DTOs, so no entity is loaded into the session.
+   */
+  List<EventDto> getAll(Set<EventField> fields, EventCursor after, int limit);
+
+  /**
+   * Passes every event ordered by id to the {@code action} one at a time, reading them through a
+   * forward-only cursor, so memory use doesn't depend on the table size.
+   */
+  void scrollAll(Consumer<Event> action);
 
   int delete(long id);
 
-  void update(Event event);
-
-  List<Event> getAllByFilter(
-      LocalDateTime from,
-      LocalDateTime to,
-      String organizer,
-      String topic,
-      boolean isSortTopic,
-      boolean isSortDate,
-      boolean isSortOrganizer,
-      String topicSortDirection,
-      String organizerSortDirection,
-      String dateSortDirection);
+  /**
+   * Updates the event in one statement and increments its version. When the version of the given
+   * event is set, the row is updated only if it still has that version. Returns count of updated
+   * rows, 0 if the event doesn't exist or has another version.
+   */
+  int update(Event event);
+
+  /**
+   * Tells whether TOPIC and ORGANIZER compare by code point, as in the C collation, so ORDER BY on
+   * them is the order of the in-memory index.
+   */
+  boolean isCollatedByCodePoint();
+
+  /**
+   * Returns up to {@code limit} events matching the filter in the order of its active sort keys,
+   * with id as the last tie-breaker, starting right after the {@code after} cursor or from the
+   * beginning when it is null. Only the given fields are selected, straight into DTOs.
+   */
+  List<EventDto> getAllByFilter(
+      EventFilter eventFilter, Set<EventField> fields, EventCursor after, int limit);
 }
@@ -0,0 +1,28 @@
+package asiptsou.modsen.task.dao;
+
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventImport;
+
+import java.util.Iterator;
+import java.util.Optional;
+
+public interface EventImportDao {
+
+  Optional<EventImport> getByFile(String file);
+
+  void save(EventImport eventImport);
+
+  /**
+   * Streams the events into the staging table with {@code COPY ... FROM STDIN} while they are
+   * taken from the iterator, so only the current event is held in memory. Returns count of copied
+   * events.
+   */
+  long copyToStaging(Iterator<Event> events);
+
+  /**
+   * Moves all staged events of the current transaction into EVENT in the order they were copied.
+   * Ids are taken from event_id_sequence in the same blocks Hibernate uses, so they never clash
+   * with ids of events saved through the API.
+   */
+  int mergeStaged(long count);
+}
@@ -0,0 +1,20 @@
+package asiptsou.modsen.task.dao;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Manages the monthly partitions of EVENT by DATE. Events of months without partition are kept in
+ * the default partition, and are moved out of it when their month gets a partition.
+ */
+public interface EventPartitionDao {
+
+  /** Creates missing partitions of months from {@code fromMonth} to {@code toMonth} inclusive. */
+  int createPartitions(LocalDate fromMonth, LocalDate toMonth);
+
+  /**
+   * Detaches partitions of months ending before {@code month}, which takes no time whatever their
+   * size. Detached partitions are kept as standalone tables of the same name for archiving.
+   */
+  List<String> detachPartitionsBefore(LocalDate month);
+}
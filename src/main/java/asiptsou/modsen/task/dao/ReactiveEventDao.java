@@ -0,0 +1,50 @@
+package asiptsou.modsen.task.dao;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link EventDao} over R2DBC, used by the reactive profile. Queries
+ * select straight into DTOs with the same filter semantics as {@link EventDao#getAllByFilter}.
+ */
+public interface ReactiveEventDao {
+
+  Mono<EventDto> getById(long id);
+
+  /** Inserts the event and emits its id. */
+  Mono<Long> save(EventDto eventDto);
+
+  /** Inserts the events in one transaction and emits their ids in the same order. */
+  Flux<Long> saveAll(List<EventDto> eventDtos);
+
+  /**
+   * Emits up to {@code limit} events ordered by id, or all of them when the limit is 0, starting
+   * right after the {@code after} cursor or from the beginning when it is null. Rows are fetched
+   * as they are requested downstream.
+   */
+  Flux<EventDto> getAll(Set<EventField> fields, EventCursor after, int limit);
+
+  /**
+   * Emits up to {@code limit} events matching the filter, or all of them when the limit is 0, in
+   * the order of its active sort keys with id as the last tie-breaker, starting right after the
+   * {@code after} cursor or from the beginning when it is null. Rows are fetched as they are
+   * requested downstream.
+   */
+  Flux<EventDto> getAllByFilter(
+      EventFilter eventFilter, Set<EventField> fields, EventCursor after, int limit);
+
+  Mono<Integer> delete(long id);
+
+  /**
+   * Updates the event in one statement and increments its version, only if it still has the
+   * version of the given event when that is set. Emits count of updated rows.
+   */
+  Mono<Integer> update(long id, EventDto eventDto);
+}
@@ -0,0 +1,152 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.dao.EventChangeDao;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.model.EventChange;
+import asiptsou.modsen.task.model.EventChangePosition;
+import asiptsou.modsen.task.model.EventChangeType;
+import lombok.AllArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.type.LocalDateTimeType;
+import org.hibernate.type.LongType;
+import org.hibernate.type.StringType;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+@AllArgsConstructor
+public class EventChangeDaoImpl implements EventChangeDao {
+
+  /**
+   * Transactions below the xmin of the current snapshot have finished, and every transaction
+   * still to commit has a higher id, so a position in (xid, seq) order is never passed later.
+   */
+  private static final String FINISHED =
+      "c.xid < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)";
+
+  private static final String GET_AFTER =
+      "SELECT c.xid, c.seq, c.type, c.event_id,"
+          + " e.id AS current_id, e.version, e.topic, e.description, e.organizer, e.date, e.location"
+          + " FROM event_change c LEFT JOIN event e ON e.id = c.event_id"
+          + " WHERE (c.xid, c.seq) > (:xid, :seq) AND " + FINISHED
+          + " ORDER BY c.xid, c.seq LIMIT :limit";
+
+  private static final String GET_HEAD =
+      "SELECT c.xid, c.seq FROM event_change c WHERE " + FINISHED
+          + " ORDER BY c.xid DESC, c.seq DESC LIMIT 1";
+
+  /**
+   * Deletes the oldest changes logged before the age, and moves the purge position to the last of
+   * them. Both commit together, so a reader seeing the position below its own saw no gap either.
+   */
+  private static final String DELETE_OLDER_THAN =
+      "WITH purged AS (DELETE FROM event_change WHERE (xid, seq) IN ("
+          + " SELECT xid, seq FROM event_change"
+          + " WHERE created < now() - :seconds * interval '1 second'"
+          + " ORDER BY xid, seq LIMIT :limit) RETURNING xid, seq),"
+          + " last AS (SELECT xid, seq FROM purged ORDER BY xid DESC, seq DESC LIMIT 1),"
+          + " marked AS (UPDATE event_change_purge p SET xid = last.xid, seq = last.seq FROM last"
+          + " WHERE (last.xid, last.seq) > (p.xid, p.seq))"
+          + " SELECT count(*) AS purged FROM purged";
+
+  private static final String GET_PURGED = "SELECT xid, seq FROM event_change_purge";
+
+  private final SessionFactory sessionFactory;
+
+  @Override
+  public List<EventChange> getAfter(EventChangePosition after, int limit) {
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows =
+        sessionFactory
+            .getCurrentSession()
+            .createNativeQuery(GET_AFTER)
+            .addScalar("xid", LongType.INSTANCE)
+            .addScalar("seq", LongType.INSTANCE)
+            .addScalar("type", StringType.INSTANCE)
+            .addScalar("event_id", LongType.INSTANCE)
+            .addScalar("current_id", LongType.INSTANCE)
+            .addScalar("version", LongType.INSTANCE)
+            .addScalar("topic", StringType.INSTANCE)
+            .addScalar("description", StringType.INSTANCE)
+            .addScalar("organizer", StringType.INSTANCE)
+            .addScalar("date", LocalDateTimeType.INSTANCE)
+            .addScalar("location", StringType.INSTANCE)
+            .setParameter("xid", after.getXid())
+            .setParameter("seq", after.getSeq())
+            .setParameter("limit", limit)
+            .getResultList();
+    List<EventChange> changes = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      long eventId = (Long) row[3];
+      changes.add(
+          EventChange.builder()
+              .position(new EventChangePosition((Long) row[0], (Long) row[1]))
+              .type(EventChangeType.valueOf((String) row[2]))
+              .eventId(eventId)
+              .event(row[4] == null ? null : toDto(eventId, row))
+              .build());
+    }
+    return changes;
+  }
+
+  @Override
+  public Optional<EventChangePosition> getHead() {
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows =
+        sessionFactory
+            .getCurrentSession()
+            .createNativeQuery(GET_HEAD)
+            .addScalar("xid", LongType.INSTANCE)
+            .addScalar("seq", LongType.INSTANCE)
+            .getResultList();
+    return rows.stream()
+        .findFirst()
+        .map(row -> new EventChangePosition((Long) row[0], (Long) row[1]));
+  }
+
+  @Override
+  public int deleteOlderThan(Duration age, int limit) {
+    return ((Long)
+            sessionFactory
+                .getCurrentSession()
+                .createNativeQuery(DELETE_OLDER_THAN)
+                .addScalar("purged", LongType.INSTANCE)
+                .setParameter("seconds", age.getSeconds())
+                .setParameter("limit", limit)
+                .getSingleResult())
+        .intValue();
+  }
+
+  @Override
+  public EventChangePosition getPurged() {
+    Object[] row =
+        (Object[])
+            sessionFactory
+                .getCurrentSession()
+                .createNativeQuery(GET_PURGED)
+                .addScalar("xid", LongType.INSTANCE)
+                .addScalar("seq", LongType.INSTANCE)
+                .getSingleResult();
+    return new EventChangePosition((Long) row[0], (Long) row[1]);
+  }
+
+  private static EventDto toDto(long eventId, Object[] row) {
+    return EventDto.builder()
+        .id(eventId)
+        .version((Long) row[5])
+        .topic((String) row[6])
+        .description((String) row[7])
+        .organizer((String) row[8])
+        .date((LocalDateTime) row[9])
+        .location((String) row[10])
+        .build();
+  }
+}
@@ -1,34 +1,104 @@
 package asiptsou.modsen.task.dao.impl;
 
 import asiptsou.modsen.task.dao.EventDao;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
 import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
 import lombok.AllArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
+import org.hibernate.type.BooleanType;
+import org.hibernate.type.LongType;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.Tuple;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Order;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import java.time.LocalDateTime;
+import javax.persistence.criteria.Selection;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static asiptsou.modsen.task.config.FullTextPostgreSQLDialect.FULL_TEXT_MATCH;
+import static asiptsou.modsen.task.config.FullTextPostgreSQLDialect.FULL_TEXT_RANK;
+import static asiptsou.modsen.task.model.EventFilter.ASCENDING_SORTING;
+import static asiptsou.modsen.task.model.EventFilter.DESCENDING_SORTING;
+import static asiptsou.modsen.task.model.EventFilter.isActiveSorting;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
 
 @Repository
 @Transactional(propagation = Propagation.MANDATORY)
 @AllArgsConstructor
 public class EventDaoImpl implements EventDao {
 
+  public static final String ID = "id";
   public static final String TOPIC = "topic";
   public static final String ORGANIZER = "organizer";
   public static final String DATE = "date";
-  public static final String ASCENDING_SORTING = "asc";
-  public static final String DESCENDING_SORTING = "asc";
+  public static final String DESCRIPTION = "description";
+  public static final String LOCATION = "location";
+  public static final String VERSION = "version";
+  public static final String LIKE_ESCAPE = "\\";
+  public static final int SCROLL_FETCH_SIZE = 500;
+  public static final String CONTENT_HASH = "contentHash";
+  public static final String EVENT_DELETED_ERROR = "Event with the same content was just deleted";
+
+  /**
+   * Inserts the event or, when the unique index on content_hash and date has it already, selects
+   * the existing one. The select can't see an event committed after the statement had started,
+   * which ON CONFLICT waited for, so then nothing is returned.
+   */
+  private static final String INSERT_IF_ABSENT =
+      "WITH inserted AS ("
+          + " INSERT INTO event"
+          + " (id, version, topic, description, organizer, date, location, content_hash)"
+          + " VALUES (:id, 0, :topic, :description, :organizer, :date, :location,"
+          + " CAST(:contentHash AS uuid))"
+          + " ON CONFLICT (content_hash, date) DO NOTHING"
+          + " RETURNING id, version)"
+          + " SELECT id, version FROM inserted"
+          + " UNION ALL"
+          + " SELECT id, version FROM event"
+          + " WHERE content_hash = CAST(:contentHash AS uuid) AND date = :date";
+
+  private static final String GET_BY_CONTENT_HASH =
+      "SELECT id, version FROM event"
+          + " WHERE content_hash = CAST(:contentHash AS uuid) AND date = :date";
+
+  /**
+   * Collations of TOPIC and ORGANIZER, the one of the database for columns without their own. Only
+   * C and POSIX compare by code point whatever the locale of the server.
+   */
+  private static final String COLLATED_BY_CODE_POINT =
+      "SELECT coalesce(bool_and(CASE WHEN c.collname = 'default' THEN d.datcollate"
+          + " ELSE c.collcollate END IN ('C', 'POSIX')), false) AS code_point"
+          + " FROM pg_attribute a JOIN pg_collation c ON c.oid = a.attcollation"
+          + " JOIN pg_database d ON d.datname = current_database()"
+          + " WHERE a.attrelid = to_regclass('event') AND a.attname IN ('topic', 'organizer')";
 
   private final SessionFactory sessionFactory;
 
@@ -50,16 +120,161 @@ public class EventDaoImpl implements EventDao {
   }
 
   @Override
-  public List<Event> getAll() {
-    return sessionFactory
-        .getCurrentSession()
-        .createQuery("from Event", Event.class)
-        .getResultList();
+  public Event saveIfAbsent(Event event) {
+    SessionImplementor session = (SessionImplementor) sessionFactory.getCurrentSession();
+    EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Event.class);
+    long id = (Long) persister.getIdentifierGenerator().generate(session, event);
+    String contentHash = contentHash(event).toString();
+    List<Object[]> rows =
+        selectIdAndVersion(
+            session
+                .createNativeQuery(INSERT_IF_ABSENT)
+                .setParameter(ID, id)
+                .setParameter(TOPIC, event.getTopic())
+                .setParameter(DESCRIPTION, event.getDescription())
+                .setParameter(ORGANIZER, event.getOrganizer())
+                .setParameter(DATE, event.getDate())
+                .setParameter(LOCATION, event.getLocation())
+                .setParameter(CONTENT_HASH, contentHash));
+    if (rows.isEmpty()) {
+      rows =
+          selectIdAndVersion(
+              session
+                  .createNativeQuery(GET_BY_CONTENT_HASH)
+                  .setParameter(DATE, event.getDate())
+                  .setParameter(CONTENT_HASH, contentHash));
+    }
+    if (rows.isEmpty()) {
+      throw new OptimisticLockingFailureException(EVENT_DELETED_ERROR);
+    }
+    event.setId((Long) rows.get(0)[0]);
+    event.setVersion((Long) rows.get(0)[1]);
+    if (event.getId() == id) {
+      invalidateCachedQueries(session, persister);
+    }
+    return event;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Object[]> selectIdAndVersion(NativeQuery<?> query) {
+    return (List<Object[]>)
+        query
+            .addScalar(ID, LongType.INSTANCE)
+            .addScalar(VERSION, LongType.INSTANCE)
+            .getResultList();
+  }
+
+  /**
+   * Hash of the text fields of the event, each prefixed by its length so that no two events share
+   * the input. The date is not hashed, it is the second column of the unique index.
+   */
+  static UUID contentHash(Event event) {
+    StringBuilder content = new StringBuilder();
+    for (String field :
+        new String[] {
+          event.getTopic(), event.getDescription(), event.getOrganizer(), event.getLocation()
+        }) {
+      content.append(isNull(field) ? -1 : field.length()).append(':');
+      if (!isNull(field)) {
+        content.append(field);
+      }
+    }
+    return UUID.nameUUIDFromBytes(content.toString().getBytes(UTF_8));
+  }
+
+  /**
+   * The native insert bypasses Hibernate, so cached queries over events are invalidated the way
+   * its own inserts do: results can't be cached meanwhile, and are stale after the transaction.
+   */
+  private static void invalidateCachedQueries(
+      SessionImplementor session, EntityPersister persister) {
+    TimestampsCache timestampsCache = session.getFactory().getCache().getTimestampsCache();
+    Serializable[] spaces = persister.getQuerySpaces();
+    timestampsCache.preInvalidate(spaces, session);
+    session
+        .getActionQueue()
+        .registerProcess(
+            (success, completed) -> timestampsCache.invalidate(spaces, completed));
   }
 
   @Override
-  public void update(Event event) {
-    sessionFactory.getCurrentSession().merge(event);
+  public void saveAll(List<Event> events) {
+    Session session = sessionFactory.getCurrentSession();
+    int batchSize = sessionFactory.getSessionFactoryOptions().getJdbcBatchSize();
+    for (int i = 0; i < events.size(); i++) {
+      session.save(events.get(i));
+      if ((i + 1) % batchSize == 0) {
+        session.flush();
+        session.clear();
+      }
+    }
+    session.flush();
+    session.clear();
+  }
+
+  @Override
+  public List<EventDto> getAll(Set<EventField> fields, EventCursor after, int limit) {
+    Session session = sessionFactory.getCurrentSession();
+    CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+    CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
+    Root<Event> root = criteriaQuery.from(Event.class);
+    ParameterExpression<Long> afterId = criteriaBuilder.parameter(Long.class);
+    List<EventField> columns = List.copyOf(fields);
+    criteriaQuery
+        .multiselect(select(root, columns))
+        .where(criteriaBuilder.greaterThan(root.get(ID), afterId))
+        .orderBy(criteriaBuilder.asc(root.get(ID)));
+    List<Tuple> rows =
+        session
+            .createQuery(criteriaQuery)
+            .setParameter(afterId, isNull(after) ? Long.MIN_VALUE : after.getId())
+            .setMaxResults(limit)
+            .setCacheable(true)
+            .getResultList();
+    return toDtos(rows, columns);
+  }
+
+  @Override
+  public void scrollAll(Consumer<Event> action) {
+    Session session = sessionFactory.getCurrentSession();
+    try (ScrollableResults results =
+        session
+            .createQuery("from Event order by id", Event.class)
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE)
+            .setFetchSize(SCROLL_FETCH_SIZE)
+            .scroll(ScrollMode.FORWARD_ONLY)) {
+      int count = 0;
+      while (results.next()) {
+        action.accept((Event) results.get(0));
+        if (++count % SCROLL_FETCH_SIZE == 0) {
+          session.clear();
+        }
+      }
+    }
+  }
+
+  @Override
+  public int update(Event event) {
+    boolean checkVersion = !isNull(event.getVersion());
+    Query<?> query =
+        sessionFactory
+            .getCurrentSession()
+            .createQuery(
+                "update Event set topic = :topic, description = :description,"
+                    + " organizer = :organizer, date = :date, location = :location,"
+                    + " version = version + 1 where id = :id"
+                    + (checkVersion ? " and version = :version" : ""))
+            .setParameter(ID, event.getId())
+            .setParameter(TOPIC, event.getTopic())
+            .setParameter(DESCRIPTION, event.getDescription())
+            .setParameter(ORGANIZER, event.getOrganizer())
+            .setParameter(DATE, event.getDate())
+            .setParameter(LOCATION, event.getLocation());
+    if (checkVersion) {
+      query.setParameter(VERSION, event.getVersion());
+    }
+    return query.executeUpdate();
   }
 
   @Override
@@ -72,53 +287,256 @@ public class EventDaoImpl implements EventDao {
   }
 
   @Override
-  public List<Event> getAllByFilter(
-      LocalDateTime from,
-      LocalDateTime to,
-      String organizer,
-      String topic,
-      boolean isSortTopic,
-      boolean isSortDate,
-      boolean isSortOrganizer,
-      String topicSortDirection,
-      String organizerSortDirection,
-      String dateSortDirection) {
-
-    CriteriaBuilder criteriaBuilder = sessionFactory.getCriteriaBuilder();
-    CriteriaQuery<Event> criteriaQuery = criteriaBuilder.createQuery(Event.class);
+  public boolean isCollatedByCodePoint() {
+    return (Boolean)
+        sessionFactory
+            .getCurrentSession()
+            .createNativeQuery(COLLATED_BY_CODE_POINT)
+            .addScalar("code_point", BooleanType.INSTANCE)
+            .getSingleResult();
+  }
+
+  @Override
+  public List<EventDto> getAllByFilter(
+      EventFilter eventFilter, Set<EventField> fields, EventCursor after, int limit) {
+    List<EventField> columns = List.copyOf(fields);
+    return toDtos(
+        createFilterQuery(sessionFactory.getCurrentSession(), eventFilter, columns, after, limit)
+            .getResultList(),
+        columns);
+  }
+
+  /**
+   * Builds the filter query selecting the columns in their order, with full text search then the
+   * relevance, without running it. Package-private for the JMH benchmarks.
+   */
+  Query<Tuple> createFilterQuery(
+      Session session,
+      EventFilter eventFilter,
+      List<EventField> columns,
+      EventCursor after,
+      int limit) {
+    CriteriaBuilder criteriaBuilder = session.getCriteriaBuilder();
+    CriteriaQuery<Tuple> criteriaQuery = criteriaBuilder.createTupleQuery();
     Root<Event> root = criteriaQuery.from(Event.class);
+    ParameterExpression<String> fullTextQuery = criteriaBuilder.parameter(String.class);
+    ParameterExpression<Float> cursorRank = criteriaBuilder.parameter(Float.class);
 
-    Predicate dateFromTo = criteriaBuilder.between(root.get(DATE), from, to);
-    Predicate organizerLike = criteriaBuilder.like(root.get(ORGANIZER), "%" + organizer + "%");
-    Predicate topicLike = criteriaBuilder.like(root.get(TOPIC), "%" + topic + "%");
+    List<Predicate> predicates = new ArrayList<>();
+    if (!isNull(eventFilter.getFromDate())) {
+      predicates.add(
+          criteriaBuilder.greaterThanOrEqualTo(root.get(DATE), eventFilter.getFromDate()));
+    }
+    if (!isNull(eventFilter.getToDate())) {
+      predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get(DATE), eventFilter.getToDate()));
+    }
+    if (hasText(eventFilter.getOrganizer())) {
+      predicates.add(contains(criteriaBuilder, root.get(ORGANIZER), eventFilter.getOrganizer()));
+    }
+    if (hasText(eventFilter.getTopic())) {
+      predicates.add(contains(criteriaBuilder, root.get(TOPIC), eventFilter.getTopic()));
+    }
+    if (eventFilter.isFullTextSearch()) {
+      predicates.add(
+          criteriaBuilder.isTrue(
+              fullTextFunction(
+                  criteriaBuilder, FULL_TEXT_MATCH, Boolean.class, root, fullTextQuery)));
+    }
 
-    criteriaQuery.select(root).where(criteriaBuilder.and(dateFromTo, organizerLike, topicLike));
+    List<SortKey> sortKeys =
+        getSortKeys(criteriaBuilder, root, eventFilter, after, fullTextQuery, cursorRank);
+    if (!isNull(after)) {
+      predicates.add(seekAfter(criteriaBuilder, sortKeys));
+    }
+
+    List<Selection<?>> selections = select(root, columns);
+    if (eventFilter.isFullTextSearch()) {
+      selections.add(sortKeys.get(0).expression);
+    }
+    criteriaQuery.multiselect(selections).where(predicates.toArray(new Predicate[0]));
 
     List<Order> orderList = new ArrayList<>();
+    for (SortKey sortKey : sortKeys) {
+      orderList.add(
+          sortKey.ascending
+              ? criteriaBuilder.asc(sortKey.expression)
+              : criteriaBuilder.desc(sortKey.expression));
+    }
+
+    criteriaQuery.orderBy(orderList);
+
+    Query<Tuple> query =
+        session.createQuery(criteriaQuery).setMaxResults(limit).setCacheable(true);
+    if (eventFilter.isFullTextSearch()) {
+      query.setParameter(fullTextQuery, eventFilter.getQ());
+      if (!isNull(after)) {
+        query.setParameter(cursorRank, after.getRank());
+      }
+    }
+    return query;
+  }
+
+  private List<Selection<?>> select(Root<Event> root, List<EventField> columns) {
+    List<Selection<?>> selections = new ArrayList<>(columns.size());
+    for (EventField column : columns) {
+      selections.add(root.get(column.getAttribute()));
+    }
+    return selections;
+  }
 
-    if ((isSortTopic) && (topicSortDirection.equals(ASCENDING_SORTING))) {
-      orderList.add(criteriaBuilder.asc(root.get(TOPIC)));
+  /**
+   * Maps rows of a query selecting the columns in their order and maybe the relevance, no entity
+   * is hydrated. Relevance is read as the float ts_rank returns, so it compares equal to itself in
+   * the query of the next page.
+   */
+  private List<EventDto> toDtos(List<Tuple> rows, List<EventField> columns) {
+    List<EventDto> eventDtos = new ArrayList<>(rows.size());
+    for (Tuple row : rows) {
+      EventDto eventDto = new EventDto();
+      for (int i = 0; i < columns.size(); i++) {
+        columns.get(i).set(eventDto, row.get(i));
+      }
+      if (row.getElements().size() > columns.size()) {
+        eventDto.setRank((Float) row.get(columns.size()));
+      }
+      eventDtos.add(eventDto);
     }
-    if ((isSortTopic) && (topicSortDirection.equals(DESCENDING_SORTING))) {
-      orderList.add(criteriaBuilder.desc(root.get(TOPIC)));
+    return eventDtos;
+  }
+
+  /**
+   * Substring match. Wildcards of the value are escaped; the leading wildcard pattern is served by
+   * the trigram GIN indexes from add_trigram_indexes_to_event.yaml.
+   */
+  private Predicate contains(CriteriaBuilder criteriaBuilder, Path<String> path, String value) {
+    String escaped =
+        value.replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+            .replace("%", LIKE_ESCAPE + "%")
+            .replace("_", LIKE_ESCAPE + "_");
+    return criteriaBuilder.like(path, "%" + escaped + "%", LIKE_ESCAPE.charAt(0));
+  }
+
+  private <T> Expression<T> fullTextFunction(
+      CriteriaBuilder criteriaBuilder,
+      String name,
+      Class<T> type,
+      Root<Event> root,
+      Expression<String> fullTextQuery) {
+    return criteriaBuilder.function(
+        name,
+        type,
+        root.get(TOPIC),
+        root.get(DESCRIPTION),
+        root.get(ORGANIZER),
+        root.get(LOCATION),
+        fullTextQuery);
+  }
+
+  /**
+   * Sort keys in the order they are applied: relevance for full text search, then the active sort
+   * keys of the filter, always ending with ascending id as tie-breaker. Each key knows its value at
+   * the cursor; relevance is bound as a real, the type ts_rank returns, so it compares exactly.
+   */
+  private List<SortKey> getSortKeys(
+      CriteriaBuilder criteriaBuilder,
+      Root<Event> root,
+      EventFilter eventFilter,
+      EventCursor after,
+      Expression<String> fullTextQuery,
+      Expression<Float> cursorRank) {
+    boolean hasCursor = !isNull(after);
+    List<SortKey> sortKeys = new ArrayList<>();
+    if (eventFilter.isFullTextSearch()) {
+      sortKeys.add(
+          new SortKey(
+              fullTextFunction(criteriaBuilder, FULL_TEXT_RANK, Float.class, root, fullTextQuery),
+              DESCENDING_SORTING,
+              hasCursor ? cursorRank : null));
     }
-    if ((isSortOrganizer) && (organizerSortDirection.equals(ASCENDING_SORTING))) {
-      orderList.add(criteriaBuilder.asc(root.get(ORGANIZER)));
+    if (isActiveSorting(eventFilter.isSortTopic(), eventFilter.getTopicSortDirection())) {
+      sortKeys.add(
+          new SortKey(
+              root.get(TOPIC),
+              eventFilter.getTopicSortDirection(),
+              hasCursor ? criteriaBuilder.literal(after.getTopic()) : null));
     }
-    if ((isSortOrganizer) && (organizerSortDirection.equals(DESCENDING_SORTING))) {
-      orderList.add(criteriaBuilder.desc(root.get(ORGANIZER)));
+    if (isActiveSorting(eventFilter.isSortOrganizer(), eventFilter.getOrganizerSortDirection())) {
+      sortKeys.add(
+          new SortKey(
+              root.get(ORGANIZER),
+              eventFilter.getOrganizerSortDirection(),
+              hasCursor ? criteriaBuilder.literal(after.getOrganizer()) : null));
     }
-    if ((isSortDate) && (dateSortDirection.equals(ASCENDING_SORTING))) {
-      orderList.add(criteriaBuilder.asc(root.get(DATE)));
+    if (isActiveSorting(eventFilter.isSortDate(), eventFilter.getDateSortDirection())) {
+      sortKeys.add(
+          new SortKey(
+              root.get(DATE),
+              eventFilter.getDateSortDirection(),
+              hasCursor ? criteriaBuilder.literal(after.getDate()) : null));
     }
-    if ((isSortDate) && (dateSortDirection.equals(DESCENDING_SORTING))) {
-      orderList.add(criteriaBuilder.desc(root.get(DATE)));
+    sortKeys.add(
+        new SortKey(
+            root.get(ID),
+            ASCENDING_SORTING,
+            hasCursor ? criteriaBuilder.literal(after.getId()) : null));
+    return sortKeys;
+  }
+
+  /**
+   * Builds the keyset condition "row comes after the cursor" for mixed sort directions: (k1 > v1)
+   * or (k1 = v1 and k2 > v2) or ... where "greater" is reversed for descending keys. Every branch
+   * is a range on an ordered key, so the database seeks straight to the page instead of skipping
+   * rows as offset paging does. Postgres can't use the OR as an index condition, so the redundant
+   * "k1 >= v1" is added for it to start the index scan at the cursor.
+   */
+  private Predicate seekAfter(CriteriaBuilder criteriaBuilder, List<SortKey> sortKeys) {
+    List<Predicate> branches = new ArrayList<>();
+    for (int i = 0; i < sortKeys.size(); i++) {
+      List<Predicate> branch = new ArrayList<>();
+      for (int j = 0; j < i; j++) {
+        SortKey previous = sortKeys.get(j);
+        branch.add(criteriaBuilder.equal(previous.expression, previous.cursorValue));
+      }
+      branch.add(isAfter(criteriaBuilder, sortKeys.get(i)));
+      branches.add(criteriaBuilder.and(branch.toArray(new Predicate[0])));
     }
+    return criteriaBuilder.and(
+        isNotBefore(criteriaBuilder, sortKeys.get(0)),
+        criteriaBuilder.or(branches.toArray(new Predicate[0])));
+  }
 
-    criteriaQuery.orderBy(orderList);
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate isAfter(CriteriaBuilder criteriaBuilder, SortKey sortKey) {
+    Expression<Comparable> expression = (Expression<Comparable>) sortKey.expression;
+    Expression<Comparable> cursorValue = (Expression<Comparable>) sortKey.cursorValue;
+    return sortKey.ascending
+        ? criteriaBuilder.greaterThan(expression, cursorValue)
+        : criteriaBuilder.lessThan(expression, cursorValue);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private Predicate isNotBefore(CriteriaBuilder criteriaBuilder, SortKey sortKey) {
+    Expression<Comparable> expression = (Expression<Comparable>) sortKey.expression;
+    Expression<Comparable> cursorValue = (Expression<Comparable>) sortKey.cursorValue;
+    return sortKey.ascending
+        ? criteriaBuilder.greaterThanOrEqualTo(expression, cursorValue)
+        : criteriaBuilder.lessThanOrEqualTo(expression, cursorValue);
+  }
 
-    Query<Event> query = sessionFactory.getCurrentSession().createQuery(criteriaQuery);
+  private static boolean hasText(String value) {
+    return value != null && !value.isEmpty();
+  }
+
+  private static final class SortKey {
 
-    return query.getResultList();
+    private final Expression<?> expression;
+    private final boolean ascending;
+    private final Expression<?> cursorValue;
+
+    private SortKey(Expression<?> expression, String direction, Expression<?> cursorValue) {
+      this.expression = expression;
+      this.ascending = ASCENDING_SORTING.equals(direction);
+      this.cursorValue = cursorValue;
+    }
   }
 }
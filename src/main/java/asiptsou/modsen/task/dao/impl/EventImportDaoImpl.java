@@ -0,0 +1,151 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.dao.EventImportDao;
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventImport;
+import lombok.AllArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Optional;
+
+import static asiptsou.modsen.task.model.Event.ID_ALLOCATION_SIZE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+@AllArgsConstructor
+public class EventImportDaoImpl implements EventImportDao {
+
+  public static final int COPY_BUFFER_SIZE = 1 << 16;
+
+  private static final String COPY_TO_STAGING =
+      "COPY event_import_staging (record, topic, description, organizer, date, location)"
+          + " FROM STDIN";
+
+  /**
+   * Every nextval of event_id_sequence reserves {@link Event#ID_ALLOCATION_SIZE} ids starting
+   * from the returned value, the same way the pooled-lo optimizer of Hibernate does, so one
+   * sequence call is made per block of events.
+   */
+  private static final String MERGE_STAGED =
+      "WITH moved AS ("
+          + " DELETE FROM event_import_staging"
+          + " RETURNING record, topic, description, organizer, date, location),"
+          + " numbered AS ("
+          + " SELECT row_number() OVER (ORDER BY record) - 1 AS position, * FROM moved),"
+          + " blocks AS ("
+          + " SELECT block, nextval('event_id_sequence') AS low"
+          + " FROM generate_series(0, :blocks - 1) AS block)"
+          + " INSERT INTO event (id, version, topic, description, organizer, date, location)"
+          + " SELECT b.low + n.position % :allocationSize, 0,"
+          + " n.topic, n.description, n.organizer, n.date, n.location"
+          + " FROM numbered n JOIN blocks b ON b.block = n.position / :allocationSize";
+
+  private final SessionFactory sessionFactory;
+
+  @Override
+  public Optional<EventImport> getByFile(String file) {
+    return Optional.ofNullable(sessionFactory.getCurrentSession().get(EventImport.class, file));
+  }
+
+  @Override
+  public void save(EventImport eventImport) {
+    sessionFactory.getCurrentSession().saveOrUpdate(eventImport);
+  }
+
+  @Override
+  public long copyToStaging(Iterator<Event> events) {
+    return sessionFactory
+        .getCurrentSession()
+        .doReturningWork(
+            connection -> {
+              PGCopyOutputStream copy =
+                  new PGCopyOutputStream(
+                      connection.unwrap(PGConnection.class), COPY_TO_STAGING, COPY_BUFFER_SIZE);
+              Writer writer = new OutputStreamWriter(copy, UTF_8);
+              try {
+                long record = 0;
+                while (events.hasNext()) {
+                  writeRow(writer, ++record, events.next());
+                }
+                writer.flush();
+                return copy.endCopy();
+              } catch (IOException exception) {
+                cancel(copy);
+                throw new UncheckedIOException(exception);
+              } catch (RuntimeException exception) {
+                cancel(copy);
+                throw exception;
+              }
+            });
+  }
+
+  @Override
+  public int mergeStaged(long count) {
+    if (count == 0) {
+      return 0;
+    }
+    return sessionFactory
+        .getCurrentSession()
+        .createNativeQuery(MERGE_STAGED)
+        .setParameter("blocks", (int) ((count + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE))
+        .setParameter("allocationSize", ID_ALLOCATION_SIZE)
+        .addSynchronizedEntityClass(Event.class)
+        .executeUpdate();
+  }
+
+  private void writeRow(Writer writer, long record, Event event) throws IOException {
+    writer.write(Long.toString(record));
+    writeField(writer, event.getTopic());
+    writeField(writer, event.getDescription());
+    writeField(writer, event.getOrganizer());
+    writeField(writer, event.getDate() == null ? null : event.getDate().toString());
+    writeField(writer, event.getLocation());
+    writer.write('\n');
+  }
+
+  /** Writes the value in COPY text format, where tab, newline and backslash must be escaped. */
+  private void writeField(Writer writer, String value) throws IOException {
+    writer.write('\t');
+    if (value == null) {
+      writer.write("\\N");
+      return;
+    }
+    for (int i = 0; i < value.length(); i++) {
+      char character = value.charAt(i);
+      switch (character) {
+        case '\\':
+          writer.write("\\\\");
+          break;
+        case '\t':
+          writer.write("\\t");
+          break;
+        case '\n':
+          writer.write("\\n");
+          break;
+        case '\r':
+          writer.write("\\r");
+          break;
+        default:
+          writer.write(character);
+      }
+    }
+  }
+
+  private void cancel(PGCopyOutputStream copy) throws SQLException {
+    if (copy.isActive()) {
+      copy.cancelCopy();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.dao.EventPartitionDao;
+import lombok.AllArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.type.IntegerType;
+import org.hibernate.type.StringType;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@Transactional(propagation = Propagation.MANDATORY)
+@AllArgsConstructor
+public class EventPartitionDaoImpl implements EventPartitionDao {
+
+  private static final String CREATE_PARTITIONS =
+      "SELECT create_event_partitions('event', :fromMonth, :toMonth) AS created";
+  private static final String DETACH_PARTITIONS =
+      "SELECT detach_event_partitions('event', :before) AS detached";
+
+  private final SessionFactory sessionFactory;
+
+  @Override
+  public int createPartitions(LocalDate fromMonth, LocalDate toMonth) {
+    return (Integer)
+        sessionFactory
+            .getCurrentSession()
+            .createNativeQuery(CREATE_PARTITIONS)
+            .addScalar("created", IntegerType.INSTANCE)
+            .setParameter("fromMonth", fromMonth.atStartOfDay())
+            .setParameter("toMonth", toMonth.atStartOfDay())
+            .getSingleResult();
+  }
+
+  @Override
+  public List<String> detachPartitionsBefore(LocalDate month) {
+    @SuppressWarnings("unchecked")
+    List<String> detached =
+        sessionFactory
+            .getCurrentSession()
+            .createNativeQuery(DETACH_PARTITIONS)
+            .addScalar("detached", StringType.INSTANCE)
+            .setParameter("before", month.atStartOfDay())
+            .getResultList();
+    return detached;
+  }
+}
@@ -0,0 +1,142 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.converter.EventConverter;
+import asiptsou.modsen.task.dao.EventDao;
+import asiptsou.modsen.task.dao.index.EventIndex;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static java.util.Objects.isNull;
+
+/**
+ * Serves filter queries from the {@link EventIndex} once it is loaded, and everything else, full
+ * text search included, from {@link EventDaoImpl}. Writes go to the database and are applied to
+ * the index after their transaction has committed, so a node reads its own writes. A failure to
+ * apply a write to the index is only logged, it must not fail the committed write; the change log
+ * brings the write to the index later.
+ */
+@Slf4j
+@Repository
+@Primary
+@Profile("!" + REACTIVE_PROFILE)
+@ConditionalOnProperty(name = "event.index.enabled", havingValue = "true")
+public class IndexedEventDao implements EventDao {
+
+  private final EventDaoImpl eventDao;
+  private final EventIndex eventIndex;
+  private final EventConverter eventConverter;
+
+  public IndexedEventDao(
+      EventDaoImpl eventDao, EventIndex eventIndex, EventConverter eventConverter) {
+    this.eventDao = eventDao;
+    this.eventIndex = eventIndex;
+    this.eventConverter = eventConverter;
+  }
+
+  @Override
+  public Optional<Event> getById(long id) {
+    return eventDao.getById(id);
+  }
+
+  @Override
+  public Event save(Event event) {
+    Event saved = eventDao.save(event);
+    afterCommit(() -> eventIndex.put(eventConverter.toDto(saved)));
+    return saved;
+  }
+
+  @Override
+  public Event saveIfAbsent(Event event) {
+    Event saved = eventDao.saveIfAbsent(event);
+    afterCommit(() -> eventIndex.put(eventConverter.toDto(saved)));
+    return saved;
+  }
+
+  @Override
+  public void saveAll(List<Event> events) {
+    eventDao.saveAll(events);
+    afterCommit(() -> events.forEach(event -> eventIndex.put(eventConverter.toDto(event))));
+  }
+
+  @Override
+  public List<EventDto> getAll(Set<EventField> fields, EventCursor after, int limit) {
+    return eventDao.getAll(fields, after, limit);
+  }
+
+  @Override
+  public void scrollAll(Consumer<Event> action) {
+    eventDao.scrollAll(action);
+  }
+
+  @Override
+  public int delete(long id) {
+    int deleted = eventDao.delete(id);
+    if (deleted > 0) {
+      afterCommit(() -> eventIndex.remove(id));
+    }
+    return deleted;
+  }
+
+  /**
+   * Updates the event. The statement increments the version, so the new state is known unless the
+   * update wasn't conditional, then it is read back in the same transaction.
+   */
+  @Override
+  public int update(Event event) {
+    int updated = eventDao.update(event);
+    if (updated > 0) {
+      EventDto eventDto =
+          isNull(event.getVersion())
+              ? eventDao.getById(event.getId()).map(eventConverter::toDto).orElse(null)
+              : eventConverter.toDto(event).toBuilder().version(event.getVersion() + 1).build();
+      if (!isNull(eventDto)) {
+        afterCommit(() -> eventIndex.put(eventDto));
+      }
+    }
+    return updated;
+  }
+
+  @Override
+  public boolean isCollatedByCodePoint() {
+    return eventDao.isCollatedByCodePoint();
+  }
+
+  @Override
+  public List<EventDto> getAllByFilter(
+      EventFilter eventFilter, Set<EventField> fields, EventCursor after, int limit) {
+    if (!eventIndex.isLoaded() || eventFilter.isFullTextSearch()) {
+      return eventDao.getAllByFilter(eventFilter, fields, after, limit);
+    }
+    return eventIndex.find(eventFilter, fields, after, limit);
+  }
+
+  private static void afterCommit(Runnable action) {
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            try {
+              action.run();
+            } catch (RuntimeException e) {
+              log.warn("Failed to apply a committed write to the event index", e);
+            }
+          }
+        });
+  }
+}
@@ -0,0 +1,357 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.dao.ReactiveEventDao;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+import static asiptsou.modsen.task.config.FullTextPostgreSQLDialect.FULL_TEXT_MATCH_SQL;
+import static asiptsou.modsen.task.config.FullTextPostgreSQLDialect.FULL_TEXT_RANK_SQL;
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static asiptsou.modsen.task.dao.impl.EventDaoImpl.LIKE_ESCAPE;
+import static asiptsou.modsen.task.model.EventFilter.ASCENDING_SORTING;
+import static asiptsou.modsen.task.model.EventFilter.DESCENDING_SORTING;
+import static asiptsou.modsen.task.model.EventFilter.isActiveSorting;
+import static java.util.Objects.isNull;
+
+/**
+ * Plain SQL version of {@link EventDaoImpl} for the reactive profile. Filter queries are built
+ * with the same predicates, sort keys and keyset condition as the Criteria queries of {@link
+ * EventDaoImpl#createFilterQuery}, so both stacks return the same pages for the same cursor.
+ */
+@Repository
+@Profile(REACTIVE_PROFILE)
+public class ReactiveEventDaoImpl implements ReactiveEventDao {
+
+  private static final List<EventField> ALL_FIELDS = List.of(EventField.values());
+  private static final String INSERT =
+      "insert into event (id, version, topic, description, organizer, date, location) "
+          + "values (nextval('event_id_sequence'), 0, $1, $2, $3, $4, $5) returning id";
+
+  private final DatabaseClient databaseClient;
+  private final TransactionalOperator transactionalOperator;
+  private final int fetchSize;
+
+  public ReactiveEventDaoImpl(
+      DatabaseClient databaseClient,
+      TransactionalOperator transactionalOperator,
+      @Value("${event.reactive.fetch-size}") int fetchSize) {
+    this.databaseClient = databaseClient;
+    this.transactionalOperator = transactionalOperator;
+    this.fetchSize = fetchSize;
+  }
+
+  @Override
+  public Mono<EventDto> getById(long id) {
+    return databaseClient
+        .sql("select " + columns(ALL_FIELDS) + " from event where id = :id")
+        .bind("id", id)
+        .map(row -> toDto(row, ALL_FIELDS))
+        .one();
+  }
+
+  @Override
+  public Mono<Long> save(EventDto eventDto) {
+    return databaseClient
+        .sql(INSERT)
+        .bind(0, eventDto.getTopic())
+        .bind(1, eventDto.getDescription())
+        .bind(2, eventDto.getOrganizer())
+        .bind(3, eventDto.getDate())
+        .bind(4, eventDto.getLocation())
+        .map(row -> row.get(0, Long.class))
+        .one();
+  }
+
+  /** One statement with a binding per event, which the driver pipelines in one round trip. */
+  @Override
+  public Flux<Long> saveAll(List<EventDto> eventDtos) {
+    return databaseClient
+        .inConnectionMany(
+            connection ->
+                Flux.from(insert(connection, eventDtos).execute())
+                    .concatMap(result -> result.map((row, metadata) -> row.get(0, Long.class))))
+        .as(transactionalOperator::transactional);
+  }
+
+  @Override
+  public Flux<EventDto> getAll(Set<EventField> fields, EventCursor after, int limit) {
+    List<EventField> columns = List.copyOf(fields);
+    return select(createAllQuery(columns, after, limit), columns);
+  }
+
+  @Override
+  public Flux<EventDto> getAllByFilter(
+      EventFilter eventFilter, Set<EventField> fields, EventCursor after, int limit) {
+    List<EventField> columns = List.copyOf(fields);
+    return select(createFilterQuery(eventFilter, columns, after, limit), columns);
+  }
+
+  @Override
+  public Mono<Integer> delete(long id) {
+    return databaseClient
+        .sql("delete from event where id = :id")
+        .bind("id", id)
+        .fetch()
+        .rowsUpdated();
+  }
+
+  @Override
+  public Mono<Integer> update(long id, EventDto eventDto) {
+    boolean checkVersion = !isNull(eventDto.getVersion());
+    GenericExecuteSpec update =
+        databaseClient
+            .sql(
+                "update event set topic = :topic, description = :description,"
+                    + " organizer = :organizer, date = :date, location = :location,"
+                    + " version = version + 1 where id = :id"
+                    + (checkVersion ? " and version = :version" : ""))
+            .bind("id", id)
+            .bind("topic", eventDto.getTopic())
+            .bind("description", eventDto.getDescription())
+            .bind("organizer", eventDto.getOrganizer())
+            .bind("date", eventDto.getDate())
+            .bind("location", eventDto.getLocation());
+    if (checkVersion) {
+      update = update.bind("version", eventDto.getVersion());
+    }
+    return update.fetch().rowsUpdated();
+  }
+
+  static SqlQuery createAllQuery(List<EventField> columns, EventCursor after, int limit) {
+    SqlQuery query = new SqlQuery();
+    query.sql.append("select ").append(columns(columns)).append(" from event");
+    if (!isNull(after)) {
+      query.sql.append(" where id > ").append(query.bind("afterId", after.getId()));
+    }
+    query.sql.append(" order by id");
+    appendLimit(query, limit);
+    return query;
+  }
+
+  /** Builds the filter query selecting the columns in their order. Package-private for tests. */
+  static SqlQuery createFilterQuery(
+      EventFilter eventFilter, List<EventField> columns, EventCursor after, int limit) {
+    SqlQuery query = new SqlQuery();
+    List<String> predicates = new ArrayList<>();
+    if (!isNull(eventFilter.getFromDate())) {
+      predicates.add("date >= " + query.bind("fromDate", eventFilter.getFromDate()));
+    }
+    if (!isNull(eventFilter.getToDate())) {
+      predicates.add("date <= " + query.bind("toDate", eventFilter.getToDate()));
+    }
+    if (hasText(eventFilter.getOrganizer())) {
+      predicates.add(contains(query, "organizer", eventFilter.getOrganizer()));
+    }
+    if (hasText(eventFilter.getTopic())) {
+      predicates.add(contains(query, "topic", eventFilter.getTopic()));
+    }
+    String fullTextQuery = null;
+    if (eventFilter.isFullTextSearch()) {
+      fullTextQuery = query.bind("q", eventFilter.getQ());
+      predicates.add(fullText(FULL_TEXT_MATCH_SQL, "", fullTextQuery));
+    }
+
+    List<SortKey> sortKeys = getSortKeys(query, eventFilter, after, fullTextQuery);
+    if (!isNull(after)) {
+      predicates.add(seekAfter(sortKeys));
+    }
+
+    query.sql.append("select ").append(columns(columns));
+    if (eventFilter.isFullTextSearch()) {
+      query.sql.append(", ").append(sortKeys.get(0).expression);
+    }
+    query.sql.append(" from event");
+    if (!predicates.isEmpty()) {
+      query.sql.append(" where ").append(String.join(" and ", predicates));
+    }
+    StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+    for (SortKey sortKey : sortKeys) {
+      orderBy.add(sortKey.expression + (sortKey.ascending ? " asc" : " desc"));
+    }
+    query.sql.append(orderBy);
+    appendLimit(query, limit);
+    return query;
+  }
+
+  private Flux<EventDto> select(SqlQuery query, List<EventField> columns) {
+    GenericExecuteSpec select =
+        databaseClient
+            .sql(query.sql.toString())
+            .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize)));
+    for (Map.Entry<String, Object> parameter : query.parameters.entrySet()) {
+      select = select.bind(parameter.getKey(), parameter.getValue());
+    }
+    return select.map(row -> toDto(row, columns)).all();
+  }
+
+  private Statement insert(Connection connection, List<EventDto> eventDtos) {
+    Statement statement = connection.createStatement(INSERT);
+    for (int i = 0; i < eventDtos.size(); i++) {
+      EventDto eventDto = eventDtos.get(i);
+      if (i > 0) {
+        statement.add();
+      }
+      statement
+          .bind(0, eventDto.getTopic())
+          .bind(1, eventDto.getDescription())
+          .bind(2, eventDto.getOrganizer())
+          .bind(3, eventDto.getDate())
+          .bind(4, eventDto.getLocation());
+    }
+    return statement;
+  }
+
+  /** Maps the columns in their order, and the relevance selected after them by full text search. */
+  private static EventDto toDto(Row row, List<EventField> columns) {
+    EventDto eventDto = new EventDto();
+    for (int i = 0; i < columns.size(); i++) {
+      columns.get(i).set(eventDto, row.get(i));
+    }
+    if (row.getMetadata().getColumnMetadatas().size() > columns.size()) {
+      eventDto.setRank(row.get(columns.size(), Float.class));
+    }
+    return eventDto;
+  }
+
+  private static String columns(List<EventField> columns) {
+    StringJoiner joiner = new StringJoiner(", ");
+    columns.forEach(column -> joiner.add(column.getAttribute()));
+    return joiner.toString();
+  }
+
+  private static void appendLimit(SqlQuery query, int limit) {
+    if (limit > 0) {
+      query.sql.append(" limit ").append(query.bind("limit", limit));
+    }
+  }
+
+  /** Same escaping as {@link EventDaoImpl}, served by the same trigram indexes. */
+  private static String contains(SqlQuery query, String column, String value) {
+    String escaped =
+        value.replace(LIKE_ESCAPE, LIKE_ESCAPE + LIKE_ESCAPE)
+            .replace("%", LIKE_ESCAPE + "%")
+            .replace("_", LIKE_ESCAPE + "_");
+    return column
+        + " like "
+        + query.bind(column, "%" + escaped + "%")
+        + " escape '"
+        + LIKE_ESCAPE
+        + "'";
+  }
+
+  /** Fills the dialect template with the columns of the table with {@code alias}. */
+  private static String fullText(String template, String alias, String fullTextQuery) {
+    return template
+        .replace("?1", alias + "topic")
+        .replace("?2", alias + "description")
+        .replace("?3", alias + "organizer")
+        .replace("?4", alias + "location")
+        .replace("?5", fullTextQuery);
+  }
+
+  /** Same sort keys as {@link EventDaoImpl}, relevance at the cursor bound as a real. */
+  private static List<SortKey> getSortKeys(
+      SqlQuery query, EventFilter eventFilter, EventCursor after, String fullTextQuery) {
+    boolean hasCursor = !isNull(after);
+    String cursorId = hasCursor ? query.bind("cursorId", after.getId()) : null;
+    List<SortKey> sortKeys = new ArrayList<>();
+    if (eventFilter.isFullTextSearch()) {
+      String rank = fullText(FULL_TEXT_RANK_SQL, "", fullTextQuery);
+      sortKeys.add(
+          new SortKey(
+              rank,
+              DESCENDING_SORTING,
+              hasCursor ? query.bind("cursorRank", after.getRank()) : null));
+    }
+    if (isActiveSorting(eventFilter.isSortTopic(), eventFilter.getTopicSortDirection())) {
+      sortKeys.add(
+          new SortKey(
+              "topic",
+              eventFilter.getTopicSortDirection(),
+              hasCursor ? query.bind("cursorTopic", after.getTopic()) : null));
+    }
+    if (isActiveSorting(eventFilter.isSortOrganizer(), eventFilter.getOrganizerSortDirection())) {
+      sortKeys.add(
+          new SortKey(
+              "organizer",
+              eventFilter.getOrganizerSortDirection(),
+              hasCursor ? query.bind("cursorOrganizer", after.getOrganizer()) : null));
+    }
+    if (isActiveSorting(eventFilter.isSortDate(), eventFilter.getDateSortDirection())) {
+      sortKeys.add(
+          new SortKey(
+              "date",
+              eventFilter.getDateSortDirection(),
+              hasCursor ? query.bind("cursorDate", after.getDate()) : null));
+    }
+    sortKeys.add(new SortKey("id", ASCENDING_SORTING, cursorId));
+    return sortKeys;
+  }
+
+  /** The keyset condition of {@link EventDaoImpl}: k1 >= v1 and (k1 > v1 or (k1 = v1 and ...)). */
+  private static String seekAfter(List<SortKey> sortKeys) {
+    StringJoiner branches = new StringJoiner(" or ", "(", ")");
+    for (int i = 0; i < sortKeys.size(); i++) {
+      StringJoiner branch = new StringJoiner(" and ", "(", ")");
+      for (int j = 0; j < i; j++) {
+        SortKey previous = sortKeys.get(j);
+        branch.add(previous.expression + " = " + previous.cursorValue);
+      }
+      SortKey sortKey = sortKeys.get(i);
+      branch.add(sortKey.expression + (sortKey.ascending ? " > " : " < ") + sortKey.cursorValue);
+      branches.add(branch.toString());
+    }
+    SortKey first = sortKeys.get(0);
+    return first.expression + (first.ascending ? " >= " : " <= ") + first.cursorValue
+        + " and " + branches;
+  }
+
+  private static boolean hasText(String value) {
+    return value != null && !value.isEmpty();
+  }
+
+  /** SQL with named parameters in the order they were bound. */
+  static final class SqlQuery {
+
+    final StringBuilder sql = new StringBuilder();
+    final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    private String bind(String name, Object value) {
+      parameters.put(name, value);
+      return ":" + name;
+    }
+  }
+
+  private static final class SortKey {
+
+    private final String expression;
+    private final boolean ascending;
+    private final String cursorValue;
+
+    private SortKey(String expression, String direction, String cursorValue) {
+      this.expression = expression;
+      this.ascending = ASCENDING_SORTING.equals(direction);
+      this.cursorValue = cursorValue;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+package asiptsou.modsen.task.dao.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Distinct values of one text field in code point order, which is the order of the C collation of
+ * the database, so ranks of values order events as ORDER BY on the column does. The index is not
+ * loaded in other collations. Each value is kept once and events refer to it by rank.
+ *
+ * <p>With grams the dictionary also holds trigram postings: for every three consecutive chars the
+ * ascending ranks of values containing them, so values containing a substring are found among the
+ * values of its rarest trigram instead of all of them.
+ */
+final class EventDictionary {
+
+  static final Comparator<String> CODE_POINT_ORDER = EventDictionary::compare;
+
+  private static final int GRAM_LENGTH = 3;
+
+  private final String[] values;
+  private final boolean withGrams;
+  /** Sorted distinct trigrams, ranks of grams[i] are postings[gramStarts[i]..gramStarts[i+1]). */
+  private final long[] grams;
+  private final int[] gramStarts;
+  private final int[] postings;
+
+  private EventDictionary(
+      String[] values, boolean withGrams, long[] grams, int[] gramStarts, int[] postings) {
+    this.values = values;
+    this.withGrams = withGrams;
+    this.grams = grams;
+    this.gramStarts = gramStarts;
+    this.postings = postings;
+  }
+
+  /** Builds the dictionary of the distinct non-null values, with trigram postings if asked. */
+  static EventDictionary of(Collection<String> distinct, boolean withGrams) {
+    String[] values = distinct.toArray(new String[0]);
+    Arrays.sort(values, CODE_POINT_ORDER);
+    if (!withGrams) {
+      return new EventDictionary(values, false, new long[0], new int[] {0}, new int[0]);
+    }
+    // first pass counts ranks per gram, a value containing a gram twice is counted once
+    Map<Long, Integer> gramIndexes = new HashMap<>();
+    int[] counts = new int[64];
+    int[] lastRanks = new int[64];
+    for (int rank = 0; rank < values.length; rank++) {
+      String value = values[rank];
+      for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+        int index = gramIndexes.computeIfAbsent(gram(value, i), gram -> gramIndexes.size());
+        if (index == counts.length) {
+          counts = Arrays.copyOf(counts, index * 2);
+          lastRanks = Arrays.copyOf(lastRanks, index * 2);
+        }
+        if (counts[index] == 0 || lastRanks[index] != rank) {
+          counts[index]++;
+          lastRanks[index] = rank;
+        }
+      }
+    }
+    long[] grams = new long[gramIndexes.size()];
+    int i = 0;
+    for (long gram : gramIndexes.keySet()) {
+      grams[i++] = gram;
+    }
+    Arrays.sort(grams);
+    int[] gramStarts = new int[grams.length + 1];
+    int[] positions = new int[grams.length];
+    for (int position = 0; position < grams.length; position++) {
+      int index = gramIndexes.get(grams[position]);
+      positions[index] = position;
+      gramStarts[position + 1] = gramStarts[position] + counts[index];
+    }
+    // second pass fills the postings in rank order, so every posting list is ascending
+    int[] fill = Arrays.copyOf(gramStarts, grams.length);
+    int[] postings = new int[gramStarts[grams.length]];
+    Arrays.fill(lastRanks, -1);
+    for (int rank = 0; rank < values.length; rank++) {
+      String value = values[rank];
+      for (int j = 0; j + GRAM_LENGTH <= value.length(); j++) {
+        int index = gramIndexes.get(gram(value, j));
+        if (lastRanks[index] != rank) {
+          postings[fill[positions[index]]++] = rank;
+          lastRanks[index] = rank;
+        }
+      }
+    }
+    return new EventDictionary(values, true, grams, gramStarts, postings);
+  }
+
+  /** Count of values, which is also the rank events without value are sorted by, after all. */
+  int size() {
+    return values.length;
+  }
+
+  /** Returns the value of the rank, or null for {@link #size()}. */
+  String get(int rank) {
+    return rank == values.length ? null : values[rank];
+  }
+
+  /**
+   * Returns the rank of the value, {@link #size()} for null, or {@code -(insertion point) - 1} if
+   * the dictionary doesn't have it, as {@link Arrays#binarySearch} does.
+   */
+  int rank(String value) {
+    return value == null ? values.length : Arrays.binarySearch(values, value, CODE_POINT_ORDER);
+  }
+
+  /**
+   * Returns ranks of the values containing {@code part}, or null if it is shorter than a trigram
+   * and values have to be tested one by one.
+   */
+  BitSet containing(String part) {
+    if (!withGrams || part.length() < GRAM_LENGTH) {
+      return null;
+    }
+    int rarest = -1;
+    for (int i = 0; i + GRAM_LENGTH <= part.length(); i++) {
+      int position = Arrays.binarySearch(grams, gram(part, i));
+      if (position < 0) {
+        return new BitSet();
+      }
+      if (rarest < 0 || postingCount(position) < postingCount(rarest)) {
+        rarest = position;
+      }
+    }
+    BitSet ranks = new BitSet();
+    for (int i = gramStarts[rarest]; i < gramStarts[rarest + 1]; i++) {
+      if (values[postings[i]].contains(part)) {
+        ranks.set(postings[i]);
+      }
+    }
+    return ranks;
+  }
+
+  /** Compares by code points, which orders supplementary chars after all others as UTF-8 does. */
+  static int compare(String left, String right) {
+    int length = Math.min(left.length(), right.length());
+    for (int i = 0; i < length; i++) {
+      char leftChar = left.charAt(i);
+      char rightChar = right.charAt(i);
+      if (leftChar != rightChar) {
+        if (Character.isSurrogate(leftChar) != Character.isSurrogate(rightChar)) {
+          return Character.isSurrogate(leftChar) ? 1 : -1;
+        }
+        return leftChar - rightChar;
+      }
+    }
+    return left.length() - right.length();
+  }
+
+  private int postingCount(int position) {
+    return gramStarts[position + 1] - gramStarts[position];
+  }
+
+  private static long gram(String value, int offset) {
+    return (long) value.charAt(offset) << 32
+        | (long) value.charAt(offset + 1) << 16
+        | value.charAt(offset + 2);
+  }
+}
@@ -0,0 +1,399 @@
+package asiptsou.modsen.task.dao.index;
+
+import asiptsou.modsen.task.dto.EventChangeDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static asiptsou.modsen.task.model.EventFilter.DESCENDING_SORTING;
+import static asiptsou.modsen.task.model.EventFilter.isActiveSorting;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsLast;
+import static java.util.Objects.isNull;
+
+/**
+ * In-process index of all events serving filter queries without the database. It holds an
+ * immutable {@link EventSegment} and a log of events written since it was built: every write
+ * appends the new state of an event, or a tombstone, and hides the older state in the segment or
+ * log. Queries read the segment through its ranks and test the few logged events one by one, so
+ * they never wait for writes. When the log grows past {@code maxDelta} entries, {@link #compact()}
+ * builds a new segment from both and writes of the meantime are replayed onto it.
+ *
+ * <p>Readers see an immutable {@link State}. Writers, serialized by the monitor, append past the
+ * count of the published state and mark hidden segment slots and log entries with the position of
+ * the hiding entry, then publish a new state. A reader ignores marks past its own count, so it sees
+ * exactly the writes up to its state.
+ *
+ * <p>Writes come from two sources: the DAO after commit, so this node reads its own writes, and
+ * the change log of the database, which brings writes of other nodes and imports. The log may
+ * bring an older state than already applied, so states are applied only if their version is
+ * newer, and deletes of this node are remembered until the change log confirms them.
+ */
+public class EventIndex {
+
+  private static final int INITIAL_DELTA_CAPACITY = 1024;
+
+  private final int maxDelta;
+  private volatile State state;
+  /** Position of the latest log entry of each logged event, used only by writers. */
+  private final Map<Long, Integer> latestEntries = new HashMap<>();
+  private final Set<Long> unconfirmedDeletes = new HashSet<>();
+
+  public EventIndex(int maxDelta) {
+    this.maxDelta = maxDelta;
+  }
+
+  public boolean isLoaded() {
+    return !isNull(state);
+  }
+
+  /** Count of events in the segment plus entries in the log, or 0 before the first load. */
+  public int size() {
+    State current = state;
+    return isNull(current) ? 0 : current.segment.size + current.count;
+  }
+
+  /**
+   * Replaces the index by the events passed to the consumer by {@code source}, which must pass
+   * them in ascending id order.
+   */
+  public void load(Consumer<Consumer<EventDto>> source) {
+    EventSegment.Builder builder = EventSegment.builder();
+    source.accept(builder::add);
+    EventSegment segment = builder.build();
+    synchronized (this) {
+      latestEntries.clear();
+      state = State.empty(segment);
+    }
+  }
+
+  /**
+   * Applies the state of an event written by this node, unless a newer one is applied. Before the
+   * first load it does nothing, the load brings the write or the change log replays it.
+   */
+  public synchronized void put(EventDto event) {
+    if (!isLoaded()) {
+      return;
+    }
+    EventDto current = current(event.getId());
+    if (isNull(current)
+        || isNull(current.getVersion())
+        || isNull(event.getVersion())
+        || event.getVersion() > current.getVersion()) {
+      append(event.getId(), event.toBuilder().build());
+    }
+  }
+
+  /** Removes an event deleted by this node. Before the first load it does nothing, as put. */
+  public synchronized void remove(long id) {
+    if (!isLoaded()) {
+      return;
+    }
+    unconfirmedDeletes.add(id);
+    delete(id);
+  }
+
+  /** Applies a change from the change log. */
+  public synchronized void apply(EventChangeDto change) {
+    if (isNull(change.getEvent())) {
+      unconfirmedDeletes.remove(change.getId());
+      delete(change.getId());
+    } else if (!unconfirmedDeletes.contains(change.getId())) {
+      put(change.getEvent());
+    }
+  }
+
+  /**
+   * Removes events dated before {@code date}, which leave the database without change log entry
+   * when their partition is detached. Returns count of removed ones. Before the first load it does
+   * nothing, the load doesn't bring them.
+   */
+  public synchronized int removeBefore(LocalDateTime date) {
+    if (!isLoaded()) {
+      return 0;
+    }
+    long before = EventSegment.toMicros(date);
+    State current = state;
+    EventSegment segment = current.segment;
+    int removed = 0;
+    if (segment.dateValues.length > 0 && segment.dateValues[0] < before) {
+      for (int slot = 0; slot < segment.size; slot++) {
+        long slotDate = segment.date(slot);
+        if (slotDate != EventSegment.NULL_DATE && slotDate < before && !current.isShadowed(slot)) {
+          append(segment.ids[slot], null);
+          removed++;
+        }
+      }
+    }
+    for (int i = 0; i < current.count; i++) {
+      EventDto event = current.entries[i];
+      if (!isNull(event)
+          && current.isVisible(i)
+          && !isNull(event.getDate())
+          && event.getDate().isBefore(date)) {
+        append(current.entryIds[i], null);
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  public boolean needsCompaction() {
+    State current = state;
+    return !isNull(current) && current.count > maxDelta;
+  }
+
+  /**
+   * Builds a new segment of the current events. Writers wait only while the writes made during
+   * the build are replayed. Must not run concurrently with itself or {@link #load}.
+   */
+  public void compact() {
+    State built = state;
+    List<EventDto> logged = new ArrayList<>();
+    for (int i = 0; i < built.count; i++) {
+      if (built.isVisible(i) && !isNull(built.entries[i])) {
+        logged.add(built.entries[i]);
+      }
+    }
+    logged.sort(comparing(EventDto::getId));
+    EventSegment.Builder builder = EventSegment.builder();
+    EventSegment segment = built.segment;
+    int next = 0;
+    for (int slot = 0; slot < segment.size; slot++) {
+      while (next < logged.size() && logged.get(next).getId() < segment.ids[slot]) {
+        builder.add(logged.get(next++));
+      }
+      if (!built.isShadowed(slot)) {
+        builder.add(segment.toDto(slot));
+      }
+    }
+    while (next < logged.size()) {
+      builder.add(logged.get(next++));
+    }
+    EventSegment compacted = builder.build();
+    synchronized (this) {
+      State current = state;
+      latestEntries.clear();
+      state = State.empty(compacted);
+      for (int i = built.count; i < current.count; i++) {
+        if (isNull(current.entries[i])) {
+          delete(current.entryIds[i]);
+        } else {
+          append(current.entryIds[i], current.entries[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns up to {@code limit} events matching the filter after the cursor in the order of its
+   * active sort keys and id, with only the given fields set. Full text search is not supported.
+   */
+  public List<EventDto> find(
+      EventFilter eventFilter, Set<EventField> fields, EventCursor after, int limit) {
+    State current = state;
+    int[] slots =
+        new EventSegmentQuery(
+                current.segment, current.shadowedAt, current.count, eventFilter, after)
+            .find(limit);
+    Comparator<EventDto> order = order(eventFilter);
+    EventDto cursor =
+        isNull(after)
+            ? null
+            : EventDto.builder()
+                .id(after.getId())
+                .topic(after.getTopic())
+                .organizer(after.getOrganizer())
+                .date(after.getDate())
+                .build();
+    List<EventDto> logged = new ArrayList<>();
+    for (int i = 0; i < current.count; i++) {
+      EventDto event = current.entries[i];
+      if (!isNull(event)
+          && current.isVisible(i)
+          && matches(event, eventFilter)
+          && (isNull(cursor) || order.compare(event, cursor) > 0)) {
+        logged.add(event);
+      }
+    }
+    logged.sort(order);
+
+    Set<EventField> cleared = EnumSet.complementOf(EnumSet.copyOf(fields));
+    List<EventDto> found = new ArrayList<>(Math.min(limit, slots.length + logged.size()));
+    int slot = 0;
+    int entry = 0;
+    EventDto fromSegment = slots.length > 0 ? current.segment.toDto(slots[0]) : null;
+    while (found.size() < limit) {
+      EventDto event;
+      if (!isNull(fromSegment)
+          && (entry == logged.size() || order.compare(fromSegment, logged.get(entry)) < 0)) {
+        event = fromSegment;
+        fromSegment = ++slot < slots.length ? current.segment.toDto(slots[slot]) : null;
+      } else if (entry < logged.size()) {
+        event = logged.get(entry++).toBuilder().build();
+      } else {
+        break;
+      }
+      for (EventField field : cleared) {
+        field.set(event, null);
+      }
+      found.add(event);
+    }
+    return found;
+  }
+
+  /** Order of the filter on values, the one {@link EventSegmentQuery} follows on ranks. */
+  static Comparator<EventDto> order(EventFilter eventFilter) {
+    Comparator<EventDto> order = (left, right) -> 0;
+    if (isActiveSorting(eventFilter.isSortTopic(), eventFilter.getTopicSortDirection())) {
+      order =
+          order.thenComparing(
+              direction(
+                  comparing(EventDto::getTopic, nullsLast(EventDictionary.CODE_POINT_ORDER)),
+                  eventFilter.getTopicSortDirection()));
+    }
+    if (isActiveSorting(eventFilter.isSortOrganizer(), eventFilter.getOrganizerSortDirection())) {
+      order =
+          order.thenComparing(
+              direction(
+                  comparing(EventDto::getOrganizer, nullsLast(EventDictionary.CODE_POINT_ORDER)),
+                  eventFilter.getOrganizerSortDirection()));
+    }
+    if (isActiveSorting(eventFilter.isSortDate(), eventFilter.getDateSortDirection())) {
+      order =
+          order.thenComparing(
+              direction(
+                  comparing(EventDto::getDate, nullsLast(Comparator.<LocalDateTime>naturalOrder())),
+                  eventFilter.getDateSortDirection()));
+    }
+    return order.thenComparing(EventDto::getId);
+  }
+
+  /** Tests the filter on values, the way {@link EventSegmentQuery} does on ranks. */
+  static boolean matches(EventDto event, EventFilter eventFilter) {
+    LocalDateTime date = event.getDate();
+    if (!isNull(eventFilter.getFromDate())
+        && (isNull(date) || date.isBefore(eventFilter.getFromDate()))) {
+      return false;
+    }
+    if (!isNull(eventFilter.getToDate())
+        && (isNull(date) || date.isAfter(eventFilter.getToDate()))) {
+      return false;
+    }
+    return contains(event.getTopic(), eventFilter.getTopic())
+        && contains(event.getOrganizer(), eventFilter.getOrganizer());
+  }
+
+  private static boolean contains(String value, String part) {
+    return isNull(part) || part.isEmpty() || !isNull(value) && value.contains(part);
+  }
+
+  private static Comparator<EventDto> direction(Comparator<EventDto> order, String direction) {
+    return DESCENDING_SORTING.equals(direction) ? order.reversed() : order;
+  }
+
+  /** Returns the visible state of the event, or null if the index doesn't have it. */
+  private EventDto current(long id) {
+    State current = state;
+    Integer entry = latestEntries.get(id);
+    if (!isNull(entry)) {
+      return current.entries[entry];
+    }
+    int slot = current.segment.slot(id);
+    return slot >= 0 ? current.segment.toDto(slot) : null;
+  }
+
+  private void delete(long id) {
+    if (!isNull(current(id))) {
+      append(id, null);
+    }
+  }
+
+  /** Appends the state, null for a tombstone, hides the older one and publishes a new state. */
+  private void append(long id, EventDto event) {
+    State current = state;
+    int entry = current.count;
+    long[] entryIds = current.entryIds;
+    EventDto[] entries = current.entries;
+    int[] supersededAt = current.supersededAt;
+    if (entry == entries.length) {
+      entryIds = Arrays.copyOf(entryIds, entry * 2);
+      entries = Arrays.copyOf(entries, entry * 2);
+      supersededAt = Arrays.copyOf(supersededAt, entry * 2);
+    }
+    entryIds[entry] = id;
+    entries[entry] = event;
+    Integer previous = latestEntries.put(id, entry);
+    if (!isNull(previous)) {
+      supersededAt[previous] = entry + 1;
+    }
+    int slot = current.segment.slot(id);
+    if (slot >= 0 && current.shadowedAt[slot] == 0) {
+      current.shadowedAt[slot] = entry + 1;
+    }
+    state =
+        new State(current.segment, current.shadowedAt, entryIds, entries, supersededAt, entry + 1);
+  }
+
+  /**
+   * Segment and log as of {@code count} entries. Marks are positions of hiding entries plus one,
+   * 0 for none, and only marks up to {@code count} apply to this state.
+   */
+  private static final class State {
+
+    private final EventSegment segment;
+    private final int[] shadowedAt;
+    private final long[] entryIds;
+    private final EventDto[] entries;
+    private final int[] supersededAt;
+    private final int count;
+
+    private State(
+        EventSegment segment,
+        int[] shadowedAt,
+        long[] entryIds,
+        EventDto[] entries,
+        int[] supersededAt,
+        int count) {
+      this.segment = segment;
+      this.shadowedAt = shadowedAt;
+      this.entryIds = entryIds;
+      this.entries = entries;
+      this.supersededAt = supersededAt;
+      this.count = count;
+    }
+
+    static State empty(EventSegment segment) {
+      return new State(
+          segment,
+          new int[segment.size],
+          new long[INITIAL_DELTA_CAPACITY],
+          new EventDto[INITIAL_DELTA_CAPACITY],
+          new int[INITIAL_DELTA_CAPACITY],
+          0);
+    }
+
+    boolean isVisible(int entry) {
+      int superseded = supersededAt[entry];
+      return superseded == 0 || superseded > count;
+    }
+
+    boolean isShadowed(int slot) {
+      int shadowed = shadowedAt[slot];
+      return shadowed != 0 && shadowed <= count;
+    }
+  }
+}
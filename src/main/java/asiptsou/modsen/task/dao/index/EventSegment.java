@@ -0,0 +1,221 @@
+package asiptsou.modsen.task.dao.index;
+
+import asiptsou.modsen.task.dto.EventDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable columnar copy of events, built once and then only read. Events are kept in slots in
+ * ascending id order, so slot order is the id tie-breaker of every sorting. Each field is a column
+ * of ints: ranks of its value in a dictionary, or of the date among the sorted distinct dates.
+ * Sortable columns also keep all slots ordered by rank and then id, grouped by rank, so a sorting
+ * is read in order and a filter on values is a range or a set of groups.
+ */
+final class EventSegment {
+
+  static final long NULL_DATE = Long.MIN_VALUE;
+
+  final int size;
+  final long[] ids;
+  final long[] versions;
+  final EventColumn topics;
+  final EventColumn organizers;
+  final EventColumn dates;
+  final int[] descriptions;
+  final int[] locations;
+  final EventDictionary topicDictionary;
+  final EventDictionary organizerDictionary;
+  final EventDictionary descriptionDictionary;
+  final EventDictionary locationDictionary;
+  /** Distinct dates as epoch microseconds in ascending order, a date rank indexes it. */
+  final long[] dateValues;
+
+  private EventSegment(Builder builder) {
+    size = builder.size;
+    ids = Arrays.copyOf(builder.ids, size);
+    versions = Arrays.copyOf(builder.versions, size);
+    topicDictionary = EventDictionary.of(distinct(builder.topics, size), true);
+    organizerDictionary = EventDictionary.of(distinct(builder.organizers, size), true);
+    descriptionDictionary = EventDictionary.of(distinct(builder.descriptions, size), false);
+    locationDictionary = EventDictionary.of(distinct(builder.locations, size), false);
+    topics = new EventColumn(ranks(topicDictionary, builder.topics, size), topicDictionary.size());
+    organizers =
+        new EventColumn(
+            ranks(organizerDictionary, builder.organizers, size), organizerDictionary.size());
+    descriptions = ranks(descriptionDictionary, builder.descriptions, size);
+    locations = ranks(locationDictionary, builder.locations, size);
+    long[] sortedDates = Arrays.copyOf(builder.dates, size);
+    Arrays.sort(sortedDates);
+    int distinctDates = 0;
+    for (int i = 0; i < size; i++) {
+      if (sortedDates[i] != NULL_DATE && (i == 0 || sortedDates[i] != sortedDates[i - 1])) {
+        sortedDates[distinctDates++] = sortedDates[i];
+      }
+    }
+    dateValues = Arrays.copyOf(sortedDates, distinctDates);
+    int[] dateRanks = new int[size];
+    for (int slot = 0; slot < size; slot++) {
+      long date = builder.dates[slot];
+      dateRanks[slot] =
+          date == NULL_DATE ? distinctDates : Arrays.binarySearch(dateValues, date);
+    }
+    dates = new EventColumn(dateRanks, distinctDates);
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  /** Returns the slot of the event, or a negative number if the segment doesn't have it. */
+  int slot(long id) {
+    return Arrays.binarySearch(ids, 0, size, id);
+  }
+
+  /** Returns the event of the slot with all fields. */
+  EventDto toDto(int slot) {
+    return EventDto.builder()
+        .id(ids[slot])
+        .version(versions[slot])
+        .topic(topicDictionary.get(topics.ranks[slot]))
+        .description(descriptionDictionary.get(descriptions[slot]))
+        .organizer(organizerDictionary.get(organizers.ranks[slot]))
+        .date(toDate(date(slot)))
+        .location(locationDictionary.get(locations[slot]))
+        .build();
+  }
+
+  /** Returns the date of the slot as epoch microseconds, or {@link #NULL_DATE}. */
+  long date(int slot) {
+    int rank = dates.ranks[slot];
+    return rank == dateValues.length ? NULL_DATE : dateValues[rank];
+  }
+
+  /** Converts the date to epoch microseconds, the precision of timestamps of the database. */
+  static long toMicros(LocalDateTime date) {
+    if (date == null) {
+      return NULL_DATE;
+    }
+    return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+  }
+
+  static LocalDateTime toDate(long micros) {
+    if (micros == NULL_DATE) {
+      return null;
+    }
+    return LocalDateTime.ofEpochSecond(
+        Math.floorDiv(micros, 1_000_000),
+        (int) Math.floorMod(micros, 1_000_000) * 1_000,
+        ZoneOffset.UTC);
+  }
+
+  private static Collection<String> distinct(String[] values, int size) {
+    Map<String, Boolean> distinct = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      if (values[i] != null) {
+        distinct.put(values[i], Boolean.TRUE);
+      }
+    }
+    return distinct.keySet();
+  }
+
+  private static int[] ranks(EventDictionary dictionary, String[] values, int size) {
+    Map<String, Integer> ranks = new HashMap<>(dictionary.size() * 2);
+    for (int rank = 0; rank < dictionary.size(); rank++) {
+      ranks.put(dictionary.get(rank), rank);
+    }
+    int[] slotRanks = new int[size];
+    for (int slot = 0; slot < size; slot++) {
+      slotRanks[slot] = values[slot] == null ? dictionary.size() : ranks.get(values[slot]);
+    }
+    return slotRanks;
+  }
+
+  /**
+   * Ranks of a sortable field per slot, with the slots of each rank grouped: slots of rank r are
+   * {@code order[starts[r]..starts[r + 1])} in id order. Events without value have the rank after
+   * the last value, so they come last in ascending order as NULLS LAST of the database.
+   */
+  static final class EventColumn {
+
+    final int[] ranks;
+    final int[] order;
+    final int[] starts;
+    /** Count of groups, the last one holds events without value. */
+    final int groups;
+
+    EventColumn(int[] ranks, int valueCount) {
+      this.ranks = ranks;
+      this.groups = valueCount + 1;
+      // counting sort by rank keeps the id order of slots within a rank
+      starts = new int[groups + 1];
+      for (int rank : ranks) {
+        starts[rank + 1]++;
+      }
+      for (int rank = 0; rank < groups; rank++) {
+        starts[rank + 1] += starts[rank];
+      }
+      int[] fill = Arrays.copyOf(starts, groups);
+      order = new int[ranks.length];
+      for (int slot = 0; slot < ranks.length; slot++) {
+        order[fill[ranks[slot]]++] = slot;
+      }
+    }
+
+    int groupSize(int rank) {
+      return starts[rank + 1] - starts[rank];
+    }
+  }
+
+  /** Collects events in ascending id order, as the database scrolls them. */
+  static final class Builder {
+
+    private int size;
+    private long[] ids = new long[1024];
+    private long[] versions = new long[1024];
+    private long[] dates = new long[1024];
+    private String[] topics = new String[1024];
+    private String[] descriptions = new String[1024];
+    private String[] organizers = new String[1024];
+    private String[] locations = new String[1024];
+
+    private Builder() {}
+
+    Builder add(EventDto event) {
+      if (size > 0 && event.getId() <= ids[size - 1]) {
+        throw new IllegalStateException("Events must be added in ascending id order");
+      }
+      if (size == ids.length) {
+        int capacity = size * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        topics = Arrays.copyOf(topics, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        organizers = Arrays.copyOf(organizers, capacity);
+        locations = Arrays.copyOf(locations, capacity);
+      }
+      ids[size] = event.getId();
+      versions[size] = event.getVersion() == null ? 0 : event.getVersion();
+      dates[size] = toMicros(event.getDate());
+      topics[size] = event.getTopic();
+      descriptions[size] = event.getDescription();
+      organizers[size] = event.getOrganizer();
+      locations[size] = event.getLocation();
+      size++;
+      return this;
+    }
+
+    int size() {
+      return size;
+    }
+
+    EventSegment build() {
+      return new EventSegment(this);
+    }
+  }
+}
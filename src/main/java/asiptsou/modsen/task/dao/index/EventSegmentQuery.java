@@ -0,0 +1,391 @@
+package asiptsou.modsen.task.dao.index;
+
+import asiptsou.modsen.task.dao.index.EventSegment.EventColumn;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static asiptsou.modsen.task.model.EventFilter.ASCENDING_SORTING;
+import static asiptsou.modsen.task.model.EventFilter.isActiveSorting;
+import static java.util.Objects.isNull;
+
+/**
+ * Finds the first events of a segment matching a filter after a cursor, in the order of the active
+ * sort keys of the filter and then id. All conditions are compared on ranks: text filters are sets
+ * of dictionary ranks found through trigram postings, the date range is a range of date ranks, and
+ * cursor values are turned into ranks too, in between two ranks if the segment doesn't have them.
+ *
+ * <p>Events are read by one of two plans. Small candidate sets, the date range or the events of
+ * the matching topics or organizers, are read whole and the first events kept in a bounded heap.
+ * Otherwise slots are read in the order of the first sort key, starting at the cursor, until the
+ * page is full; events with equal first key are sorted by the other keys group by group.
+ */
+final class EventSegmentQuery {
+
+  private static final int MAX_KEYS = 3;
+  private static final int FULL_SCAN = 0;
+  private static final int DATE_RANGE = 1;
+  private static final int TOPICS = 2;
+  private static final int ORGANIZERS = 3;
+
+  private final EventSegment segment;
+  private final int[] shadowedAt;
+  private final int generation;
+  private final int fromDate;
+  private final int toDate;
+  private final BitSet topicRanks;
+  private final String topicPart;
+  private final BitSet organizerRanks;
+  private final String organizerPart;
+  private final EventColumn[] keys = new EventColumn[MAX_KEYS];
+  private final boolean[] ascending = new boolean[MAX_KEYS];
+  private final int[] cursorKeys = new int[MAX_KEYS];
+  private final EventCursor after;
+  private int keyCount;
+
+  /**
+   * Slots with {@code shadowedAt} set up to {@code generation} have newer state in the delta of
+   * {@link EventIndex} and are skipped.
+   */
+  EventSegmentQuery(
+      EventSegment segment,
+      int[] shadowedAt,
+      int generation,
+      EventFilter eventFilter,
+      EventCursor after) {
+    this.segment = segment;
+    this.shadowedAt = shadowedAt;
+    this.generation = generation;
+    this.after = after;
+    boolean hasDateRange = !isNull(eventFilter.getFromDate()) || !isNull(eventFilter.getToDate());
+    fromDate =
+        isNull(eventFilter.getFromDate())
+            ? 0
+            : firstDateNotBefore(EventSegment.toMicros(eventFilter.getFromDate()));
+    toDate =
+        isNull(eventFilter.getToDate())
+            ? (hasDateRange ? segment.dateValues.length : segment.dates.groups)
+            : firstDateNotBefore(EventSegment.toMicros(eventFilter.getToDate()) + 1);
+    topicPart = hasText(eventFilter.getTopic()) ? eventFilter.getTopic() : null;
+    topicRanks = isNull(topicPart) ? null : segment.topicDictionary.containing(topicPart);
+    organizerPart = hasText(eventFilter.getOrganizer()) ? eventFilter.getOrganizer() : null;
+    organizerRanks =
+        isNull(organizerPart) ? null : segment.organizerDictionary.containing(organizerPart);
+
+    if (isActiveSorting(eventFilter.isSortTopic(), eventFilter.getTopicSortDirection())) {
+      addKey(
+          segment.topics,
+          eventFilter.getTopicSortDirection(),
+          isNull(after) ? 0 : between(segment.topicDictionary.rank(after.getTopic())));
+    }
+    if (isActiveSorting(eventFilter.isSortOrganizer(), eventFilter.getOrganizerSortDirection())) {
+      addKey(
+          segment.organizers,
+          eventFilter.getOrganizerSortDirection(),
+          isNull(after) ? 0 : between(segment.organizerDictionary.rank(after.getOrganizer())));
+    }
+    if (isActiveSorting(eventFilter.isSortDate(), eventFilter.getDateSortDirection())) {
+      addKey(segment.dates, eventFilter.getDateSortDirection(), isNull(after) ? 0 : dateKey());
+    }
+  }
+
+  /** Returns slots of up to {@code limit} first events in order. */
+  int[] find(int limit) {
+    long candidates = segment.size;
+    int plan = FULL_SCAN;
+    long dateCount =
+        segment.dates.starts[toDate] - segment.dates.starts[Math.min(fromDate, toDate)];
+    if (dateCount < candidates) {
+      candidates = dateCount;
+      plan = DATE_RANGE;
+    }
+    long topicCount = count(segment.topics, topicRanks);
+    if (topicCount < candidates) {
+      candidates = topicCount;
+      plan = TOPICS;
+    }
+    long organizerCount = count(segment.organizers, organizerRanks);
+    if (organizerCount < candidates) {
+      candidates = organizerCount;
+      plan = ORGANIZERS;
+    }
+    // reading in order stops after about limit / selectivity events
+    long scope = keyCount == 0 ? segment.size : scope(keys[0]);
+    long ordered = Math.min(scope, limit * scope / Math.max(candidates, 1));
+    return candidates < ordered ? readCandidates(plan, limit) : readInOrder(limit);
+  }
+
+  private int[] readCandidates(int plan, int limit) {
+    TopSlots top = new TopSlots(limit);
+    switch (plan) {
+      case DATE_RANGE:
+        readGroups(segment.dates, fromDate, toDate, top);
+        break;
+      case TOPICS:
+        readGroups(segment.topics, topicRanks, top);
+        break;
+      case ORGANIZERS:
+        readGroups(segment.organizers, organizerRanks, top);
+        break;
+      default:
+        for (int slot = 0; slot < segment.size; slot++) {
+          offer(slot, top);
+        }
+    }
+    return top.sorted();
+  }
+
+  private void readGroups(EventColumn column, int from, int to, TopSlots top) {
+    if (from < to) {
+      for (int i = column.starts[from]; i < column.starts[to]; i++) {
+        offer(column.order[i], top);
+      }
+    }
+  }
+
+  private void readGroups(EventColumn column, BitSet ranks, TopSlots top) {
+    for (int rank = ranks.nextSetBit(0); rank >= 0; rank = ranks.nextSetBit(rank + 1)) {
+      readGroups(column, rank, rank + 1, top);
+    }
+  }
+
+  private void offer(int slot, TopSlots top) {
+    if (matches(slot) && isAfter(slot)) {
+      top.offer(slot);
+    }
+  }
+
+  private int[] readInOrder(int limit) {
+    int[] found = new int[limit];
+    int count = 0;
+    if (keyCount == 0) {
+      int start = isNull(after) ? 0 : insertionPoint(segment.slot(after.getId()));
+      if (!isNull(after) && start < segment.size && segment.ids[start] == after.getId()) {
+        start++;
+      }
+      for (int slot = start; slot < segment.size && count < limit; slot++) {
+        if (matches(slot)) {
+          found[count++] = slot;
+        }
+      }
+      return Arrays.copyOf(found, count);
+    }
+    EventColumn first = keys[0];
+    boolean isAscending = ascending[0];
+    int low = first == segment.dates ? fromDate : 0;
+    int high = first == segment.dates ? toDate : first.groups;
+    BitSet groups = groupsOf(first);
+    int group = isAscending ? low : high - 1;
+    if (!isNull(after)) {
+      int cursorKey = cursorKeys[0];
+      group =
+          isAscending
+              ? Math.max(group, (cursorKey + 1) / 2)
+              : Math.min(group, Math.floorDiv(cursorKey, 2));
+    }
+    while (count < limit) {
+      if (!isNull(groups) && group >= 0) {
+        group = isAscending ? groups.nextSetBit(group) : groups.previousSetBit(group);
+      }
+      if (group < low || group >= high) {
+        break;
+      }
+      if (keyCount == 1) {
+        // slots of a group are in id order, which is the only remaining key
+        for (int i = first.starts[group]; i < first.starts[group + 1] && count < limit; i++) {
+          int slot = first.order[i];
+          if (matches(slot) && isAfter(slot)) {
+            found[count++] = slot;
+          }
+        }
+      } else {
+        TopSlots top = new TopSlots(limit - count);
+        readGroups(first, group, group + 1, top);
+        for (int slot : top.sorted()) {
+          found[count++] = slot;
+        }
+      }
+      group += isAscending ? 1 : -1;
+    }
+    return Arrays.copyOf(found, count);
+  }
+
+  private boolean matches(int slot) {
+    int shadowed = shadowedAt[slot];
+    if (shadowed != 0 && shadowed <= generation) {
+      return false;
+    }
+    int date = segment.dates.ranks[slot];
+    return date >= fromDate
+        && date < toDate
+        && matches(segment.topics.ranks[slot], topicRanks, topicPart, segment.topicDictionary)
+        && matches(
+            segment.organizers.ranks[slot],
+            organizerRanks,
+            organizerPart,
+            segment.organizerDictionary);
+  }
+
+  private static boolean matches(
+      int rank, BitSet ranks, String part, EventDictionary dictionary) {
+    if (!isNull(ranks)) {
+      return ranks.get(rank);
+    }
+    if (isNull(part)) {
+      return true;
+    }
+    String value = dictionary.get(rank);
+    return !isNull(value) && value.contains(part);
+  }
+
+  /** Tells if the slot comes after the cursor, with ranks doubled to compare to cursor keys. */
+  private boolean isAfter(int slot) {
+    if (isNull(after)) {
+      return true;
+    }
+    for (int k = 0; k < keyCount; k++) {
+      int compared = Integer.compare(2 * keys[k].ranks[slot], cursorKeys[k]);
+      if (compared != 0) {
+        return ascending[k] ? compared > 0 : compared < 0;
+      }
+    }
+    return segment.ids[slot] > after.getId();
+  }
+
+  private int compare(int left, int right) {
+    for (int k = 0; k < keyCount; k++) {
+      int[] ranks = keys[k].ranks;
+      int compared = Integer.compare(ranks[left], ranks[right]);
+      if (compared != 0) {
+        return ascending[k] ? compared : -compared;
+      }
+    }
+    return Integer.compare(left, right);
+  }
+
+  private void addKey(EventColumn column, String direction, int cursorKey) {
+    keys[keyCount] = column;
+    ascending[keyCount] = ASCENDING_SORTING.equals(direction);
+    cursorKeys[keyCount++] = cursorKey;
+  }
+
+  /** Groups of the column a text filter allows, null if it allows all. */
+  private BitSet groupsOf(EventColumn column) {
+    if (column == segment.topics) {
+      return topicRanks;
+    }
+    return column == segment.organizers ? organizerRanks : null;
+  }
+
+  /** Count of events read in the order of the column, which may be limited by a filter. */
+  private long scope(EventColumn column) {
+    if (column == segment.dates) {
+      return segment.dates.starts[toDate] - segment.dates.starts[Math.min(fromDate, toDate)];
+    }
+    return count(column, groupsOf(column));
+  }
+
+  private long count(EventColumn column, BitSet ranks) {
+    if (isNull(ranks)) {
+      return segment.size;
+    }
+    long count = 0;
+    for (int rank = ranks.nextSetBit(0); rank >= 0; rank = ranks.nextSetBit(rank + 1)) {
+      count += column.groupSize(rank);
+    }
+    return count;
+  }
+
+  private int dateKey() {
+    if (isNull(after.getDate())) {
+      return 2 * segment.dateValues.length;
+    }
+    return between(Arrays.binarySearch(segment.dateValues, EventSegment.toMicros(after.getDate())));
+  }
+
+  private int firstDateNotBefore(long micros) {
+    return insertionPoint(Arrays.binarySearch(segment.dateValues, micros));
+  }
+
+  /**
+   * Turns a binary search result into a doubled rank: 2r for a value of rank r, and 2i - 1 for a
+   * value the segment doesn't have, which falls in between the ranks i - 1 and i.
+   */
+  private static int between(int searchResult) {
+    return searchResult >= 0 ? 2 * searchResult : 2 * insertionPoint(searchResult) - 1;
+  }
+
+  private static int insertionPoint(int searchResult) {
+    return searchResult >= 0 ? searchResult : -searchResult - 1;
+  }
+
+  private static boolean hasText(String value) {
+    return value != null && !value.isEmpty();
+  }
+
+  /** Keeps the first {@code capacity} offered slots in a heap with the last of them on top. */
+  private final class TopSlots {
+
+    private final int[] heap;
+    private int size;
+
+    private TopSlots(int capacity) {
+      heap = new int[capacity];
+    }
+
+    void offer(int slot) {
+      if (size < heap.length) {
+        heap[size] = slot;
+        siftUp(size++);
+      } else if (size > 0 && compare(slot, heap[0]) < 0) {
+        heap[0] = slot;
+        siftDown(0);
+      }
+    }
+
+    int[] sorted() {
+      int[] sorted = new int[size];
+      for (int i = size - 1; i >= 0; i--) {
+        sorted[i] = heap[0];
+        heap[0] = heap[--size];
+        siftDown(0);
+      }
+      return sorted;
+    }
+
+    private void siftUp(int index) {
+      while (index > 0) {
+        int parent = (index - 1) / 2;
+        if (compare(heap[index], heap[parent]) <= 0) {
+          return;
+        }
+        swap(index, parent);
+        index = parent;
+      }
+    }
+
+    private void siftDown(int index) {
+      while (true) {
+        int largest = index;
+        for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+          if (compare(heap[child], heap[largest]) > 0) {
+            largest = child;
+          }
+        }
+        if (largest == index) {
+          return;
+        }
+        swap(index, largest);
+        index = largest;
+      }
+    }
+
+    private void swap(int left, int right) {
+      int slot = heap[left];
+      heap[left] = heap[right];
+      heap[right] = slot;
+    }
+  }
+}
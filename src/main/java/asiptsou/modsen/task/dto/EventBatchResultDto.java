@@ -0,0 +1,26 @@
+package asiptsou.modsen.task.dto;
+
+import asiptsou.modsen.task.model.EventBatchStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventBatchResultDto {
+
+  private int index;
+
+  private Long id;
+
+  private EventBatchStatus status;
+
+  private Map<String, String> errors;
+}
@@ -0,0 +1,23 @@
+package asiptsou.modsen.task.dto;
+
+import asiptsou.modsen.task.model.EventChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventChangeDto {
+
+  private EventChangeType type;
+
+  private long id;
+
+  /** Current state of the event, which may already include later changes. Null if deleted. */
+  private EventDto event;
+}
@@ -0,0 +1,22 @@
+package asiptsou.modsen.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventChangePageDto {
+
+  private List<EventChangeDto> changes;
+
+  /** Token to pass as since to get the changes after these, also when there were none. */
+  private String next;
+}
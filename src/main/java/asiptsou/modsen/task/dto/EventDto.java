@@ -1,8 +1,12 @@
 package asiptsou.modsen.task.dto;
 
 import asiptsou.modsen.task.service.LocalDateTimeDeserializer;
-import com.fasterxml.jackson.annotation.JsonFormat;
+import asiptsou.modsen.task.service.LocalDateTimeSerializer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,7 +23,8 @@ import java.time.LocalDateTime;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @NoArgsConstructor
 @AllArgsConstructor
 public class EventDto {
@@ -42,13 +47,19 @@ public class EventDto {
 
   @JsonDeserialize(using = LocalDateTimeDeserializer.class)
   @NotNull(message = "Date is mandatory field. Please use next pattern for date dd-MM-yyyy HH:mm")
-  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "dd-MM-yyyy HH:mm")
+  @JsonSerialize(using = LocalDateTimeSerializer.class)
+  @Schema(type = "string", example = "15-06-2025 22:49")
   private LocalDateTime date;
 
   @NotBlank(message = "Can't be null")
   @Size(min = 5, max = 50, message = "Location length should be between 5 and 50 characters")
   private String location;
 
+  /** Relevance to the full text query the event was read by, kept for the cursor only. */
+  @JsonIgnore
+  @Schema(hidden = true)
+  private Float rank;
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -0,0 +1,69 @@
+package asiptsou.modsen.task.dto;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Fields of {@link EventDto} that list requests can select, e.g. {@code fields=topic,date}. Each
+ * field is selected from the {@code Event} attribute of the same name.
+ */
+public enum EventField {
+  ID((eventDto, value) -> eventDto.setId((Long) value)),
+  VERSION((eventDto, value) -> eventDto.setVersion((Long) value)),
+  TOPIC((eventDto, value) -> eventDto.setTopic((String) value)),
+  DESCRIPTION((eventDto, value) -> eventDto.setDescription((String) value)),
+  ORGANIZER((eventDto, value) -> eventDto.setOrganizer((String) value)),
+  DATE((eventDto, value) -> eventDto.setDate((LocalDateTime) value)),
+  LOCATION((eventDto, value) -> eventDto.setLocation((String) value));
+
+  private static final String FIELD_ERROR = "Field {%s} is unknown, use some of %s";
+
+  private final String attribute = name().toLowerCase();
+  private final BiConsumer<EventDto, Object> setter;
+
+  EventField(BiConsumer<EventDto, Object> setter) {
+    this.setter = setter;
+  }
+
+  public String getAttribute() {
+    return attribute;
+  }
+
+  public void set(EventDto eventDto, Object value) {
+    setter.accept(eventDto, value);
+  }
+
+  /**
+   * Reads comma separated field names. Null or blank means all fields, unknown names are rejected
+   * with {@link IllegalArgumentException}.
+   */
+  public static Set<EventField> parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return EnumSet.allOf(EventField.class);
+    }
+    Set<EventField> parsed = EnumSet.noneOf(EventField.class);
+    for (String name : fields.split(",")) {
+      parsed.add(of(name.trim()));
+    }
+    return parsed;
+  }
+
+  private static EventField of(String name) {
+    for (EventField field : values()) {
+      if (field.attribute.equals(name)) {
+        return field;
+      }
+    }
+    throw new IllegalArgumentException(
+        format(
+            FIELD_ERROR,
+            name,
+            Stream.of(values()).map(EventField::getAttribute).collect(Collectors.joining(","))));
+  }
+}
@@ -0,0 +1,34 @@
+package asiptsou.modsen.task.dto;
+
+import asiptsou.modsen.task.model.EventImportFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventImportDto {
+
+  private String file;
+
+  private EventImportFormat format;
+
+  private String status;
+
+  private long records;
+
+  private long imported;
+
+  private long skipped;
+
+  private String error;
+
+  private LocalDateTime updated;
+}
@@ -0,0 +1,21 @@
+package asiptsou.modsen.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventPageDto {
+
+  private List<EventDto> events;
+
+  private String next;
+}
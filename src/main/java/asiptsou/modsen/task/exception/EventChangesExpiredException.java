@@ -0,0 +1,12 @@
+package asiptsou.modsen.task.exception;
+
+/**
+ * Changes after the given token were deleted by the retention of the change log, so following it
+ * would miss them. The client has to read all events again and follow the changes from the head.
+ */
+public class EventChangesExpiredException extends IllegalArgumentException {
+
+  public EventChangesExpiredException(String message) {
+    super(message);
+  }
+}
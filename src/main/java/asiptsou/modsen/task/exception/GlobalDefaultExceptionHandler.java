@@ -1,9 +1,12 @@
 package asiptsou.modsen.task.exception;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -12,18 +15,26 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.sql.SQLTransientConnectionException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.GONE;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 @RestControllerAdvice
+@Profile("!" + REACTIVE_PROFILE)
 public class GlobalDefaultExceptionHandler extends ResponseEntityExceptionHandler {
 
   public static final String PATH = "path";
   public static final String STATUS = "status";
+  public static final String POOL_EXHAUSTED_ERROR = "Database is busy, retry the request later";
+  public static final String RETRY_AFTER_SECONDS = "1";
 
   @Override
   @NonNull
@@ -57,6 +68,34 @@ public class GlobalDefaultExceptionHandler extends ResponseEntityExceptionHandle
     return ResponseEntity.status(NOT_FOUND).body(exception.getMessage());
   }
 
+  @ResponseStatus(CONFLICT)
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<String> handleConflictException(
+      OptimisticLockingFailureException exception) {
+    return ResponseEntity.status(CONFLICT).body(exception.getMessage());
+  }
+
+  /**
+   * No connection got free within the pool connection timeout. The pool is what limits concurrent
+   * requests, so the client is asked to retry instead of getting an internal error. With read
+   * replicas connections are taken on the first statement instead of on begin, so the timeout of
+   * the pool comes wrapped in a data access or Hibernate exception and is matched as its cause.
+   */
+  @ResponseStatus(SERVICE_UNAVAILABLE)
+  @ExceptionHandler({CannotCreateTransactionException.class, SQLTransientConnectionException.class})
+  public ResponseEntity<String> handleConnectionPoolTimeout(Exception exception) {
+    return ResponseEntity.status(SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+        .body(POOL_EXHAUSTED_ERROR);
+  }
+
+  @ResponseStatus(GONE)
+  @ExceptionHandler(EventChangesExpiredException.class)
+  public ResponseEntity<String> handleChangesExpiredException(
+      EventChangesExpiredException exception) {
+    return ResponseEntity.status(GONE).body(exception.getMessage());
+  }
+
   @ResponseStatus(BAD_REQUEST)
   @ExceptionHandler(IllegalArgumentException.class)
   public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException exception) {
@@ -0,0 +1,54 @@
+package asiptsou.modsen.task.exception;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static asiptsou.modsen.task.exception.GlobalDefaultExceptionHandler.PATH;
+import static asiptsou.modsen.task.exception.GlobalDefaultExceptionHandler.STATUS;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/** Same responses as {@link GlobalDefaultExceptionHandler} for the reactive profile. */
+@RestControllerAdvice
+@Profile(REACTIVE_PROFILE)
+public class ReactiveExceptionHandler {
+
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<Map<String, String>> handleBindException(
+      WebExchangeBindException exception, ServerWebExchange exchange) {
+    Map<String, String> errors = new LinkedHashMap<>();
+    errors.put(PATH, "uri=" + exchange.getRequest().getPath());
+    errors.put(STATUS, BAD_REQUEST.getReasonPhrase());
+    exception
+        .getFieldErrors()
+        .forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+    return ResponseEntity.status(BAD_REQUEST).body(errors);
+  }
+
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<String> handleNotFoundException(NoSuchElementException exception) {
+    return ResponseEntity.status(NOT_FOUND).body(exception.getMessage());
+  }
+
+  @ExceptionHandler(OptimisticLockingFailureException.class)
+  public ResponseEntity<String> handleConflictException(
+      OptimisticLockingFailureException exception) {
+    return ResponseEntity.status(CONFLICT).body(exception.getMessage());
+  }
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException exception) {
+    return ResponseEntity.status(BAD_REQUEST).body(exception.getMessage());
+  }
+}
@@ -4,10 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -21,6 +24,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "EVENT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -29,12 +34,15 @@ public class Event implements Serializable {
 
   private static final long serialVersionUID = 7143289884507285773L;
 
+  /** Ids are taken from event_id_sequence in blocks of this size, see the pooled-lo optimizer. */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_id_generator")
   @SequenceGenerator(
       name = "event_id_generator",
       sequenceName = "event_id_sequence",
-      allocationSize = 3)
+      allocationSize = ID_ALLOCATION_SIZE)
   @Column(name = "ID")
   private Long id;
 
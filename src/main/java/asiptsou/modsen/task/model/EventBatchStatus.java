@@ -0,0 +1,11 @@
+package asiptsou.modsen.task.model;
+
+/** Outcome of one event of a batch save. */
+public enum EventBatchStatus {
+
+  /** The event was valid and saved, its id is returned. */
+  CREATED,
+
+  /** The event failed validation and wasn't saved, its errors are returned by field. */
+  INVALID
+}
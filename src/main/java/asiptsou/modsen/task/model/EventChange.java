@@ -0,0 +1,18 @@
+package asiptsou.modsen.task.model;
+
+import asiptsou.modsen.task.dto.EventDto;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/** Row of the change log with the current state of the event, null once it was deleted. */
+@Getter
+@Builder
+@AllArgsConstructor
+public class EventChange {
+
+  private final EventChangePosition position;
+  private final EventChangeType type;
+  private final long eventId;
+  private final EventDto event;
+}
@@ -0,0 +1,25 @@
+package asiptsou.modsen.task.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Position in the change log: id of the writing transaction and order of the change within the
+ * log. Changes are read in the order of both, and only of transactions older than every running
+ * one, so a position is never passed by a change committed later.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class EventChangePosition {
+
+  public static final EventChangePosition START = new EventChangePosition(0, 0);
+
+  private final long xid;
+  private final long seq;
+
+  public boolean isBefore(EventChangePosition other) {
+    return xid < other.xid || xid == other.xid && seq < other.seq;
+  }
+}
@@ -0,0 +1,7 @@
+package asiptsou.modsen.task.model;
+
+public enum EventChangeType {
+  CREATED,
+  UPDATED,
+  DELETED
+}
@@ -0,0 +1,26 @@
+package asiptsou.modsen.task.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of the last event of a page. Holds the values of all sort keys of that event plus its
+ * id as a tie-breaker, and the sorting the page was requested with, so a cursor can't be reused
+ * with another order. With full text search the relevance of the event is one of the sort keys,
+ * so the next page doesn't depend on the event still being there.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class EventCursor {
+
+  private final String sorting;
+  private final long id;
+  private final String topic;
+  private final String organizer;
+  private final LocalDateTime date;
+  private final Float rank;
+}
@@ -4,11 +4,16 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.StringJoiner;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 public class EventFilter {
 
+  public static final String ASCENDING_SORTING = "asc";
+  public static final String DESCENDING_SORTING = "desc";
+  public static final String RELEVANCE_SORTING = "relevance:" + DESCENDING_SORTING;
+
   private String topic;
   private boolean isSortTopic;
   private String topicSortDirection;
@@ -19,4 +24,82 @@ public class EventFilter {
   private LocalDateTime toDate;
   private boolean isSortDate;
   private String dateSortDirection;
+  private String q;
+  private String cursor;
+  private int limit;
+  private String fields;
+
+  /**
+   * Describes the active sort keys in the order they are applied, e.g. "topic:asc,date:desc".
+   * Full text search always sorts by relevance first. Empty string means the events are ordered by
+   * id only.
+   */
+  public String sorting() {
+    StringJoiner sorting = new StringJoiner(",");
+    if (isFullTextSearch()) {
+      sorting.add(RELEVANCE_SORTING);
+    }
+    appendSorting(sorting, "topic", isSortTopic, topicSortDirection);
+    appendSorting(sorting, "organizer", isSortOrganizer, organizerSortDirection);
+    appendSorting(sorting, "date", isSortDate, dateSortDirection);
+    return sorting.toString();
+  }
+
+  /**
+   * Describes which filter conditions are active, e.g. "organizer+from+q", or "none". Together
+   * with {@link #sorting()} it tells filter combinations apart without exposing the values.
+   */
+  public String shape() {
+    StringJoiner shape = new StringJoiner("+");
+    shape.setEmptyValue("none");
+    appendShape(shape, "topic", topic != null && !topic.isEmpty());
+    appendShape(shape, "organizer", organizer != null && !organizer.isEmpty());
+    appendShape(shape, "from", fromDate != null);
+    appendShape(shape, "to", toDate != null);
+    appendShape(shape, "q", isFullTextSearch());
+    return shape.toString();
+  }
+
+  /**
+   * Returns a copy asking for the same events the same way, with empty conditions and inactive sort
+   * keys cleared, so filters that differ only in those are equal.
+   */
+  public EventFilter normalized() {
+    boolean sortTopic = isActiveSorting(isSortTopic, topicSortDirection);
+    boolean sortOrganizer = isActiveSorting(isSortOrganizer, organizerSortDirection);
+    boolean sortDate = isActiveSorting(isSortDate, dateSortDirection);
+    return toBuilder()
+        .topic(topic == null || topic.isEmpty() ? null : topic)
+        .organizer(organizer == null || organizer.isEmpty() ? null : organizer)
+        .q(isFullTextSearch() ? q : null)
+        .isSortTopic(sortTopic)
+        .topicSortDirection(sortTopic ? topicSortDirection : null)
+        .isSortOrganizer(sortOrganizer)
+        .organizerSortDirection(sortOrganizer ? organizerSortDirection : null)
+        .isSortDate(sortDate)
+        .dateSortDirection(sortDate ? dateSortDirection : null)
+        .build();
+  }
+
+  public boolean isFullTextSearch() {
+    return q != null && !q.isBlank();
+  }
+
+  public static boolean isActiveSorting(boolean isSort, String direction) {
+    return isSort
+        && (ASCENDING_SORTING.equals(direction) || DESCENDING_SORTING.equals(direction));
+  }
+
+  private static void appendShape(StringJoiner shape, String condition, boolean isActive) {
+    if (isActive) {
+      shape.add(condition);
+    }
+  }
+
+  private static void appendSorting(
+      StringJoiner sorting, String field, boolean isSort, String direction) {
+    if (isActiveSorting(isSort, direction)) {
+      sorting.add(field + ":" + direction);
+    }
+  }
 }
@@ -0,0 +1,67 @@
+package asiptsou.modsen.task.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the import of one file. It is updated in the same transaction as every imported
+ * chunk, so {@code records} always tells exactly how many records of the file are already in the
+ * database and the import can be resumed right after them.
+ */
+@Entity
+@Table(name = "EVENT_IMPORT")
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+public class EventImport {
+
+  public static final String QUEUED = "QUEUED";
+  public static final String RUNNING = "RUNNING";
+  public static final String COMPLETED = "COMPLETED";
+  public static final String FAILED = "FAILED";
+
+  @Id
+  @Column(name = "FILE")
+  private String file;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "FORMAT")
+  private EventImportFormat format;
+
+  @Column(name = "STATUS")
+  private String status;
+
+  /** Records read from the file, both imported and skipped. */
+  @Column(name = "RECORDS")
+  private long records;
+
+  @Column(name = "IMPORTED")
+  private long imported;
+
+  @Column(name = "SKIPPED")
+  private long skipped;
+
+  @Column(name = "ERROR")
+  private String error;
+
+  @Column(name = "UPDATED")
+  private LocalDateTime updated;
+
+  @Version
+  @Column(name = "VERSION")
+  private Long version;
+}
@@ -0,0 +1,11 @@
+package asiptsou.modsen.task.model;
+
+/** Formats of event files that can be imported. */
+public enum EventImportFormat {
+
+  /** Comma separated values with a header row naming the event fields. */
+  CSV,
+
+  /** Newline delimited JSON, one event object per line, as written by the export. */
+  NDJSON
+}
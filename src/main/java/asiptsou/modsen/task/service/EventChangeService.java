@@ -0,0 +1,25 @@
+package asiptsou.modsen.task.service;
+
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.exception.EventChangesExpiredException;
+
+import java.time.Duration;
+
+public interface EventChangeService {
+
+  /**
+   * Returns events changed after the {@code since} token, or from the start of the change log when
+   * it is null, each once with its last change and current state, up to {@code limit} changes.
+   * Throws {@link EventChangesExpiredException} if changes after the token were deleted already.
+   */
+  EventChangePageDto getChanges(String since, int limit);
+
+  /** Returns token of the latest change, or null while the change log is empty. */
+  String getHead();
+
+  /**
+   * Deletes up to {@code limit} of the oldest changes logged more than {@code age} ago, returns
+   * count of deleted ones.
+   */
+  int deleteChangesOlderThan(Duration age, int limit);
+}
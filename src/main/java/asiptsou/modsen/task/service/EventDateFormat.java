@@ -0,0 +1,118 @@
+package asiptsou.modsen.task.service;
+
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses and formats event dates in the dd-MM-yyyy HH:mm pattern. Dates of four digit years are
+ * read and written in place on char arrays, without the intermediate Strings and parse state of
+ * {@link DateTimeFormatter}. Everything else, e.g. five digit years or 31-04, falls back to the
+ * formatter, so results are the same as of the pattern.
+ */
+public final class EventDateFormat {
+
+  public static final String PATTERN = "dd-MM-yyyy HH:mm";
+  public static final int LENGTH = PATTERN.length();
+  /** Length of the latest dates, years after 9999 are written with a sign and up to 9 digits. */
+  public static final int MAX_LENGTH = LENGTH + 6;
+
+  private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern(PATTERN);
+  private static final int MAX_YEAR = 9999;
+
+  private EventDateFormat() {}
+
+  /** Returns the date of the chars, or null if they don't match the pattern. */
+  public static LocalDateTime parse(char[] chars, int offset, int length) {
+    LocalDateTime date = parseFixedWidth(chars, offset, length);
+    return date != null ? date : parseWithFormatter(new String(chars, offset, length));
+  }
+
+  /** Returns the date of the text, or null if it doesn't match the pattern. */
+  public static LocalDateTime parse(String text) {
+    LocalDateTime date =
+        text.length() == LENGTH ? parseFixedWidth(text.toCharArray(), 0, LENGTH) : null;
+    return date != null ? date : parseWithFormatter(text);
+  }
+
+  /**
+   * Writes the date into {@code chars} from {@code offset}, which must have room for {@link
+   * #MAX_LENGTH} chars, and returns count of written chars, {@link #LENGTH} for years 1 to 9999.
+   */
+  public static int format(LocalDateTime date, char[] chars, int offset) {
+    int year = date.getYear();
+    if (year < 1 || year > MAX_YEAR) {
+      String text = FORMATTER.format(date);
+      text.getChars(0, text.length(), chars, offset);
+      return text.length();
+    }
+    write(date.getDayOfMonth(), chars, offset, 2);
+    chars[offset + 2] = '-';
+    write(date.getMonthValue(), chars, offset + 3, 2);
+    chars[offset + 5] = '-';
+    write(year, chars, offset + 6, 4);
+    chars[offset + 10] = ' ';
+    write(date.getHour(), chars, offset + 11, 2);
+    chars[offset + 13] = ':';
+    write(date.getMinute(), chars, offset + 14, 2);
+    return LENGTH;
+  }
+
+  public static String format(LocalDateTime date) {
+    char[] chars = new char[MAX_LENGTH];
+    return new String(chars, 0, format(date, chars, 0));
+  }
+
+  private static LocalDateTime parseFixedWidth(char[] chars, int offset, int length) {
+    if (length != LENGTH
+        || chars[offset + 2] != '-'
+        || chars[offset + 5] != '-'
+        || chars[offset + 10] != ' '
+        || chars[offset + 13] != ':') {
+      return null;
+    }
+    int day = digits(chars, offset, 2);
+    int month = digits(chars, offset + 3, 2);
+    int year = digits(chars, offset + 6, 4);
+    int hour = digits(chars, offset + 11, 2);
+    int minute = digits(chars, offset + 14, 2);
+    if ((day | month | year | hour | minute) < 0 || year == 0 || hour > 23) {
+      return null;
+    }
+    try {
+      return LocalDateTime.of(year, month, day, hour, minute);
+    } catch (DateTimeException exception) {
+      // e.g. 31-04, which the formatter resolves to the last day of the month
+      return null;
+    }
+  }
+
+  private static LocalDateTime parseWithFormatter(String text) {
+    try {
+      return LocalDateTime.parse(text, FORMATTER);
+    } catch (DateTimeParseException exception) {
+      return null;
+    }
+  }
+
+  /** Returns the value of {@code count} decimal digits, or -1 if any of the chars isn't a digit. */
+  private static int digits(char[] chars, int offset, int count) {
+    int value = 0;
+    for (int i = offset; i < offset + count; i++) {
+      int digit = chars[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  private static void write(int value, char[] chars, int offset, int count) {
+    for (int i = offset + count - 1; i >= offset; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+  }
+}
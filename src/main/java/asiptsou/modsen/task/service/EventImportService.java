@@ -0,0 +1,15 @@
+package asiptsou.modsen.task.service;
+
+import asiptsou.modsen.task.dto.EventImportDto;
+import asiptsou.modsen.task.model.EventImportFormat;
+
+public interface EventImportService {
+
+  /**
+   * Queues the import of the file from the import directory and returns at once. An import that
+   * was interrupted or failed before is resumed right after its last imported chunk.
+   */
+  EventImportDto start(String file, EventImportFormat format);
+
+  EventImportDto getByFile(String file);
+}
@@ -0,0 +1,26 @@
+package asiptsou.modsen.task.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface EventPartitionService {
+
+  /**
+   * Creates partitions of the current month and of the configured count of months ahead, so
+   * events of these months don't end up in the default partition. Returns count of created ones.
+   */
+  int createUpcomingPartitions();
+
+  /**
+   * Detaches partitions of months older than the retention, returns their names. Nothing is
+   * detached while the retention is 0.
+   */
+  List<String> detachExpiredPartitions();
+
+  /**
+   * Returns the first month kept by the retention, events dated before it are expired. Empty
+   * while the retention is 0.
+   */
+  Optional<LocalDate> getRetainedFrom();
+}
@@ -1,9 +1,12 @@
 package asiptsou.modsen.task.service;
 
+import asiptsou.modsen.task.dto.EventBatchResultDto;
 import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
 import asiptsou.modsen.task.model.EventFilter;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface EventService {
 
@@ -11,9 +14,22 @@ public interface EventService {
 
   EventDto save(EventDto eventDto);
 
-  List<EventDto> getAll();
+  /**
+   * Saves the event unless an equal one was saved this way, then returns that one. Equal events
+   * have the same topic, description, organizer, date and location.
+   */
+  EventDto saveIfAbsent(EventDto eventDto);
 
-  List<EventDto> getListEventByFilter(EventFilter eventFilter);
+  List<EventBatchResultDto> saveAll(List<EventDto> eventDtos);
+
+  EventPageDto getAll(String cursor, int limit, String fields);
+
+  EventPageDto getListEventByFilter(EventFilter eventFilter);
+
+  void exportAll(Consumer<EventDto> action);
+
+  /** Tells whether the database orders topics and organizers by code point, as the index does. */
+  boolean isCollatedByCodePoint();
 
   int deleteById(long id);
 
@@ -7,9 +7,11 @@ import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 
+/**
+ * Reads dates in the {@link EventDateFormat} pattern straight from the text buffer of the parser,
+ * so no String is created for them. Dates that don't match the pattern are read as null.
+ */
 @Service
 public class LocalDateTimeDeserializer extends StdDeserializer<LocalDateTime> {
 
@@ -20,11 +22,7 @@ public class LocalDateTimeDeserializer extends StdDeserializer<LocalDateTime> {
   @Override
   public LocalDateTime deserialize(
       JsonParser jsonParser, DeserializationContext deserializationContext) throws IOException {
-    String date = jsonParser.getText();
-    try {
-      return LocalDateTime.parse(date, DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"));
-    } catch (DateTimeParseException exception) {
-      return null;
-    }
+    return EventDateFormat.parse(
+        jsonParser.getTextCharacters(), jsonParser.getTextOffset(), jsonParser.getTextLength());
   }
 }
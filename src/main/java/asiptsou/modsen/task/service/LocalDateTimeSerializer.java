@@ -0,0 +1,30 @@
+package asiptsou.modsen.task.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes dates in the {@link EventDateFormat} pattern through a per thread char buffer, which the
+ * generator copies into its own output buffer.
+ */
+public class LocalDateTimeSerializer extends StdSerializer<LocalDateTime> {
+
+  private static final ThreadLocal<char[]> BUFFER =
+      ThreadLocal.withInitial(() -> new char[EventDateFormat.MAX_LENGTH]);
+
+  public LocalDateTimeSerializer() {
+    super(LocalDateTime.class);
+  }
+
+  @Override
+  public void serialize(
+      LocalDateTime date, JsonGenerator jsonGenerator, SerializerProvider serializerProvider)
+      throws IOException {
+    char[] buffer = BUFFER.get();
+    jsonGenerator.writeString(buffer, 0, EventDateFormat.format(date, buffer, 0));
+  }
+}
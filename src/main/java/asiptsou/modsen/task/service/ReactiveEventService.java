@@ -0,0 +1,36 @@
+package asiptsou.modsen.task.service;
+
+import asiptsou.modsen.task.dto.EventBatchResultDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/** Non-blocking counterpart of {@link EventService} with the same checks and errors. */
+public interface ReactiveEventService {
+
+  Mono<EventDto> getById(long id);
+
+  Mono<EventDto> save(EventDto eventDto);
+
+  Mono<List<EventBatchResultDto>> saveAll(List<EventDto> eventDtos);
+
+  Mono<EventPageDto> getAll(String cursor, int limit, String fields);
+
+  Mono<EventPageDto> getListEventByFilter(EventFilter eventFilter);
+
+  /**
+   * Emits every event matching the filter from its cursor on, ignoring its limit, while they are
+   * read from the database.
+   */
+  Flux<EventDto> streamByFilter(EventFilter eventFilter);
+
+  Flux<EventDto> exportAll();
+
+  Mono<Integer> deleteById(long id);
+
+  Mono<Void> update(long id, EventDto eventDto);
+}
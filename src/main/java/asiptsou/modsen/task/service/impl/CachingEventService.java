@@ -0,0 +1,175 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.config.ReadReplicaRoutingDataSource;
+import asiptsou.modsen.task.dto.EventBatchResultDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventFilter;
+import asiptsou.modsen.task.service.EventService;
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Read-through cache of {@link EventService#getById} in front of the transactional {@link
+ * EventServiceImpl}, so a cache hit neither opens a transaction nor touches the database.
+ *
+ * <p>Writes invalidate the entry after their transaction has committed. A read that loaded the
+ * event before such invalidation could otherwise put the old version back, so every load takes an
+ * invalidation ticket of its id stripe first and its result is cached only if no invalidation of
+ * that stripe happened meanwhile. Loads read from the primary, never from a lagging replica.
+ * Cached versions therefore never go back behind a committed write.
+ *
+ * <p>Identical concurrent page queries are run once through the {@link EventQueryCoalescer}, to
+ * which writes report when they are done. With {@code deduplicate} saves don't insert events equal
+ * to one saved before, see {@link #saveIfAbsent}.
+ */
+@Service
+@Primary
+public class CachingEventService implements EventService {
+
+  private static final int INVALIDATION_STRIPES = 64;
+
+  private final EventService eventService;
+  private final Cache<Long, EventDto> eventByIdCache;
+  private final EventQueryCoalescer eventQueryCoalescer;
+  private final boolean deduplicate;
+  private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+  public CachingEventService(
+      EventServiceImpl eventService,
+      Cache<Long, EventDto> eventByIdCache,
+      EventQueryCoalescer eventQueryCoalescer,
+      @Value("${event.deduplication.enabled}") boolean deduplicate) {
+    this.eventService = eventService;
+    this.eventByIdCache = eventByIdCache;
+    this.eventQueryCoalescer = eventQueryCoalescer;
+    this.deduplicate = deduplicate;
+  }
+
+  @Override
+  public EventDto getById(long id) {
+    EventDto cached = eventByIdCache.getIfPresent(id);
+    if (cached != null) {
+      return cached.toBuilder().build();
+    }
+    int stripe = stripe(id);
+    long ticket = invalidations.get(stripe);
+    EventDto loaded = ReadReplicaRoutingDataSource.onPrimary(() -> eventService.getById(id));
+    EventDto toCache = loaded.toBuilder().build();
+    eventByIdCache
+        .asMap()
+        .compute(id, (key, current) -> invalidations.get(stripe) == ticket ? toCache : current);
+    return loaded;
+  }
+
+  @Override
+  public EventDto save(EventDto eventDto) {
+    if (deduplicate) {
+      return saveIfAbsent(eventDto);
+    }
+    EventDto saved = eventService.save(eventDto);
+    invalidate(saved.getId());
+    return saved;
+  }
+
+  @Override
+  public EventDto saveIfAbsent(EventDto eventDto) {
+    EventDto saved = eventService.saveIfAbsent(eventDto);
+    invalidate(saved.getId());
+    return saved;
+  }
+
+  @Override
+  public List<EventBatchResultDto> saveAll(List<EventDto> eventDtos) {
+    List<EventBatchResultDto> results = eventService.saveAll(eventDtos);
+    eventQueryCoalescer.written();
+    return results;
+  }
+
+  @Override
+  public EventPageDto getAll(String cursor, int limit, String fields) {
+    return eventQueryCoalescer.coalesce(
+        new AllEventsQuery(cursor, limit, fields),
+        () -> eventService.getAll(cursor, limit, fields));
+  }
+
+  @Override
+  public EventPageDto getListEventByFilter(EventFilter eventFilter) {
+    return eventQueryCoalescer.coalesce(
+        eventFilter.normalized(), () -> eventService.getListEventByFilter(eventFilter));
+  }
+
+  @Override
+  public void exportAll(Consumer<EventDto> action) {
+    eventService.exportAll(action);
+  }
+
+  @Override
+  public boolean isCollatedByCodePoint() {
+    return eventService.isCollatedByCodePoint();
+  }
+
+  @Override
+  public int deleteById(long id) {
+    try {
+      return eventService.deleteById(id);
+    } finally {
+      invalidate(id);
+    }
+  }
+
+  @Override
+  public void update(long id, EventDto eventDto) {
+    try {
+      eventService.update(id, eventDto);
+    } finally {
+      invalidate(id);
+    }
+  }
+
+  /**
+   * Invalidates cached events dated before {@code date}, which leave the database when their
+   * partition is detached, and loads in flight of all ids as in {@link #invalidate}.
+   */
+  public void invalidateBefore(LocalDateTime date) {
+    for (int stripe = 0; stripe < INVALIDATION_STRIPES; stripe++) {
+      invalidations.incrementAndGet(stripe);
+    }
+    eventByIdCache
+        .asMap()
+        .values()
+        .removeIf(event -> event.getDate() != null && event.getDate().isBefore(date));
+    eventQueryCoalescer.written();
+  }
+
+  /**
+   * Increments the ticket before removing, so loads in flight can't put the old entry back, and
+   * lets later page queries no longer join ones in flight.
+   */
+  private void invalidate(long id) {
+    invalidations.incrementAndGet(stripe(id));
+    eventByIdCache.invalidate(id);
+    eventQueryCoalescer.written();
+  }
+
+  private int stripe(long id) {
+    return (int) Math.floorMod(id, (long) INVALIDATION_STRIPES);
+  }
+
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static class AllEventsQuery {
+    private final String cursor;
+    private final int limit;
+    private final String fields;
+  }
+}
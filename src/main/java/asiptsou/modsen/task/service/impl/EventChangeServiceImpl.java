@@ -0,0 +1,83 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.converter.EventChangePositionConverter;
+import asiptsou.modsen.task.dao.EventChangeDao;
+import asiptsou.modsen.task.dto.EventChangeDto;
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.exception.EventChangesExpiredException;
+import asiptsou.modsen.task.model.EventChange;
+import asiptsou.modsen.task.model.EventChangePosition;
+import asiptsou.modsen.task.service.EventChangeService;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static asiptsou.modsen.task.service.impl.EventRules.checkLimit;
+import static java.util.Objects.isNull;
+
+@Service
+@AllArgsConstructor
+public class EventChangeServiceImpl implements EventChangeService {
+
+  public static final String CHANGES_EXPIRED_ERROR =
+      "Changes after the token were deleted by the retention, read all events again";
+
+  private final EventChangeDao eventChangeDao;
+  private final EventChangePositionConverter eventChangePositionConverter;
+
+  /**
+   * Several changes of one event within the page are merged into its last one, which carries the
+   * current state anyway, so the page holds every changed event once. The purge position is read
+   * after the changes, so if it is still not past the token, none after it was deleted before.
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public EventChangePageDto getChanges(String since, int limit) {
+    checkLimit(limit);
+    boolean fromStart = isNull(since) || since.isEmpty();
+    EventChangePosition after =
+        fromStart ? EventChangePosition.START : eventChangePositionConverter.fromToken(since);
+
+    List<EventChange> changes = eventChangeDao.getAfter(after, limit);
+    if (!fromStart && after.isBefore(eventChangeDao.getPurged())) {
+      throw new EventChangesExpiredException(CHANGES_EXPIRED_ERROR);
+    }
+    if (changes.isEmpty()) {
+      return EventChangePageDto.builder().changes(List.of()).next(since).build();
+    }
+    Map<Long, EventChangeDto> lastChanges = new LinkedHashMap<>();
+    for (EventChange change : changes) {
+      lastChanges.remove(change.getEventId());
+      lastChanges.put(
+          change.getEventId(),
+          EventChangeDto.builder()
+              .type(change.getType())
+              .id(change.getEventId())
+              .event(change.getEvent())
+              .build());
+    }
+    EventChangePosition last = changes.get(changes.size() - 1).getPosition();
+    return EventChangePageDto.builder()
+        .changes(new ArrayList<>(lastChanges.values()))
+        .next(eventChangePositionConverter.toToken(last))
+        .build();
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public String getHead() {
+    return eventChangeDao.getHead().map(eventChangePositionConverter::toToken).orElse(null);
+  }
+
+  @Override
+  @Transactional
+  public int deleteChangesOlderThan(Duration age, int limit) {
+    return eventChangeDao.deleteOlderThan(age, limit);
+  }
+}
@@ -0,0 +1,301 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.converter.EventConverter;
+import asiptsou.modsen.task.dao.EventImportDao;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventImportDto;
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventImport;
+import asiptsou.modsen.task.model.EventImportFormat;
+import asiptsou.modsen.task.service.EventImportService;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import static asiptsou.modsen.task.config.EventImportConfig.EVENT_IMPORT_EXECUTOR;
+import static asiptsou.modsen.task.model.EventImport.COMPLETED;
+import static asiptsou.modsen.task.model.EventImport.FAILED;
+import static asiptsou.modsen.task.model.EventImport.QUEUED;
+import static asiptsou.modsen.task.model.EventImport.RUNNING;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Imports event files chunk by chunk. Every chunk is streamed into the staging table with COPY,
+ * merged into EVENT and recorded in the {@link EventImport} checkpoint in one transaction, so
+ * memory use is bounded by the reader buffers and a stopped import loses at most one chunk of
+ * work. Records are parsed with the same rules as the API, invalid ones are counted and skipped.
+ */
+@Slf4j
+@Service
+public class EventImportServiceImpl implements EventImportService {
+
+  private static final String NO_SUCH_IMPORT_MESSAGE = "Import was not found for file ";
+  private static final String FILE_ERROR = "File {%s} was not found in the import directory";
+  private static final String RUNNING_ERROR = "Import of file {%s} is already running";
+  private static final String FORMAT_ERROR =
+      "File {%s} was imported as %s and can't be resumed as %s";
+  private static final int MAX_ERROR_LENGTH = 1024;
+
+  private final EventImportDao eventImportDao;
+  private final EventConverter eventConverter;
+  private final Validator validator;
+  private final ObjectReader ndjsonReader;
+  private final ObjectReader csvReader;
+  private final TransactionTemplate transactionTemplate;
+  private final Executor executor;
+  private final Path directory;
+  private final int chunkSize;
+  private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+  public EventImportServiceImpl(
+      EventImportDao eventImportDao,
+      EventConverter eventConverter,
+      Validator validator,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Qualifier(EVENT_IMPORT_EXECUTOR) Executor executor,
+      @Value("${event.import.directory}") String directory,
+      @Value("${event.import.chunk-size}") int chunkSize) {
+    this.eventImportDao = eventImportDao;
+    this.eventConverter = eventConverter;
+    this.validator = validator;
+    this.ndjsonReader = objectMapper.readerFor(EventDto.class);
+    this.csvReader =
+        CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build()
+            .readerFor(EventDto.class)
+            .with(CsvSchema.emptySchema().withHeader());
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.executor = executor;
+    this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    this.chunkSize = chunkSize;
+  }
+
+  @Override
+  public EventImportDto start(String file, EventImportFormat format) {
+    Path path = resolve(file);
+    if (!running.add(file)) {
+      throw new IllegalArgumentException(format(RUNNING_ERROR, file));
+    }
+    boolean queued = false;
+    try {
+      EventImport eventImport = transactionTemplate.execute(status -> queue(file, format));
+      if (!COMPLETED.equals(eventImport.getStatus())) {
+        executor.execute(() -> run(path, file));
+        queued = true;
+      }
+      return toDto(eventImport);
+    } finally {
+      if (!queued) {
+        running.remove(file);
+      }
+    }
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public EventImportDto getByFile(String file) {
+    return eventImportDao
+        .getByFile(file)
+        .map(this::toDto)
+        .orElseThrow(() -> new NoSuchElementException(NO_SUCH_IMPORT_MESSAGE + file));
+  }
+
+  private EventImport queue(String file, EventImportFormat format) {
+    EventImport eventImport =
+        eventImportDao
+            .getByFile(file)
+            .orElseGet(() -> EventImport.builder().file(file).format(format).build());
+    if (eventImport.getFormat() != format) {
+      throw new IllegalArgumentException(
+          format(FORMAT_ERROR, file, eventImport.getFormat(), format));
+    }
+    if (!COMPLETED.equals(eventImport.getStatus())) {
+      eventImport.setStatus(QUEUED);
+      eventImport.setError(null);
+      eventImport.setUpdated(LocalDateTime.now());
+      eventImportDao.save(eventImport);
+    }
+    return eventImport;
+  }
+
+  private void run(Path path, String file) {
+    try {
+      EventImport eventImport = transactionTemplate.execute(status -> update(file, RUNNING, null));
+      long resumedAt = eventImport.getRecords();
+      long startedAt = System.nanoTime();
+      try (Reader reader = Files.newBufferedReader(path, UTF_8);
+          MappingIterator<EventDto> records =
+              readerFor(eventImport.getFormat()).readValues(reader)) {
+        skip(records, resumedAt);
+        while (records.hasNextValue()) {
+          if (Thread.currentThread().isInterrupted()) {
+            log.info("Import of {} was stopped after {} records", file, eventImport.getRecords());
+            return;
+          }
+          eventImport = transactionTemplate.execute(status -> importChunk(file, records));
+          long seconds = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000_000);
+          log.info(
+              "Import of {}: {} records read, {} imported, {} skipped, {} records/s",
+              file,
+              eventImport.getRecords(),
+              eventImport.getImported(),
+              eventImport.getSkipped(),
+              (eventImport.getRecords() - resumedAt) / seconds);
+        }
+      }
+      transactionTemplate.executeWithoutResult(status -> update(file, COMPLETED, null));
+    } catch (Exception exception) {
+      log.error("Import of {} failed", file, exception);
+      String error = StringUtils.abbreviate(exception.toString(), MAX_ERROR_LENGTH);
+      transactionTemplate.executeWithoutResult(status -> update(file, FAILED, error));
+    } finally {
+      running.remove(file);
+    }
+  }
+
+  private EventImport importChunk(String file, MappingIterator<EventDto> records) {
+    EventImport eventImport = getCheckpoint(file);
+    Chunk chunk = new Chunk(records);
+    long copied = eventImportDao.copyToStaging(chunk);
+    eventImportDao.mergeStaged(copied);
+    eventImport.setRecords(eventImport.getRecords() + chunk.read);
+    eventImport.setImported(eventImport.getImported() + copied);
+    eventImport.setSkipped(eventImport.getSkipped() + chunk.skipped);
+    eventImport.setUpdated(LocalDateTime.now());
+    eventImportDao.save(eventImport);
+    return eventImport;
+  }
+
+  private EventImport update(String file, String status, String error) {
+    EventImport eventImport = getCheckpoint(file);
+    eventImport.setStatus(status);
+    eventImport.setError(error);
+    eventImport.setUpdated(LocalDateTime.now());
+    eventImportDao.save(eventImport);
+    return eventImport;
+  }
+
+  private EventImport getCheckpoint(String file) {
+    return eventImportDao
+        .getByFile(file)
+        .orElseThrow(() -> new NoSuchElementException(NO_SUCH_IMPORT_MESSAGE + file));
+  }
+
+  /** Reads past the records of the previous runs, so they are neither imported nor counted twice. */
+  private void skip(MappingIterator<EventDto> records, long count) throws IOException {
+    for (long i = 0; i < count && records.hasNextValue(); i++) {
+      try {
+        records.nextValue();
+      } catch (JsonMappingException exception) {
+        // it was counted as skipped by the run that read it
+      }
+    }
+  }
+
+  private ObjectReader readerFor(EventImportFormat format) {
+    return format == EventImportFormat.CSV ? csvReader : ndjsonReader;
+  }
+
+  private Path resolve(String file) {
+    Path path = directory.resolve(file).normalize();
+    if (!path.startsWith(directory) || !Files.isRegularFile(path)) {
+      throw new IllegalArgumentException(format(FILE_ERROR, file));
+    }
+    return path;
+  }
+
+  private EventImportDto toDto(EventImport eventImport) {
+    return EventImportDto.builder()
+        .file(eventImport.getFile())
+        .format(eventImport.getFormat())
+        .status(eventImport.getStatus())
+        .records(eventImport.getRecords())
+        .imported(eventImport.getImported())
+        .skipped(eventImport.getSkipped())
+        .error(eventImport.getError())
+        .updated(eventImport.getUpdated())
+        .build();
+  }
+
+  /**
+   * Valid events of the next {@code chunkSize} records. Records that can't be mapped to an event
+   * or don't pass validation are counted as skipped. A broken file, e.g. malformed JSON, fails
+   * the import.
+   */
+  private class Chunk implements Iterator<Event> {
+
+    private final MappingIterator<EventDto> records;
+    private long read;
+    private long skipped;
+    private Event next;
+
+    private Chunk(MappingIterator<EventDto> records) {
+      this.records = records;
+    }
+
+    @Override
+    public boolean hasNext() {
+      try {
+        while (next == null && read < chunkSize && records.hasNextValue()) {
+          read++;
+          next = toValidEvent();
+        }
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+      return next != null;
+    }
+
+    @Override
+    public Event next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Event event = next;
+      next = null;
+      return event;
+    }
+
+    private Event toValidEvent() throws IOException {
+      try {
+        EventDto eventDto = records.nextValue();
+        if (eventDto != null && validator.validate(eventDto).isEmpty()) {
+          return eventConverter.toEntity(eventDto);
+        }
+      } catch (JsonMappingException exception) {
+        // the record is skipped as well as an invalid one
+      }
+      skipped++;
+      return null;
+    }
+  }
+}
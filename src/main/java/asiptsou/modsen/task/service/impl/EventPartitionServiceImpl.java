@@ -0,0 +1,53 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.dao.EventPartitionDao;
+import asiptsou.modsen.task.service.EventPartitionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+public class EventPartitionServiceImpl implements EventPartitionService {
+
+  private final EventPartitionDao eventPartitionDao;
+  private final int monthsAhead;
+  private final int retentionMonths;
+
+  public EventPartitionServiceImpl(
+      EventPartitionDao eventPartitionDao,
+      @Value("${event.partitions.months-ahead}") int monthsAhead,
+      @Value("${event.partitions.retention-months}") int retentionMonths) {
+    this.eventPartitionDao = eventPartitionDao;
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+  }
+
+  @Override
+  @Transactional
+  public int createUpcomingPartitions() {
+    LocalDate month = currentMonth();
+    return eventPartitionDao.createPartitions(month, month.plusMonths(monthsAhead));
+  }
+
+  @Override
+  @Transactional
+  public List<String> detachExpiredPartitions() {
+    return getRetainedFrom().map(eventPartitionDao::detachPartitionsBefore).orElse(List.of());
+  }
+
+  @Override
+  public Optional<LocalDate> getRetainedFrom() {
+    if (retentionMonths <= 0) {
+      return Optional.empty();
+    }
+    return Optional.of(currentMonth().minusMonths(retentionMonths));
+  }
+
+  static LocalDate currentMonth() {
+    return LocalDate.now().withDayOfMonth(1);
+  }
+}
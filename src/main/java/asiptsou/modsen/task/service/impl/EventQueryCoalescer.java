@@ -0,0 +1,117 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.config.ReadReplicaRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs identical concurrent queries once: while a query is in flight, callers asking the same
+ * query wait for it and share its result, or its exception, instead of running it again. A caller
+ * waits at most {@code maxWait} and then runs the query itself. Zero {@code maxWait} turns
+ * coalescing off.
+ *
+ * <p>A caller joins only a query that started after every write this node has finished, see
+ * {@link #written()}, so it never gets a result older than the writes it could have seen. Writes
+ * of other nodes are seen as late as the query in flight is old. Reads from the primary and from
+ * replicas are coalesced separately. Shared results must not be modified.
+ */
+public class EventQueryCoalescer {
+
+  public static final String COALESCED_COUNTER = "event.query.coalesced";
+
+  private final long maxWaitNanos;
+  private final ConcurrentHashMap<Key, Flight> flights = new ConcurrentHashMap<>();
+  private final AtomicLong writes = new AtomicLong();
+  private final Counter joined;
+  private final Counter timedOut;
+
+  public EventQueryCoalescer(Duration maxWait, MeterRegistry meterRegistry) {
+    this.maxWaitNanos = maxWait.toNanos();
+    this.joined = meterRegistry.counter(COALESCED_COUNTER, "outcome", "joined");
+    this.timedOut = meterRegistry.counter(COALESCED_COUNTER, "outcome", "timed-out");
+  }
+
+  /**
+   * Returns the result of the query in flight equal to {@code query}, or runs {@code action} as
+   * that query. {@code query} must have value equality.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T coalesce(Object query, Supplier<T> action) {
+    if (maxWaitNanos <= 0) {
+      return action.get();
+    }
+    Key key = new Key(query, ReadReplicaRoutingDataSource.isPrimaryRequired());
+    long generation = writes.get();
+    Flight created = new Flight(generation);
+    Flight flight =
+        flights.compute(
+            key,
+            (ignored, current) ->
+                current != null && current.generation >= generation ? current : created);
+    if (flight != created) {
+      return (T) join(flight, action);
+    }
+    try {
+      T result = action.get();
+      created.result.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      created.result.completeExceptionally(e);
+      throw e;
+    } finally {
+      flights.remove(key, created);
+    }
+  }
+
+  /** Must be called after every write has committed, or may have. */
+  public void written() {
+    writes.incrementAndGet();
+  }
+
+  private Object join(Flight flight, Supplier<?> action) {
+    try {
+      Object result = flight.result.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+      joined.increment();
+      return result;
+    } catch (TimeoutException e) {
+      timedOut.increment();
+      return action.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return action.get();
+    } catch (ExecutionException e) {
+      joined.increment();
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw (RuntimeException) e.getCause();
+    }
+  }
+
+  @Value
+  private static class Key {
+    Object query;
+    boolean primary;
+  }
+
+  /** A query in flight, started when {@code generation} writes had finished. */
+  private static final class Flight {
+
+    private final long generation;
+    private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+    private Flight(long generation) {
+      this.generation = generation;
+    }
+  }
+}
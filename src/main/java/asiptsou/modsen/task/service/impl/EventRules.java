@@ -0,0 +1,154 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.converter.EventCursorConverter;
+import asiptsou.modsen.task.dto.EventBatchResultDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventBatchStatus;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static asiptsou.modsen.task.model.EventFilter.isActiveSorting;
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+/**
+ * Request checks and paging rules shared by the servlet {@link EventServiceImpl} and the {@link
+ * ReactiveEventServiceImpl}, so both stacks accept the same requests and page the same way.
+ */
+final class EventRules {
+
+  static final String NO_SUCH_EVENT_EXCEPTION_MESSAGE = "Event was not found by id = ";
+  static final String VERSION_CONFLICT_ERROR =
+      "Event with id = %d was changed, its version is not %d anymore";
+  static final String UNSORTED = "";
+  static final int MAX_LIMIT = 1000;
+  static final int MAX_BATCH_SIZE = 10_000;
+
+  private static final String DATE_ERROR = "Date from {%s} can't be after the date to {%s}";
+  private static final String LIMIT_ERROR = "Limit should be between 1 and %d but was %d";
+  private static final String CURSOR_SORTING_ERROR =
+      "Cursor was issued for sorting {%s} and can't be used with sorting {%s}";
+  private static final String BATCH_SIZE_ERROR =
+      "Batch should contain from 1 to %d events but was %d";
+
+  private EventRules() {}
+
+  static void checkLimit(int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new IllegalArgumentException(format(LIMIT_ERROR, MAX_LIMIT, limit));
+    }
+  }
+
+  static void checkFromIsBeforeTo(LocalDateTime from, LocalDateTime to) {
+    if (!isNull(from) && !isNull(to) && from.isAfter(to)) {
+      throw new IllegalArgumentException(format(DATE_ERROR, from, to));
+    }
+  }
+
+  static EventCursor readCursor(
+      EventCursorConverter eventCursorConverter, String cursor, String sorting) {
+    if (isNull(cursor) || cursor.isEmpty()) {
+      return null;
+    }
+    EventCursor eventCursor = eventCursorConverter.fromToken(cursor);
+    if (!eventCursor.getSorting().equals(sorting)) {
+      throw new IllegalArgumentException(
+          format(CURSOR_SORTING_ERROR, eventCursor.getSorting(), sorting));
+    }
+    return eventCursor;
+  }
+
+  /** Adds id and the active sort keys, which the cursor of the next page is made of. */
+  static Set<EventField> withCursorFields(Set<EventField> requested, EventFilter eventFilter) {
+    Set<EventField> selected = EnumSet.copyOf(requested);
+    selected.add(EventField.ID);
+    if (isActiveSorting(eventFilter.isSortTopic(), eventFilter.getTopicSortDirection())) {
+      selected.add(EventField.TOPIC);
+    }
+    if (isActiveSorting(eventFilter.isSortOrganizer(), eventFilter.getOrganizerSortDirection())) {
+      selected.add(EventField.ORGANIZER);
+    }
+    if (isActiveSorting(eventFilter.isSortDate(), eventFilter.getDateSortDirection())) {
+      selected.add(EventField.DATE);
+    }
+    return selected;
+  }
+
+  /**
+   * Turns one extra fetched row into the next cursor: if the DAO returned more than {@code limit}
+   * events there is a next page, and it starts after the last event of this one. Fields selected
+   * only for the cursor are cleared afterwards, so the page holds the requested ones.
+   */
+  static EventPageDto toPage(
+      EventCursorConverter eventCursorConverter,
+      List<EventDto> eventDtos,
+      int limit,
+      String sorting,
+      Set<EventField> requested) {
+    boolean hasNext = eventDtos.size() > limit;
+    List<EventDto> page = hasNext ? eventDtos.subList(0, limit) : eventDtos;
+    String next =
+        hasNext
+            ? eventCursorConverter.toToken(
+                eventCursorConverter.toCursor(page.get(page.size() - 1), sorting))
+            : null;
+    retain(page, requested);
+    return EventPageDto.builder().events(page).next(next).build();
+  }
+
+  /** Clears the fields which were not requested. */
+  static void retain(List<EventDto> eventDtos, Set<EventField> requested) {
+    Set<EventField> cleared = EnumSet.complementOf(EnumSet.copyOf(requested));
+    if (!cleared.isEmpty()) {
+      for (EventDto eventDto : eventDtos) {
+        cleared.forEach(field -> field.set(eventDto, null));
+      }
+    }
+  }
+
+  /**
+   * Validates every event of a batch on its own. Invalid ones get their field errors, valid ones
+   * are passed with their result to {@code onValid}. Results keep the order of the request.
+   */
+  static List<EventBatchResultDto> validateBatch(
+      Validator validator,
+      List<EventDto> eventDtos,
+      BiConsumer<EventDto, EventBatchResultDto> onValid) {
+    if (eventDtos.isEmpty() || eventDtos.size() > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException(
+          format(BATCH_SIZE_ERROR, MAX_BATCH_SIZE, eventDtos.size()));
+    }
+    List<EventBatchResultDto> results = new ArrayList<>(eventDtos.size());
+    for (int i = 0; i < eventDtos.size(); i++) {
+      EventDto eventDto = eventDtos.get(i);
+      Set<ConstraintViolation<EventDto>> violations = validator.validate(eventDto);
+      EventBatchResultDto result = EventBatchResultDto.builder().index(i).build();
+      if (violations.isEmpty()) {
+        result.setStatus(EventBatchStatus.CREATED);
+        onValid.accept(eventDto, result);
+      } else {
+        Map<String, String> errors = new LinkedHashMap<>();
+        for (ConstraintViolation<EventDto> violation : violations) {
+          errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        result.setStatus(EventBatchStatus.INVALID);
+        result.setErrors(errors);
+      }
+      results.add(result);
+    }
+    return results;
+  }
+}
@@ -1,35 +1,48 @@
 package asiptsou.modsen.task.service.impl;
 
 import asiptsou.modsen.task.converter.EventConverter;
+import asiptsou.modsen.task.converter.EventCursorConverter;
 import asiptsou.modsen.task.dao.EventDao;
+import asiptsou.modsen.task.dto.EventBatchResultDto;
 import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.dto.EventPageDto;
 import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventCursor;
 import asiptsou.modsen.task.model.EventFilter;
 import asiptsou.modsen.task.service.EventService;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import javax.validation.Validator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
+import static asiptsou.modsen.task.service.impl.EventRules.NO_SUCH_EVENT_EXCEPTION_MESSAGE;
+import static asiptsou.modsen.task.service.impl.EventRules.UNSORTED;
+import static asiptsou.modsen.task.service.impl.EventRules.VERSION_CONFLICT_ERROR;
+import static asiptsou.modsen.task.service.impl.EventRules.checkFromIsBeforeTo;
+import static asiptsou.modsen.task.service.impl.EventRules.checkLimit;
+import static asiptsou.modsen.task.service.impl.EventRules.readCursor;
+import static asiptsou.modsen.task.service.impl.EventRules.toPage;
+import static asiptsou.modsen.task.service.impl.EventRules.validateBatch;
+import static asiptsou.modsen.task.service.impl.EventRules.withCursorFields;
 import static java.lang.String.format;
-import static java.time.LocalDateTime.of;
 import static java.util.Objects.isNull;
 
 @Service
 @AllArgsConstructor
 public class EventServiceImpl implements EventService {
 
-  private static final String NO_SUCH_EVENT_EXCEPTION_MESSAGE = "Event was not found by id = ";
-  private static final LocalDateTime MIN_DATE = of(1990, 1, 1, 0, 0, 0);
-  private static final LocalDateTime MAX_DATE = of(3000, 1, 1, 0, 0, 0);
-  private static final String DATE_ERROR = "Date from {%s} can't be after the date to {%s}";
-
   private final EventDao eventDao;
   private final EventConverter eventConverter;
+  private final EventCursorConverter eventCursorConverter;
+  private final Validator validator;
 
   @Override
   @Transactional(readOnly = true)
@@ -49,34 +62,83 @@ public class EventServiceImpl implements EventService {
     return eventDto;
   }
 
+  @Override
+  @Transactional
+  public EventDto saveIfAbsent(EventDto eventDto) {
+    Event event = eventDao.saveIfAbsent(eventConverter.toEntity(eventDto));
+    eventDto.setId(event.getId());
+    return eventDto;
+  }
+
+  /**
+   * Validates every event on its own. Valid ones are inserted in one transaction, invalid ones are
+   * reported with their field errors and skipped. Results keep the order of the request.
+   */
+  @Override
+  @Transactional
+  public List<EventBatchResultDto> saveAll(List<EventDto> eventDtos) {
+    List<Event> events = new ArrayList<>(eventDtos.size());
+    List<EventBatchResultDto> createdResults = new ArrayList<>(eventDtos.size());
+    List<EventBatchResultDto> results =
+        validateBatch(
+            validator,
+            eventDtos,
+            (eventDto, result) -> {
+              events.add(eventConverter.toEntity(eventDto));
+              createdResults.add(result);
+            });
+
+    eventDao.saveAll(events);
+    for (int i = 0; i < events.size(); i++) {
+      createdResults.get(i).setId(events.get(i).getId());
+    }
+    return results;
+  }
+
   @Override
   @Transactional(readOnly = true)
-  public List<EventDto> getAll() {
-    return eventDao.getAll().stream().map(eventConverter::toDto).collect(Collectors.toList());
+  public EventPageDto getAll(String cursor, int limit, String fields) {
+    checkLimit(limit);
+    Set<EventField> requested = EventField.parse(fields);
+    EventCursor after = readCursor(eventCursorConverter, cursor, UNSORTED);
+    Set<EventField> selected = withCursorFields(requested, EventFilter.builder().build());
+    return toPage(
+        eventCursorConverter,
+        eventDao.getAll(selected, after, limit + 1),
+        limit,
+        UNSORTED,
+        requested);
   }
 
   @Override
   @Transactional(readOnly = true)
-  public List<EventDto> getListEventByFilter(EventFilter eventFilter) {
-    LocalDateTime to = isNull(eventFilter.getToDate()) ? MAX_DATE : eventFilter.getToDate();
-    LocalDateTime from = isNull(eventFilter.getFromDate()) ? MIN_DATE : eventFilter.getFromDate();
-    checkFromIsBeforeTo(from, to);
-
-    return eventDao
-        .getAllByFilter(
-            from,
-            to,
-            eventFilter.getOrganizer(),
-            eventFilter.getTopic(),
-            eventFilter.isSortTopic(),
-            eventFilter.isSortDate(),
-            eventFilter.isSortOrganizer(),
-            eventFilter.getTopicSortDirection(),
-            eventFilter.getOrganizerSortDirection(),
-            eventFilter.getDateSortDirection())
-        .stream()
-        .map(eventConverter::toDto)
-        .collect(Collectors.toList());
+  public EventPageDto getListEventByFilter(EventFilter eventFilter) {
+    checkFromIsBeforeTo(eventFilter.getFromDate(), eventFilter.getToDate());
+    checkLimit(eventFilter.getLimit());
+
+    Set<EventField> requested = EventField.parse(eventFilter.getFields());
+    String sorting = eventFilter.sorting();
+    EventCursor after = readCursor(eventCursorConverter, eventFilter.getCursor(), sorting);
+
+    List<EventDto> eventDtos =
+        eventDao.getAllByFilter(
+            eventFilter,
+            withCursorFields(requested, eventFilter),
+            after,
+            eventFilter.getLimit() + 1);
+    return toPage(eventCursorConverter, eventDtos, eventFilter.getLimit(), sorting, requested);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public void exportAll(Consumer<EventDto> action) {
+    eventDao.scrollAll(event -> action.accept(eventConverter.toDto(event)));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public boolean isCollatedByCodePoint() {
+    return eventDao.isCollatedByCodePoint();
   }
 
   @Override
@@ -85,23 +147,23 @@ public class EventServiceImpl implements EventService {
     return eventDao.delete(id);
   }
 
+  /**
+   * Updates the event with one statement. If the version of the event is given the update is
+   * conditional, and only when it doesn't match any row the event is read to tell a missing event
+   * from a version conflict.
+   */
   @Override
   @Transactional
   public void update(long id, EventDto eventDto) {
-    Event event =
-        eventDao
-            .getById(id)
-            .orElseThrow(() -> new NoSuchElementException(NO_SUCH_EVENT_EXCEPTION_MESSAGE + id));
-
-    Event eventForUpdate = eventConverter.toEntity(eventDto);
-    eventForUpdate.setId(event.getId());
-    eventForUpdate.setVersion(event.getVersion());
-    eventDao.update(eventForUpdate);
-  }
-
-  private void checkFromIsBeforeTo(LocalDateTime from, LocalDateTime to) {
-    if (from.isAfter(to)) {
-      throw new IllegalArgumentException(format(DATE_ERROR, from, to));
+    Event event = eventConverter.toEntity(eventDto);
+    event.setId(id);
+    if (eventDao.update(event) > 0) {
+      return;
+    }
+    if (!isNull(event.getVersion()) && eventDao.getById(id).isPresent()) {
+      throw new OptimisticLockingFailureException(
+          format(VERSION_CONFLICT_ERROR, id, event.getVersion()));
     }
+    throw new NoSuchElementException(NO_SUCH_EVENT_EXCEPTION_MESSAGE + id);
   }
 }
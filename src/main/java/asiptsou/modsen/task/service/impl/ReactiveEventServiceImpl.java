@@ -0,0 +1,198 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.converter.EventCursorConverter;
+import asiptsou.modsen.task.dao.ReactiveEventDao;
+import asiptsou.modsen.task.dto.EventBatchResultDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import asiptsou.modsen.task.service.ReactiveEventService;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static asiptsou.modsen.task.config.ReactiveConfig.REACTIVE_PROFILE;
+import static asiptsou.modsen.task.service.impl.EventRules.NO_SUCH_EVENT_EXCEPTION_MESSAGE;
+import static asiptsou.modsen.task.service.impl.EventRules.UNSORTED;
+import static asiptsou.modsen.task.service.impl.EventRules.VERSION_CONFLICT_ERROR;
+import static asiptsou.modsen.task.service.impl.EventRules.checkFromIsBeforeTo;
+import static asiptsou.modsen.task.service.impl.EventRules.checkLimit;
+import static asiptsou.modsen.task.service.impl.EventRules.readCursor;
+import static asiptsou.modsen.task.service.impl.EventRules.toPage;
+import static asiptsou.modsen.task.service.impl.EventRules.validateBatch;
+import static asiptsou.modsen.task.service.impl.EventRules.withCursorFields;
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+/**
+ * Same rules as {@link EventServiceImpl} on {@link ReactiveEventDao}. Checks of the request run
+ * on subscription, so invalid requests are signalled as errors of the returned publisher.
+ */
+@Service
+@Profile(REACTIVE_PROFILE)
+@AllArgsConstructor
+public class ReactiveEventServiceImpl implements ReactiveEventService {
+
+  private final ReactiveEventDao reactiveEventDao;
+  private final EventCursorConverter eventCursorConverter;
+  private final Validator validator;
+
+  @Override
+  public Mono<EventDto> getById(long id) {
+    return reactiveEventDao
+        .getById(id)
+        .switchIfEmpty(
+            Mono.error(() -> new NoSuchElementException(NO_SUCH_EVENT_EXCEPTION_MESSAGE + id)));
+  }
+
+  @Override
+  public Mono<EventDto> save(EventDto eventDto) {
+    return reactiveEventDao
+        .save(eventDto)
+        .map(
+            id -> {
+              eventDto.setId(id);
+              return eventDto;
+            });
+  }
+
+  /** Validates every event on its own and inserts the valid ones in one transaction. */
+  @Override
+  public Mono<List<EventBatchResultDto>> saveAll(List<EventDto> eventDtos) {
+    return Mono.defer(
+        () -> {
+          List<EventDto> validDtos = new ArrayList<>(eventDtos.size());
+          List<EventBatchResultDto> createdResults = new ArrayList<>(eventDtos.size());
+          List<EventBatchResultDto> results =
+              validateBatch(
+                  validator,
+                  eventDtos,
+                  (eventDto, result) -> {
+                    validDtos.add(eventDto);
+                    createdResults.add(result);
+                  });
+          if (validDtos.isEmpty()) {
+            return Mono.just(results);
+          }
+          return reactiveEventDao
+              .saveAll(validDtos)
+              .collectList()
+              .map(
+                  ids -> {
+                    for (int i = 0; i < ids.size(); i++) {
+                      createdResults.get(i).setId(ids.get(i));
+                    }
+                    return results;
+                  });
+        });
+  }
+
+  @Override
+  public Mono<EventPageDto> getAll(String cursor, int limit, String fields) {
+    return Mono.defer(
+        () -> {
+          checkLimit(limit);
+          Set<EventField> requested = EventField.parse(fields);
+          EventCursor after = readCursor(eventCursorConverter, cursor, UNSORTED);
+          Set<EventField> selected = withCursorFields(requested, EventFilter.builder().build());
+          return reactiveEventDao
+              .getAll(selected, after, limit + 1)
+              .collectList()
+              .map(
+                  eventDtos -> toPage(eventCursorConverter, eventDtos, limit, UNSORTED, requested));
+        });
+  }
+
+  @Override
+  public Mono<EventPageDto> getListEventByFilter(EventFilter eventFilter) {
+    return Mono.defer(
+        () -> {
+          checkFromIsBeforeTo(eventFilter.getFromDate(), eventFilter.getToDate());
+          checkLimit(eventFilter.getLimit());
+
+          Set<EventField> requested = EventField.parse(eventFilter.getFields());
+          String sorting = eventFilter.sorting();
+          EventCursor after = readCursor(eventCursorConverter, eventFilter.getCursor(), sorting);
+
+          return reactiveEventDao
+              .getAllByFilter(
+                  eventFilter,
+                  withCursorFields(requested, eventFilter),
+                  after,
+                  eventFilter.getLimit() + 1)
+              .collectList()
+              .map(
+                  eventDtos ->
+                      toPage(
+                          eventCursorConverter,
+                          eventDtos,
+                          eventFilter.getLimit(),
+                          sorting,
+                          requested));
+        });
+  }
+
+  @Override
+  public Flux<EventDto> streamByFilter(EventFilter eventFilter) {
+    return Flux.defer(
+        () -> {
+          checkFromIsBeforeTo(eventFilter.getFromDate(), eventFilter.getToDate());
+          Set<EventField> requested = EventField.parse(eventFilter.getFields());
+          EventCursor after =
+              readCursor(eventCursorConverter, eventFilter.getCursor(), eventFilter.sorting());
+          return reactiveEventDao.getAllByFilter(eventFilter, requested, after, 0);
+        });
+  }
+
+  @Override
+  public Flux<EventDto> exportAll() {
+    return reactiveEventDao.getAll(EventField.parse(null), null, 0);
+  }
+
+  @Override
+  public Mono<Integer> deleteById(long id) {
+    return reactiveEventDao.delete(id);
+  }
+
+  /**
+   * Updates the event with one statement, and only when it doesn't match any row reads the event
+   * to tell a missing event from a version conflict.
+   */
+  @Override
+  public Mono<Void> update(long id, EventDto eventDto) {
+    return reactiveEventDao
+        .update(id, eventDto)
+        .flatMap(
+            updatedRows -> {
+              if (updatedRows > 0) {
+                return Mono.empty();
+              }
+              if (isNull(eventDto.getVersion())) {
+                return Mono.error(new NoSuchElementException(NO_SUCH_EVENT_EXCEPTION_MESSAGE + id));
+              }
+              return reactiveEventDao
+                  .getById(id)
+                  .hasElement()
+                  .flatMap(
+                      exists ->
+                          Mono.error(
+                              exists
+                                  ? new OptimisticLockingFailureException(
+                                      format(VERSION_CONFLICT_ERROR, id, eventDto.getVersion()))
+                                  : new NoSuchElementException(
+                                      NO_SUCH_EVENT_EXCEPTION_MESSAGE + id)));
+            })
+        .then();
+  }
+}
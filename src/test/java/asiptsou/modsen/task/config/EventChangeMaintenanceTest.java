@@ -0,0 +1,47 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.service.EventChangeService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static asiptsou.modsen.task.config.EventChangeMaintenance.BATCH_SIZE;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventChangeMaintenanceTest {
+
+  private static final Duration RETENTION = Duration.ofDays(7);
+
+  @Mock private EventChangeService eventChangeService;
+  @Mock private ScheduledExecutorService scheduler;
+
+  @Test
+  void testDeleteExpiredChangesUntilBatchIsNotFull() {
+    when(eventChangeService.deleteChangesOlderThan(RETENTION, BATCH_SIZE))
+        .thenReturn(BATCH_SIZE, BATCH_SIZE, 3);
+
+    maintenance(RETENTION).deleteExpiredChanges();
+
+    verify(eventChangeService, times(3)).deleteChangesOlderThan(RETENTION, BATCH_SIZE);
+  }
+
+  @Test
+  void testStartWithoutRetentionSchedulesNothing() {
+    maintenance(Duration.ZERO).startMaintenance();
+
+    verifyNoInteractions(scheduler);
+  }
+
+  private EventChangeMaintenance maintenance(Duration retention) {
+    return new EventChangeMaintenance(
+        eventChangeService, scheduler, retention, Duration.ofHours(1));
+  }
+}
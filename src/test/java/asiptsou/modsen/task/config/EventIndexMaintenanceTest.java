@@ -0,0 +1,77 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.dao.index.EventIndex;
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.exception.EventChangesExpiredException;
+import asiptsou.modsen.task.service.EventChangeService;
+import asiptsou.modsen.task.service.EventService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventIndexMaintenanceTest {
+
+  @Mock private EventIndex eventIndex;
+  @Mock private EventService eventService;
+  @Mock private EventChangeService eventChangeService;
+  @Mock private ScheduledExecutorService scheduler;
+
+  @Test
+  void testSyncLoadsIndexInCodePointCollation() {
+    when(eventService.isCollatedByCodePoint()).thenReturn(true);
+    when(eventChangeService.getHead()).thenReturn("head");
+    when(eventChangeService.getChanges("head", EventIndexMaintenance.PAGE_SIZE))
+        .thenReturn(new EventChangePageDto(List.of(), "head"));
+
+    maintenance().sync();
+
+    verify(eventIndex).load(any());
+  }
+
+  @Test
+  void testSyncNeverLoadsIndexInOtherCollation() {
+    when(eventService.isCollatedByCodePoint()).thenReturn(false);
+    EventIndexMaintenance eventIndexMaintenance = maintenance();
+
+    eventIndexMaintenance.sync();
+    eventIndexMaintenance.sync();
+
+    verify(eventService, times(1)).isCollatedByCodePoint();
+    verify(eventIndex, never()).load(any());
+    verify(eventChangeService, never()).getChanges(any(), anyInt());
+    verifyNoInteractions(scheduler);
+  }
+
+  @Test
+  void testSyncLoadsIndexAgainWhenChangesWereDeleted() {
+    when(eventService.isCollatedByCodePoint()).thenReturn(true);
+    when(eventChangeService.getHead()).thenReturn("head", "later");
+    when(eventChangeService.getChanges("head", EventIndexMaintenance.PAGE_SIZE))
+        .thenThrow(new EventChangesExpiredException("expired"));
+    when(eventChangeService.getChanges("later", EventIndexMaintenance.PAGE_SIZE))
+        .thenReturn(new EventChangePageDto(List.of(), "later"));
+
+    maintenance().sync();
+
+    verify(eventIndex, times(2)).load(any());
+  }
+
+  private EventIndexMaintenance maintenance() {
+    return new EventIndexMaintenance(
+        eventIndex, eventService, eventChangeService, scheduler, Duration.ofSeconds(1));
+  }
+}
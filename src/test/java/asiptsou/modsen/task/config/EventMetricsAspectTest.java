@@ -0,0 +1,75 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.dao.EventDao;
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static asiptsou.modsen.task.config.EventMetricsAspect.DAO_TIMER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventMetricsAspectTest {
+
+  private MeterRegistry meterRegistry;
+  private EventDao proxy;
+
+  @Mock private EventDao eventDao;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    AspectJProxyFactory proxyFactory = new AspectJProxyFactory(eventDao);
+    proxyFactory.addAspect(new EventMetricsAspect(meterRegistry));
+    proxy = proxyFactory.getProxy();
+  }
+
+  @Test
+  void testFilterCallIsTaggedWithFilterShape() {
+    EventFilter eventFilter =
+        EventFilter.builder().organizer("org").isSortDate(true).dateSortDirection("desc").build();
+    when(eventDao.getAllByFilter(eventFilter, Set.of(), null, 10)).thenReturn(List.of());
+
+    proxy.getAllByFilter(eventFilter, Set.of(), null, 10);
+
+    Timer timer =
+        meterRegistry
+            .get(DAO_TIMER)
+            .tag("method", "getAllByFilter")
+            .tag("filter", "organizer")
+            .tag("sort", "date:desc")
+            .tag("exception", "none")
+            .timer();
+    assertEquals(1, timer.count());
+  }
+
+  @Test
+  void testFailedCallIsTaggedWithException() {
+    when(eventDao.getById(1L)).thenThrow(new NoSuchElementException());
+
+    assertThrows(NoSuchElementException.class, () -> proxy.getById(1L));
+
+    Timer timer =
+        meterRegistry
+            .get(DAO_TIMER)
+            .tag("method", "getById")
+            .tag("filter", "none")
+            .tag("exception", "NoSuchElementException")
+            .timer();
+    assertEquals(1, timer.count());
+  }
+}
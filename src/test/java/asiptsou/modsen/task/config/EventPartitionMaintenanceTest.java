@@ -0,0 +1,73 @@
+package asiptsou.modsen.task.config;
+
+import asiptsou.modsen.task.dao.index.EventIndex;
+import asiptsou.modsen.task.service.EventPartitionService;
+import asiptsou.modsen.task.service.impl.CachingEventService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventPartitionMaintenanceTest {
+
+  private static final LocalDate RETAINED_FROM = LocalDate.of(2020, 1, 1);
+
+  @Mock private EventPartitionService eventPartitionService;
+  @Mock private CachingEventService cachingEventService;
+  @Mock private ObjectProvider<EventIndex> eventIndexProvider;
+  @Mock private EventIndex eventIndex;
+  @Mock private ScheduledExecutorService scheduler;
+
+  @Test
+  void testMaintainRemovesExpiredEventsEvenIfOtherInstanceDetached() {
+    when(eventPartitionService.detachExpiredPartitions()).thenReturn(List.of());
+    when(eventPartitionService.getRetainedFrom()).thenReturn(Optional.of(RETAINED_FROM));
+    doAnswer(
+            invocation -> {
+              invocation.<Consumer<EventIndex>>getArgument(0).accept(eventIndex);
+              return null;
+            })
+        .when(eventIndexProvider)
+        .ifAvailable(any());
+
+    maintenance().maintain();
+
+    verify(cachingEventService).invalidateBefore(RETAINED_FROM.atStartOfDay());
+    verify(eventIndex).removeBefore(RETAINED_FROM.atStartOfDay());
+  }
+
+  @Test
+  void testMaintainWithoutRetentionRemovesNothing() {
+    when(eventPartitionService.detachExpiredPartitions()).thenReturn(List.of());
+    when(eventPartitionService.getRetainedFrom()).thenReturn(Optional.empty());
+
+    maintenance().maintain();
+
+    verify(cachingEventService, never()).invalidateBefore(any());
+    verify(eventIndexProvider, never()).ifAvailable(any());
+  }
+
+  private EventPartitionMaintenance maintenance() {
+    return new EventPartitionMaintenance(
+        eventPartitionService,
+        cachingEventService,
+        eventIndexProvider,
+        scheduler,
+        Duration.ofDays(1));
+  }
+}
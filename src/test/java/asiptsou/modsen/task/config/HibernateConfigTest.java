@@ -0,0 +1,66 @@
+package asiptsou.modsen.task.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+
+import static asiptsou.modsen.task.exception.GlobalDefaultExceptionHandler.POOL_EXHAUSTED_ERROR;
+import static asiptsou.modsen.task.exception.GlobalDefaultExceptionHandler.RETRY_AFTER_SECONDS;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * With read replicas the connection is taken on the first statement of a transaction instead of
+ * on its begin. Checks that a request finding the pools exhausted still gets 503. The replica is
+ * the database itself. Needs Docker and is skipped without it.
+ */
+@SpringBootTest(
+    properties = {
+      "spring.datasource.hikari.maximum-pool-size=1",
+      "spring.datasource.hikari.minimum-idle=1",
+      "spring.datasource.hikari.connection-timeout=250"
+    })
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class HibernateConfigTest {
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:13.1-alpine");
+
+  @Autowired private MockMvc mvc;
+  @Autowired private HikariDataSource dataSource;
+  @Autowired private ReadReplicaRoutingDataSource readReplicaRoutingDataSource;
+
+  @DynamicPropertySource
+  static void datasourceProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+    registry.add("event.datasource.replica-urls", POSTGRES::getJdbcUrl);
+  }
+
+  @Test
+  void testConnectionPoolTimeoutWithReplicas() throws Exception {
+    try (Connection primary = dataSource.getConnection();
+        Connection replica = readReplicaRoutingDataSource.getReplicas().get(0).getConnection()) {
+      mvc.perform(get("/api/events/filter").param("topic", "music"))
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(header().string(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS))
+          .andExpect(content().string(POOL_EXHAUSTED_ERROR));
+    }
+  }
+}
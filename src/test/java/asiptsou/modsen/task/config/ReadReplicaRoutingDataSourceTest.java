@@ -0,0 +1,129 @@
+package asiptsou.modsen.task.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReadReplicaRoutingDataSourceTest {
+
+  public static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+  @Mock private DataSource primary;
+  @Mock private HikariDataSource firstReplica;
+  @Mock private HikariDataSource secondReplica;
+  @Mock private Connection primaryConnection;
+  @Mock private Connection firstConnection;
+  @Mock private Connection secondConnection;
+
+  private ReadReplicaRoutingDataSource routingDataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    stubLag(firstReplica, firstConnection, 0);
+    stubLag(secondReplica, secondConnection, 0);
+    routingDataSource =
+        new ReadReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica), MAX_LAG);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  void testReadOnlyTransactionsUseReplicasRoundRobin() throws SQLException {
+    routingDataSource.checkReplicas();
+
+    assertSame(firstConnection, routingDataSource.getConnection());
+    assertSame(secondConnection, routingDataSource.getConnection());
+    assertSame(firstConnection, routingDataSource.getConnection());
+  }
+
+  @Test
+  void testReadWriteTransactionsUsePrimary() throws SQLException {
+    routingDataSource.checkReplicas();
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+    assertSame(primaryConnection, routingDataSource.getConnection());
+  }
+
+  @Test
+  void testOnPrimary() throws SQLException {
+    routingDataSource.checkReplicas();
+
+    Connection connection =
+        ReadReplicaRoutingDataSource.onPrimary(
+            () -> {
+              try {
+                return routingDataSource.getConnection();
+              } catch (SQLException exception) {
+                throw new IllegalStateException(exception);
+              }
+            });
+
+    assertSame(primaryConnection, connection);
+    assertEquals(false, ReadReplicaRoutingDataSource.isPrimaryRequired());
+  }
+
+  @Test
+  void testPrimaryIsUsedBeforeFirstCheck() throws SQLException {
+    assertSame(primaryConnection, routingDataSource.getConnection());
+  }
+
+  @Test
+  void testLaggingReplicaIsSkipped() throws SQLException {
+    stubLag(firstReplica, firstConnection, 30);
+    routingDataSource.checkReplicas();
+
+    assertSame(secondConnection, routingDataSource.getConnection());
+    assertSame(secondConnection, routingDataSource.getConnection());
+  }
+
+  @Test
+  void testUnavailableReplicaFallsBackToPrimary() throws SQLException {
+    routingDataSource.checkReplicas();
+    when(firstReplica.getConnection()).thenThrow(new SQLTransientConnectionException("timeout"));
+
+    assertSame(primaryConnection, routingDataSource.getConnection());
+    assertSame(secondConnection, routingDataSource.getConnection());
+    assertSame(secondConnection, routingDataSource.getConnection());
+  }
+
+  private static void stubLag(HikariDataSource replica, Connection connection, double lagSeconds)
+      throws SQLException {
+    Connection checkConnection = mock(Connection.class);
+    Statement statement = mock(Statement.class);
+    ResultSet resultSet = mock(ResultSet.class);
+    when(replica.getConnection()).thenReturn(checkConnection, connection);
+    when(checkConnection.createStatement()).thenReturn(statement);
+    when(statement.executeQuery(anyString())).thenReturn(resultSet);
+    when(resultSet.next()).thenReturn(true);
+    when(resultSet.getDouble(1)).thenReturn(lagSeconds);
+  }
+}
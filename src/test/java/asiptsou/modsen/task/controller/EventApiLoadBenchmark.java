@@ -0,0 +1,382 @@
+package asiptsou.modsen.task.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a mixed read and write workload against all event endpoints of the running application
+ * and reports p50, p99, p99.9 latency and requests/sec per endpoint, recorded with HdrHistogram.
+ *
+ * <p>The workload is set with system properties: load.events (seeded volume), load.clients,
+ * load.warmup, load.duration, load.mix (weights per endpoint) and load.rate. With load.rate set to
+ * the total requests/sec the clients send requests on a fixed schedule and latency is measured
+ * from the scheduled time, so a stalled server shows up in the percentiles instead of silently
+ * lowering the load. Without it every client sends its next request as soon as it gets a response.
+ *
+ * <p>Results are written to target/load-test-result.json, with the mean and max time to acquire a
+ * connection from the pool and the peak of requests waiting for one under "pool". When
+ * load.baseline names the result of an earlier run, the test fails if the p99 latency or the
+ * throughput of any endpoint got worse by more than load.max-regression, or if more than
+ * load.max-error-rate of requests failed.
+ *
+ * <p>To see how the pool copes with many concurrent clients, let every filter request need a
+ * connection: -Dload.clients=200 -Dload.mix=FILTER:100 -Dserver.tomcat.threads.max=200
+ * -Dhibernate.cache.use_second_level_cache=false -Dhibernate.cache.use_query_cache=false, and
+ * compare runs with different -Dspring.datasource.hikari.maximum-pool-size.
+ *
+ * <p>Needs the database from application properties and runs only with the load profile: mvn -Pload
+ * test -Dload.clients=64 -Dload.baseline=target/load-test-result.json
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EventApiLoadBenchmark {
+
+  public static final String RESULT_FILE = "target/load-test-result.json";
+  public static final String LOAD_TEST_TOPIC = "load test topic";
+  public static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+  public static final int ID_SAMPLE_SIZE = 10_000;
+  public static final String POOL = "pool";
+
+  @Value("${load.events:100000}")
+  private int events;
+
+  @Value("${load.clients:32}")
+  private int clients;
+
+  @Value("${load.warmup:PT10S}")
+  private Duration warmup;
+
+  @Value("${load.duration:PT30S}")
+  private Duration duration;
+
+  @Value("${load.mix:GET_BY_ID:40,GET_ALL:10,FILTER:30,CREATE:10,UPDATE:10}")
+  private String mix;
+
+  @Value("${load.rate:0}")
+  private int rate;
+
+  @Value("${load.baseline:}")
+  private String baseline;
+
+  @Value("${load.max-regression:0.2}")
+  private double maxRegression;
+
+  @Value("${load.max-error-rate:0.01}")
+  private double maxErrorRate;
+
+  @LocalServerPort private int port;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private HttpClient client;
+  private List<Long> ids;
+  private Endpoint[] weightedEndpoints;
+  private Gauge pending;
+  private final AtomicLong peakPending = new AtomicLong();
+
+  @BeforeEach
+  void setUp() {
+    Integer count = jdbcTemplate.queryForObject("select count(*) from event", Integer.class);
+    if (count == null || count < events) {
+      jdbcTemplate.update(
+          "insert into event (id, version, topic, description, organizer, date, location) "
+              + "select nextval('event_id_sequence'), 0, 'topic ' || i, 'description ' || i, "
+              + "'organizer' || (i % 1000), timestamp '2020-01-01' + i * interval '10 minutes', "
+              + "'location ' || (i % 100) from generate_series(1, ?) as i",
+          events - (count == null ? 0 : count));
+      jdbcTemplate.execute("analyze event");
+    }
+    ids =
+        jdbcTemplate.queryForList(
+            "select id from event tablesample system (10) limit ?", Long.class, ID_SAMPLE_SIZE);
+    weightedEndpoints = parseMix(mix);
+    client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(8)).build();
+    // absent on the reactive stack, which has no JDBC pool
+    pending = meterRegistry.find("hikaricp.connections.pending").gauge();
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.update("delete from event where topic like ?", LOAD_TEST_TOPIC + "%");
+  }
+
+  @Test
+  void benchmarkMixedWorkload() throws Exception {
+    run(warmup);
+    Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+    long acquireCountBefore = acquire == null ? 0 : acquire.count();
+    double acquireNanosBefore = acquire == null ? 0 : acquire.totalTime(TimeUnit.NANOSECONDS);
+    peakPending.set(0);
+    Map<Endpoint, Stats> stats = run(duration);
+
+    ObjectNode result = objectMapper.createObjectNode();
+    System.out.printf(
+        "%d clients, %s, %s%n",
+        clients, duration, rate > 0 ? rate + " requests/sec scheduled" : "closed loop");
+    System.out.printf(
+        "%-10s %10s %8s %10s %10s %10s %10s%n",
+        "endpoint", "req/s", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    for (Map.Entry<Endpoint, Stats> entry : stats.entrySet()) {
+      Histogram histogram = entry.getValue().histogram;
+      double requestsPerSecond = histogram.getTotalCount() / (double) duration.toSeconds();
+      System.out.printf(
+          "%-10s %10.1f %8d %10.3f %10.3f %10.3f %10.3f%n",
+          entry.getKey(),
+          requestsPerSecond,
+          entry.getValue().errors.get(),
+          millis(histogram.getValueAtPercentile(50)),
+          millis(histogram.getValueAtPercentile(99)),
+          millis(histogram.getValueAtPercentile(99.9)),
+          millis(histogram.getMaxValue()));
+      result
+          .putObject(entry.getKey().name())
+          .put("requestsPerSecond", requestsPerSecond)
+          .put("errors", entry.getValue().errors.get())
+          .put("p50", millis(histogram.getValueAtPercentile(50)))
+          .put("p99", millis(histogram.getValueAtPercentile(99)))
+          .put("p999", millis(histogram.getValueAtPercentile(99.9)))
+          .put("max", millis(histogram.getMaxValue()));
+    }
+    if (acquire != null) {
+      double acquireMeanMillis =
+          (acquire.totalTime(TimeUnit.NANOSECONDS) - acquireNanosBefore)
+              / Math.max(1, acquire.count() - acquireCountBefore)
+              / 1e6;
+      System.out.printf(
+          "pool: mean acquire = %.3f ms, max acquire = %.3f ms, peak pending = %d%n",
+          acquireMeanMillis, acquire.max(TimeUnit.MILLISECONDS), peakPending.get());
+      result
+          .putObject(POOL)
+          .put("meanAcquire", acquireMeanMillis)
+          .put("maxAcquire", acquire.max(TimeUnit.MILLISECONDS))
+          .put("peakPending", peakPending.get());
+    }
+    List<String> regressions = findRegressions(result);
+    objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(RESULT_FILE), result);
+
+    assertTrue(regressions.isEmpty(), String.join("\n", regressions));
+  }
+
+  private Map<Endpoint, Stats> run(Duration duration) throws Exception {
+    Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+    for (Endpoint endpoint : Endpoint.values()) {
+      stats.put(endpoint, new Stats());
+    }
+    long start = System.nanoTime();
+    long deadline = start + duration.toNanos();
+    long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(clients) / rate : 0;
+    ExecutorService executor = Executors.newFixedThreadPool(clients);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < clients; i++) {
+      long firstStart = start + intervalNanos * i / clients;
+      futures.add(
+          executor.submit(
+              () -> {
+                long scheduled = firstStart;
+                while (scheduled < deadline) {
+                  LockSupport.parkNanos(scheduled - System.nanoTime());
+                  Endpoint endpoint = nextEndpoint();
+                  long sent = System.nanoTime();
+                  boolean ok = send(endpoint);
+                  long end = System.nanoTime();
+                  Stats endpointStats = stats.get(endpoint);
+                  endpointStats.histogram.recordValue(
+                      Math.min(
+                          TimeUnit.NANOSECONDS.toMicros(end - (rate > 0 ? scheduled : sent)),
+                          MAX_LATENCY_MICROS));
+                  if (!ok) {
+                    endpointStats.errors.incrementAndGet();
+                  }
+                  if (pending != null) {
+                    peakPending.accumulateAndGet((long) pending.value(), Math::max);
+                  }
+                  scheduled = rate > 0 ? scheduled + intervalNanos : end;
+                }
+                return null;
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+    return stats;
+  }
+
+  private boolean send(Endpoint endpoint) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long id = ids.get(random.nextInt(ids.size()));
+    HttpRequest.Builder request;
+    switch (endpoint) {
+      case GET_BY_ID:
+        request = HttpRequest.newBuilder(uri("/api/events/" + id)).GET();
+        break;
+      case GET_ALL:
+        request = HttpRequest.newBuilder(uri("/api/events?limit=20")).GET();
+        break;
+      case FILTER:
+        request =
+            HttpRequest.newBuilder(
+                    uri(
+                        "/api/events/filter?limit=20&isSortDate=true&dateSortDirection=desc"
+                            + "&organizer=organizer"
+                            + random.nextInt(1000)))
+                .GET();
+        break;
+      case CREATE:
+        request =
+            HttpRequest.newBuilder(uri("/api/events"))
+                .POST(HttpRequest.BodyPublishers.ofString(eventJson(random)));
+        break;
+      default:
+        request =
+            HttpRequest.newBuilder(uri("/api/events/" + id))
+                .PUT(HttpRequest.BodyPublishers.ofString(eventJson(random)));
+    }
+    try {
+      int status =
+          client
+              .send(
+                  request.header("Content-Type", "application/json").build(),
+                  HttpResponse.BodyHandlers.discarding())
+              .statusCode();
+      return status < 400;
+    } catch (IOException exception) {
+      return false;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private String eventJson(ThreadLocalRandom random) {
+    int number = random.nextInt(1_000_000);
+    return "{\"topic\":\""
+        + LOAD_TEST_TOPIC
+        + " "
+        + number
+        + "\",\"description\":\"description "
+        + number
+        + "\",\"organizer\":\"organizer"
+        + number % 1000
+        + "\",\"date\":\"15-06-2025 22:49\",\"location\":\"location "
+        + number % 100
+        + "\"}";
+  }
+
+  /**
+   * Compares the result with the baseline run, if there is one, and with the allowed error rate.
+   */
+  private List<String> findRegressions(ObjectNode result) throws IOException {
+    List<String> regressions = new ArrayList<>();
+    ObjectNode baselineResult =
+        baseline.isEmpty() ? null : (ObjectNode) objectMapper.readTree(new File(baseline));
+    result
+        .fields()
+        .forEachRemaining(
+            entry -> {
+              String endpoint = entry.getKey();
+              if (POOL.equals(endpoint)) {
+                return;
+              }
+              double requestsPerSecond = entry.getValue().get("requestsPerSecond").asDouble();
+              double p99 = entry.getValue().get("p99").asDouble();
+              double requests = requestsPerSecond * duration.toSeconds();
+              long errors = entry.getValue().get("errors").asLong();
+              if (requests > 0 && errors / requests > maxErrorRate) {
+                regressions.add(endpoint + ": error rate is above " + maxErrorRate);
+              }
+              if (baselineResult == null || !baselineResult.has(endpoint)) {
+                return;
+              }
+              double baselineP99 = baselineResult.get(endpoint).get("p99").asDouble();
+              double baselineRequestsPerSecond =
+                  baselineResult.get(endpoint).get("requestsPerSecond").asDouble();
+              if (p99 > baselineP99 * (1 + maxRegression)) {
+                regressions.add(
+                    String.format(
+                        "%s: p99 %.3f ms is worse than baseline %.3f ms",
+                        endpoint, p99, baselineP99));
+              }
+              if (requestsPerSecond < baselineRequestsPerSecond * (1 - maxRegression)) {
+                regressions.add(
+                    String.format(
+                        "%s: %.1f requests/sec is worse than baseline %.1f",
+                        endpoint, requestsPerSecond, baselineRequestsPerSecond));
+              }
+            });
+    return regressions;
+  }
+
+  private Endpoint nextEndpoint() {
+    return weightedEndpoints[ThreadLocalRandom.current().nextInt(weightedEndpoints.length)];
+  }
+
+  /** Turns "GET_BY_ID:40,FILTER:60" into 100 slots, 40 of GET_BY_ID and 60 of FILTER. */
+  private static Endpoint[] parseMix(String mix) {
+    List<Endpoint> slots = new ArrayList<>();
+    for (String weight : mix.split(",")) {
+      String[] parts = weight.trim().split(":");
+      Endpoint endpoint = Endpoint.valueOf(parts[0].trim());
+      for (int i = Integer.parseInt(parts[1].trim()); i > 0; i--) {
+        slots.add(endpoint);
+      }
+    }
+    return slots.toArray(new Endpoint[0]);
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  private enum Endpoint {
+    GET_BY_ID,
+    GET_ALL,
+    FILTER,
+    CREATE,
+    UPDATE
+  }
+
+  private static final class Stats {
+
+    private final Histogram histogram = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+  }
+}
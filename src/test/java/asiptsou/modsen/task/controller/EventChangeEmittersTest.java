@@ -0,0 +1,92 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.dto.EventChangeDto;
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.exception.EventChangesExpiredException;
+import asiptsou.modsen.task.model.EventChangeType;
+import asiptsou.modsen.task.service.EventChangeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventChangeEmittersTest {
+
+  public static final String HEAD = "head";
+  public static final String NEXT = "next";
+
+  @Mock private EventChangeService eventChangeService;
+  @Mock private ScheduledExecutorService scheduler;
+
+  private EventChangeEmitters eventChangeEmitters;
+
+  @BeforeEach
+  void setUp() {
+    eventChangeEmitters =
+        new EventChangeEmitters(
+            eventChangeService,
+            scheduler,
+            Duration.ofSeconds(1),
+            Duration.ofSeconds(15),
+            Duration.ofMinutes(30));
+  }
+
+  @Test
+  void testPollReadsChangesOnlyOfStreamsBehindHead() {
+    when(eventChangeService.getHead()).thenReturn(HEAD);
+    eventChangeEmitters.subscribe(null);
+    eventChangeEmitters.subscribe("behind");
+
+    when(eventChangeService.getHead()).thenReturn(HEAD);
+    when(eventChangeService.getChanges("behind", EventChangeEmitters.PAGE_SIZE))
+        .thenReturn(
+            EventChangePageDto.builder()
+                .changes(List.of(EventChangeDto.builder().type(EventChangeType.CREATED).build()))
+                .next(HEAD)
+                .build());
+    eventChangeEmitters.poll();
+    eventChangeEmitters.poll();
+
+    verify(eventChangeService, times(1)).getChanges(anyString(), anyInt());
+    verify(eventChangeService, never()).getChanges(eq(HEAD), anyInt());
+  }
+
+  @Test
+  void testPollEndsOnlyStreamWithExpiredToken() {
+    eventChangeEmitters.subscribe("expired");
+    eventChangeEmitters.subscribe("behind");
+
+    when(eventChangeService.getHead()).thenReturn(HEAD);
+    when(eventChangeService.getChanges("expired", EventChangeEmitters.PAGE_SIZE))
+        .thenThrow(new EventChangesExpiredException("expired"));
+    when(eventChangeService.getChanges("behind", EventChangeEmitters.PAGE_SIZE))
+        .thenReturn(EventChangePageDto.builder().changes(List.of()).next("behind").build());
+    eventChangeEmitters.poll();
+
+    assertEquals(1, eventChangeEmitters.getSubscriberCount());
+    verify(eventChangeService).getChanges("behind", EventChangeEmitters.PAGE_SIZE);
+  }
+
+  @Test
+  void testPollWithoutStreamsDoesNotReadChangeLog() {
+    eventChangeEmitters.poll();
+
+    verify(eventChangeService, never()).getHead();
+    assertEquals(0, eventChangeEmitters.getSubscriberCount());
+  }
+}
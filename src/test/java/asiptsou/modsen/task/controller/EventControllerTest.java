@@ -1,39 +1,66 @@
 package asiptsou.modsen.task.controller;
 
 import asiptsou.modsen.task.exception.GlobalDefaultExceptionHandler;
+import asiptsou.modsen.task.dto.EventBatchResultDto;
 import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventBatchStatus;
 import asiptsou.modsen.task.model.EventFilter;
 import asiptsou.modsen.task.service.EventService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.hibernate.exception.JDBCConnectionException;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
+import static asiptsou.modsen.task.controller.EventIdempotencyKeys.IDEMPOTENCY_KEY_HEADER;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,11 +69,15 @@ class EventControllerTest {
   public static final String EVENT_URL = "/api/events";
   public static final String ID_VARIABLE = "/{id}";
   public static final String FILTER = "/filter";
+  public static final String EXPORT = "/export";
+  public static final String BATCH = "/batch";
   public static final Long EXIST_ID = 99L;
   public static final Long NOT_EXIST_ID = -2L;
   public static final int MODIFIED_ROW_AFTER_DELETING = 1;
   public static final int UNMODIFIED_ROW_AFTER_DELETING = 0;
   public static final String NOT_VALID_FIELD = "top";
+  public static final int DEFAULT_LIMIT = 100;
+  public static final String CURSOR = "cursor";
 
   private MockMvc mvc;
   private EventDto eventDto;
@@ -54,13 +85,24 @@ class EventControllerTest {
   private ObjectMapper objectMapper;
 
   @Mock private EventService eventService;
-  @InjectMocks private EventController eventController;
 
   @BeforeEach
   void setUp() {
+    objectMapper = new ObjectMapper();
+    objectMapper.registerModule(new JavaTimeModule());
+
+    FormattingConversionService conversionService = new DefaultFormattingConversionService();
+    conversionService.addFormatterForFieldAnnotation(new EventDateFormatterFactory());
+
     mvc =
-        MockMvcBuilders.standaloneSetup(eventController)
+        MockMvcBuilders.standaloneSetup(
+                new EventController(
+                    eventService,
+                    objectMapper,
+                    new EventIdempotencyKeys(
+                        new SimpleMeterRegistry(), 100, Duration.ofMinutes(1))))
             .setControllerAdvice(new GlobalDefaultExceptionHandler())
+            .setConversionService(conversionService)
             .build();
 
     eventDto =
@@ -82,10 +124,8 @@ class EventControllerTest {
             .topicSortDirection("asc")
             .organizerSortDirection("asc")
             .dateSortDirection("asc")
+            .limit(DEFAULT_LIMIT)
             .build();
-
-    objectMapper = new ObjectMapper();
-    objectMapper.registerModule(new JavaTimeModule());
   }
 
   @Test
@@ -112,6 +152,43 @@ class EventControllerTest {
     verify(eventService).getById(anyLong());
   }
 
+  @Test
+  void testGetByIdReturnsVersionAsETag() throws Exception {
+    eventDto.setVersion(3L);
+    when(eventService.getById(EXIST_ID)).thenReturn(eventDto);
+
+    mvc.perform(get(EVENT_URL + ID_VARIABLE, EXIST_ID))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+  }
+
+  @Test
+  void testGetByIdWhenETagMatches() throws Exception {
+    eventDto.setVersion(3L);
+    when(eventService.getById(EXIST_ID)).thenReturn(eventDto);
+
+    mvc.perform(
+            get(EVENT_URL + ID_VARIABLE, EXIST_ID).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+        .andDo(print())
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void testGetByIdWhenETagIsOutdated() throws Exception {
+    eventDto.setVersion(4L);
+    when(eventService.getById(EXIST_ID)).thenReturn(eventDto);
+
+    mvc.perform(
+            get(EVENT_URL + ID_VARIABLE, EXIST_ID).header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(4));
+  }
+
   @Test
   void testSaveWhenDtoValid() throws Exception {
     when(eventService.save(eventDto)).thenReturn(eventDto);
@@ -126,6 +203,43 @@ class EventControllerTest {
     verify(eventService).save(eventDto);
   }
 
+  @Test
+  void testSaveWithSameIdempotencyKeySavesOnce() throws Exception {
+    when(eventService.save(eventDto)).thenReturn(eventDto);
+
+    for (int i = 0; i < 2; i++) {
+      mvc.perform(
+              post(EVENT_URL)
+                  .header(IDEMPOTENCY_KEY_HEADER, "key")
+                  .contentType(APPLICATION_JSON)
+                  .content(objectMapper.writeValueAsString(eventDto)))
+          .andExpect(status().isCreated())
+          .andExpect(jsonPath("$.id").value(1));
+    }
+
+    verify(eventService, times(1)).save(eventDto);
+  }
+
+  @Test
+  void testSaveWithIdempotencyKeyOfAnotherEvent() throws Exception {
+    when(eventService.save(eventDto)).thenReturn(eventDto);
+    mvc.perform(
+            post(EVENT_URL)
+                .header(IDEMPOTENCY_KEY_HEADER, "key")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(eventDto)))
+        .andExpect(status().isCreated());
+    eventDto.setTopic("another topic");
+
+    mvc.perform(
+            post(EVENT_URL)
+                .header(IDEMPOTENCY_KEY_HEADER, "key")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(eventDto)))
+        .andDo(print())
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void testSaveWhenDtoNotValid() throws Exception {
     eventDto.setTopic(NOT_VALID_FIELD);
@@ -140,13 +254,144 @@ class EventControllerTest {
     verify(eventService, never()).save(eventDto);
   }
 
+  @Test
+  void testSaveAll_ok() throws Exception {
+    when(eventService.saveAll(List.of(eventDto)))
+        .thenReturn(
+            List.of(
+                EventBatchResultDto.builder()
+                    .index(0)
+                    .id(1L)
+                    .status(EventBatchStatus.CREATED)
+                    .build()));
+
+    mvc.perform(
+            post(EVENT_URL + BATCH)
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(eventDto))))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(1))
+        .andExpect(jsonPath("$[0].status").value("CREATED"));
+
+    verify(eventService).saveAll(List.of(eventDto));
+  }
+
   @Test
   void testGetAll_ok() throws Exception {
-    when(eventService.getAll()).thenReturn(List.of(eventDto));
+    when(eventService.getAll(null, DEFAULT_LIMIT, null))
+        .thenReturn(EventPageDto.builder().events(List.of(eventDto)).next(CURSOR).build());
+
+    mvc.perform(get(EVENT_URL))
+        .andDo(print())
+        .andExpect(jsonPath("$.events[0].topic").value("topic"))
+        .andExpect(jsonPath("$.next").value(CURSOR))
+        .andExpect(status().isOk());
+
+    verify(eventService).getAll(null, DEFAULT_LIMIT, null);
+  }
 
-    mvc.perform(get(EVENT_URL)).andDo(print()).andExpect(status().isOk());
+  @Test
+  void testGetAllWhenWeakETagMatches() throws Exception {
+    eventDto.setVersion(1L);
+    EventPageDto eventPage = EventPageDto.builder().events(List.of(eventDto)).next(CURSOR).build();
+    when(eventService.getAll(null, DEFAULT_LIMIT, null)).thenReturn(eventPage);
+    String etag = EventController.toWeakETag(eventPage);
 
-    verify(eventService).getAll();
+    mvc.perform(get(EVENT_URL).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andDo(print())
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void testWeakETagChangesWithVersionsAndIds() {
+    EventDto first = EventDto.builder().id(1L).version(1L).build();
+    EventDto second = EventDto.builder().id(2L).version(1L).build();
+    String etag = EventController.toWeakETag(page(first, second));
+
+    assertEquals(etag, EventController.toWeakETag(page(first.toBuilder().build(), second)));
+    assertNotEquals(
+        etag, EventController.toWeakETag(page(first, second.toBuilder().version(2L).build())));
+    assertNotEquals(etag, EventController.toWeakETag(page(first)));
+    assertNotEquals(etag, EventController.toWeakETag(page(second, first)));
+    assertNull(EventController.toWeakETag(page(EventDto.builder().id(1L).build())));
+  }
+
+  @Test
+  void testGetAllAsCbor() throws Exception {
+    when(eventService.getAll(null, DEFAULT_LIMIT, null))
+        .thenReturn(EventPageDto.builder().events(List.of(eventDto)).next(CURSOR).build());
+
+    byte[] cbor =
+        mvc.perform(get(EVENT_URL).accept(MediaType.APPLICATION_CBOR))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    EventPageDto eventPage = new CBORMapper().readValue(cbor, EventPageDto.class);
+    assertEquals(eventDto, eventPage.getEvents().get(0));
+    assertEquals(CURSOR, eventPage.getNext());
+  }
+
+  @Test
+  void testGetAllWithCursorAndLimit() throws Exception {
+    when(eventService.getAll(CURSOR, 5, null))
+        .thenReturn(EventPageDto.builder().events(List.of(eventDto)).build());
+
+    mvc.perform(get(EVENT_URL).param("cursor", CURSOR).param("limit", "5"))
+        .andDo(print())
+        .andExpect(status().isOk());
+
+    verify(eventService).getAll(CURSOR, 5, null);
+  }
+
+  @Test
+  void testGetAllWithFields() throws Exception {
+    EventDto selected = EventDto.builder().topic("topic").build();
+    when(eventService.getAll(null, DEFAULT_LIMIT, "topic"))
+        .thenReturn(EventPageDto.builder().events(List.of(selected)).build());
+
+    mvc.perform(get(EVENT_URL).param("fields", "topic"))
+        .andDo(print())
+        .andExpect(jsonPath("$.events[0].topic").value("topic"))
+        .andExpect(jsonPath("$.events[0].id").doesNotExist())
+        .andExpect(jsonPath("$.events[0].date").doesNotExist())
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testExport_ok() throws Exception {
+    doAnswer(
+            invocation -> {
+              Consumer<EventDto> action = invocation.getArgument(0);
+              action.accept(eventDto);
+              action.accept(eventDto);
+              return null;
+            })
+        .when(eventService)
+        .exportAll(any(Consumer.class));
+
+    String line =
+        "{\"id\":1,\"topic\":\"topic\",\"description\":\"description\","
+            + "\"organizer\":\"organizer\",\"date\":\"15-06-2025 22:49\",\"location\":\"location\"}\n";
+
+    mvc.perform(
+            asyncDispatch(
+                mvc.perform(get(EVENT_URL + EXPORT))
+                    .andExpect(request().asyncStarted())
+                    .andReturn()))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/x-ndjson"))
+        .andExpect(content().string(line + line));
+
+    verify(eventService).exportAll(any(Consumer.class));
   }
 
   @Test
@@ -201,9 +446,110 @@ class EventControllerTest {
     verify(eventService).update(anyLong(), eq(eventDto));
   }
 
+  @Test
+  void testUpdateWithIfMatchChecksVersion() throws Exception {
+    mvc.perform(
+            put(EVENT_URL + ID_VARIABLE, EXIST_ID)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(eventDto)))
+        .andExpect(status().isNoContent());
+
+    ArgumentCaptor<EventDto> captor = ArgumentCaptor.forClass(EventDto.class);
+    verify(eventService).update(eq(EXIST_ID.longValue()), captor.capture());
+    assertEquals(3L, captor.getValue().getVersion());
+  }
+
+  @Test
+  void testUpdateWithMalformedIfMatch() throws Exception {
+    mvc.perform(
+            put(EVENT_URL + ID_VARIABLE, EXIST_ID)
+                .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(eventDto)))
+        .andExpect(status().isBadRequest());
+
+    verify(eventService, never()).update(anyLong(), any());
+  }
+
+  @Test
+  void testUpdateWhenVersionConflicts() throws Exception {
+    doThrow(new OptimisticLockingFailureException("conflict"))
+        .when(eventService)
+        .update(anyLong(), any());
+
+    mvc.perform(
+            put(EVENT_URL + ID_VARIABLE, EXIST_ID)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(eventDto)))
+        .andExpect(status().isConflict());
+  }
+
+  @Test
+  void testGetEventByFilterWhenConnectionPoolIsExhausted() throws Exception {
+    when(eventService.getListEventByFilter(any()))
+        .thenThrow(new CannotCreateTransactionException("Could not open Hibernate Session"));
+
+    mvc.perform(get(EVENT_URL + FILTER))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+  }
+
+  @Test
+  void testGetEventByFilterWhenConnectionPoolIsExhaustedWithReplicas() throws Exception {
+    when(eventService.getListEventByFilter(any()))
+        .thenThrow(
+            new DataAccessResourceFailureException(
+                "could not prepare statement",
+                new JDBCConnectionException(
+                    "could not prepare statement",
+                    new SQLTransientConnectionException(
+                        "event-pool - Connection is not available, request timed out"))));
+
+    mvc.perform(get(EVENT_URL + FILTER))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+  }
+
+  @Test
+  void testGetEventByFilterWithFullTextSearch() throws Exception {
+    eventFilter.setQ("music festival");
+    when(eventService.getListEventByFilter(eventFilter))
+        .thenReturn(EventPageDto.builder().events(List.of(eventDto)).build());
+
+    mvc.perform(
+            get(EVENT_URL + FILTER)
+                .param("topic", "topic")
+                .param("organizer", "organizer")
+                .param("topicSortDirection", "asc")
+                .param("organizerSortDirection", "asc")
+                .param("dateSortDirection", "asc")
+                .param("q", "music festival"))
+        .andDo(print())
+        .andExpect(status().isOk());
+
+    verify(eventService).getListEventByFilter(eventFilter);
+  }
+
+  @Test
+  void testGetEventByFilterVariesETaggedPageByAccept() throws Exception {
+    eventDto.setVersion(1L);
+    EventPageDto eventPage = EventPageDto.builder().events(List.of(eventDto)).build();
+    when(eventService.getListEventByFilter(any())).thenReturn(eventPage);
+
+    mvc.perform(get(EVENT_URL + FILTER).accept(MediaType.APPLICATION_CBOR))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+        .andExpect(header().string(HttpHeaders.ETAG, EventController.toWeakETag(eventPage)))
+        .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+  }
+
   @Test
   void testGetEventByFilter_ok() throws Exception {
-    when(eventService.getListEventByFilter(eventFilter)).thenReturn(List.of(eventDto));
+    when(eventService.getListEventByFilter(eventFilter))
+        .thenReturn(EventPageDto.builder().events(List.of(eventDto)).build());
 
     mvc.perform(
             get(EVENT_URL + FILTER)
@@ -217,4 +563,39 @@ class EventControllerTest {
 
     verify(eventService).getListEventByFilter(eventFilter);
   }
+
+  @Test
+  void testGetEventByFilterWithDates() throws Exception {
+    eventFilter.setFromDate(LocalDateTime.of(2025, 6, 15, 22, 49));
+    eventFilter.setToDate(LocalDateTime.of(2025, 12, 31, 0, 0));
+    when(eventService.getListEventByFilter(eventFilter))
+        .thenReturn(EventPageDto.builder().events(List.of(eventDto)).build());
+
+    mvc.perform(
+            get(EVENT_URL + FILTER)
+                .param("topic", "topic")
+                .param("organizer", "organizer")
+                .param("topicSortDirection", "asc")
+                .param("organizerSortDirection", "asc")
+                .param("dateSortDirection", "asc")
+                .param("fromDate", "15-06-2025 22:49")
+                .param("toDate", "31-12-2025 00:00"))
+        .andDo(print())
+        .andExpect(status().isOk());
+
+    verify(eventService).getListEventByFilter(eventFilter);
+  }
+
+  @Test
+  void testGetEventByFilterWhenDateIsNotValid() throws Exception {
+    mvc.perform(get(EVENT_URL + FILTER).param("fromDate", "2025-06-15T22:49"))
+        .andDo(print())
+        .andExpect(status().isBadRequest());
+
+    verify(eventService, never()).getListEventByFilter(any());
+  }
+
+  private static EventPageDto page(EventDto... eventDtos) {
+    return EventPageDto.builder().events(List.of(eventDtos)).build();
+  }
 }
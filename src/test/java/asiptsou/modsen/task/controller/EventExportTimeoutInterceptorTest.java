@@ -0,0 +1,44 @@
+package asiptsou.modsen.task.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventExportTimeoutInterceptorTest {
+
+  private static final long DEFAULT_TIMEOUT = 30_000;
+
+  private final EventExportTimeoutInterceptor interceptor =
+      new EventExportTimeoutInterceptor(Duration.ofHours(1));
+  private final MockHttpServletRequest servletRequest = new MockHttpServletRequest();
+  private final StandardServletAsyncWebRequest request =
+      new StandardServletAsyncWebRequest(servletRequest, new MockHttpServletResponse());
+
+  @Test
+  void testExportGetsItsOwnTimeout() {
+    servletRequest.setAsyncSupported(true);
+    request.setTimeout(DEFAULT_TIMEOUT);
+    EventExportTimeoutInterceptor.markExport(request);
+
+    interceptor.beforeConcurrentHandling(request, () -> null);
+    request.startAsync();
+
+    assertEquals(Duration.ofHours(1).toMillis(), servletRequest.getAsyncContext().getTimeout());
+  }
+
+  @Test
+  void testOtherRequestsKeepDefaultTimeout() {
+    servletRequest.setAsyncSupported(true);
+    request.setTimeout(DEFAULT_TIMEOUT);
+
+    interceptor.beforeConcurrentHandling(request, () -> null);
+    request.startAsync();
+
+    assertEquals(DEFAULT_TIMEOUT, servletRequest.getAsyncContext().getTimeout());
+  }
+}
@@ -0,0 +1,60 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.dto.EventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventIdempotencyKeysTest {
+
+  public static final String KEY = "key";
+
+  private final EventIdempotencyKeys eventIdempotencyKeys =
+      new EventIdempotencyKeys(new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+  private final EventDto eventDto = EventDto.builder().topic("topic").build();
+  private final AtomicInteger saves = new AtomicInteger();
+
+  @Test
+  void testFailedSaveCanBeRetried() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            eventIdempotencyKeys.save(
+                KEY,
+                eventDto,
+                event -> {
+                  throw new IllegalStateException();
+                }));
+
+    EventDto saved = eventIdempotencyKeys.save(KEY, eventDto, this::saveWithId);
+    EventDto retried = eventIdempotencyKeys.save(KEY, eventDto, this::saveWithId);
+
+    assertEquals(1L, saved.getId());
+    assertEquals(1L, retried.getId());
+    assertEquals(1, saves.get());
+  }
+
+  @Test
+  void testSaveWithoutKeyAlwaysSaves() {
+    eventIdempotencyKeys.save(null, eventDto, this::saveWithId);
+    eventIdempotencyKeys.save(null, eventDto, this::saveWithId);
+
+    assertEquals(2, saves.get());
+  }
+
+  @Test
+  void testTooLongKeyIsRejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> eventIdempotencyKeys.save("k".repeat(256), eventDto, this::saveWithId));
+  }
+
+  private EventDto saveWithId(EventDto event) {
+    return event.toBuilder().id((long) saves.incrementAndGet()).build();
+  }
+}
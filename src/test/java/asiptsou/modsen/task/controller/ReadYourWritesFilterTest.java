@@ -0,0 +1,67 @@
+package asiptsou.modsen.task.controller;
+
+import asiptsou.modsen.task.config.ReadReplicaRoutingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.Cookie;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static asiptsou.modsen.task.controller.ReadYourWritesFilter.READ_PRIMARY_COOKIE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTest {
+
+  private ReadYourWritesFilter readYourWritesFilter;
+  private MockHttpServletResponse response;
+  private AtomicBoolean primaryRequired;
+  private FilterChain filterChain;
+
+  @BeforeEach
+  void setUp() {
+    readYourWritesFilter = new ReadYourWritesFilter(Duration.ofMillis(5500));
+    response = new MockHttpServletResponse();
+    primaryRequired = new AtomicBoolean();
+    filterChain =
+        (request, response) ->
+            primaryRequired.set(ReadReplicaRoutingDataSource.isPrimaryRequired());
+  }
+
+  @Test
+  void testWriteSetsCookie() throws Exception {
+    readYourWritesFilter.doFilter(
+        new MockHttpServletRequest("POST", "/api/events"), response, filterChain);
+
+    Cookie cookie = response.getCookie(READ_PRIMARY_COOKIE);
+    assertEquals(6, cookie.getMaxAge());
+    assertFalse(primaryRequired.get());
+  }
+
+  @Test
+  void testReadWithCookieRequiresPrimary() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/events");
+    request.setCookies(new Cookie(READ_PRIMARY_COOKIE, "1"));
+
+    readYourWritesFilter.doFilter(request, response, filterChain);
+
+    assertTrue(primaryRequired.get());
+    assertFalse(ReadReplicaRoutingDataSource.isPrimaryRequired());
+    assertNull(response.getCookie(READ_PRIMARY_COOKIE));
+  }
+
+  @Test
+  void testReadWithoutCookie() throws Exception {
+    readYourWritesFilter.doFilter(
+        new MockHttpServletRequest("GET", "/api/events"), response, filterChain);
+
+    assertFalse(primaryRequired.get());
+    assertNull(response.getCookie(READ_PRIMARY_COOKIE));
+  }
+}
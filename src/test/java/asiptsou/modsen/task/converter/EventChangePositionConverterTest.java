@@ -0,0 +1,41 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.model.EventChangePosition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventChangePositionConverterTest {
+
+  private EventChangePositionConverter positionConverter;
+
+  @BeforeEach
+  void setUp() {
+    positionConverter = new EventChangePositionConverter();
+  }
+
+  @Test
+  void testTokenRoundTrip() {
+    String token = positionConverter.toToken(new EventChangePosition(33439L, 12L));
+
+    EventChangePosition actual = positionConverter.fromToken(token);
+
+    assertEquals(33439L, actual.getXid());
+    assertEquals(12L, actual.getSeq());
+  }
+
+  @Test
+  void testEqualPositionsHaveEqualTokens() {
+    assertEquals(
+        positionConverter.toToken(new EventChangePosition(7L, 3L)),
+        positionConverter.toToken(new EventChangePosition(7L, 3L)));
+  }
+
+  @Test
+  void testFromTokenWhenTokenIsNotValid() {
+    assertThrows(IllegalArgumentException.class, () -> positionConverter.fromToken("not a token"));
+    assertThrows(IllegalArgumentException.class, () -> positionConverter.fromToken("AAAA"));
+  }
+}
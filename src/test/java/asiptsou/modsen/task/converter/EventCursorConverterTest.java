@@ -0,0 +1,71 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.model.EventCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static asiptsou.modsen.task.model.EventFilter.RELEVANCE_SORTING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventCursorConverterTest {
+
+  public static final String SORTING = "topic:asc,date:desc";
+  public static final LocalDateTime DATE = LocalDateTime.of(2025, 6, 15, 22, 49);
+
+  private EventCursorConverter cursorConverter;
+
+  @BeforeEach
+  void setUp() {
+    cursorConverter = new EventCursorConverter();
+  }
+
+  @Test
+  void testTokenRoundTrip() {
+    EventCursor cursor =
+        EventCursor.builder()
+            .sorting(SORTING)
+            .id(42L)
+            .topic("topic, with separators: /+=")
+            .date(DATE)
+            .build();
+
+    EventCursor actual = cursorConverter.fromToken(cursorConverter.toToken(cursor));
+
+    assertEquals(SORTING, actual.getSorting());
+    assertEquals(42L, actual.getId());
+    assertEquals("topic, with separators: /+=", actual.getTopic());
+    assertNull(actual.getOrganizer());
+    assertEquals(DATE, actual.getDate());
+  }
+
+  @Test
+  void testTokenRoundTripWithRank() {
+    EventCursor cursor =
+        EventCursor.builder().sorting(RELEVANCE_SORTING).id(42L).rank(0.0607927f).build();
+
+    EventCursor actual = cursorConverter.fromToken(cursorConverter.toToken(cursor));
+
+    assertEquals(RELEVANCE_SORTING, actual.getSorting());
+    assertEquals(0.0607927f, actual.getRank());
+  }
+
+  @Test
+  void testFromTokenWhenRankIsMissing() {
+    String token =
+        cursorConverter.toToken(EventCursor.builder().sorting(RELEVANCE_SORTING).id(42L).build());
+
+    assertThrows(IllegalArgumentException.class, () -> cursorConverter.fromToken(token));
+  }
+
+  @Test
+  void testFromTokenWhenNotValid() {
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> cursorConverter.fromToken("bad"));
+
+    assertEquals("Cursor is not valid: bad", exception.getMessage());
+  }
+}
@@ -0,0 +1,111 @@
+package asiptsou.modsen.task.converter;
+
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventPageDto;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static asiptsou.modsen.task.converter.EventProtobufHttpMessageConverter.APPLICATION_PROTOBUF;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventProtobufHttpMessageConverterTest {
+
+  private EventProtobufHttpMessageConverter protobufConverter;
+  private EventDto eventDto;
+
+  @BeforeEach
+  void setUp() {
+    protobufConverter = new EventProtobufHttpMessageConverter();
+    eventDto =
+        EventDto.builder()
+            .id(300L)
+            .version(2L)
+            .topic("topic")
+            .description("description")
+            .organizer("organizer")
+            .date(LocalDateTime.of(2025, 6, 15, 22, 49))
+            .location("location")
+            .build();
+  }
+
+  @Test
+  void testWritePage() throws IOException {
+    EventDto selected = EventDto.builder().topic("тема").build();
+    MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+    protobufConverter.write(
+        EventPageDto.builder().events(List.of(eventDto, selected)).next("next").build(),
+        APPLICATION_PROTOBUF,
+        outputMessage);
+
+    CodedInputStream input = CodedInputStream.newInstance(outputMessage.getBodyAsBytes());
+    assertEquals(tag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    assertEvent(input.readBytes().newCodedInput());
+    assertEquals(tag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    CodedInputStream second = input.readBytes().newCodedInput();
+    assertEquals(tag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED), second.readTag());
+    assertEquals("тема", second.readString());
+    assertTrue(second.isAtEnd());
+    assertEquals(tag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    assertEquals("next", input.readString());
+    assertTrue(input.isAtEnd());
+  }
+
+  @Test
+  void testWriteDelimited() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    EventProtobufHttpMessageConverter.writeDelimited(eventDto, output);
+    EventProtobufHttpMessageConverter.writeDelimited(eventDto, output);
+    output.flush();
+
+    CodedInputStream input = CodedInputStream.newInstance(bytes.toByteArray());
+    for (int i = 0; i < 2; i++) {
+      int limit = input.pushLimit(input.readRawVarint32());
+      assertEvent(input);
+      input.popLimit(limit);
+    }
+    assertTrue(input.isAtEnd());
+  }
+
+  @Test
+  void testOnlyEventsAreWritten() {
+    assertTrue(protobufConverter.canWrite(EventDto.class, APPLICATION_PROTOBUF));
+    assertTrue(protobufConverter.canWrite(EventPageDto.class, APPLICATION_PROTOBUF));
+    assertFalse(protobufConverter.canWrite(String.class, APPLICATION_PROTOBUF));
+    assertFalse(protobufConverter.canRead(EventDto.class, APPLICATION_PROTOBUF));
+  }
+
+  private static void assertEvent(CodedInputStream input) throws IOException {
+    assertEquals(tag(1, WireFormat.WIRETYPE_VARINT), input.readTag());
+    assertEquals(300L, input.readInt64());
+    assertEquals(tag(2, WireFormat.WIRETYPE_VARINT), input.readTag());
+    assertEquals(2L, input.readInt64());
+    assertEquals(tag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    assertEquals("topic", input.readString());
+    assertEquals(tag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    assertEquals("description", input.readString());
+    assertEquals(tag(5, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    assertEquals("organizer", input.readString());
+    assertEquals(tag(6, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    assertEquals("15-06-2025 22:49", input.readString());
+    assertEquals(tag(7, WireFormat.WIRETYPE_LENGTH_DELIMITED), input.readTag());
+    assertEquals("location", input.readString());
+    assertTrue(input.isAtEnd());
+  }
+
+  private static int tag(int field, int wireType) {
+    return field << 3 | wireType;
+  }
+}
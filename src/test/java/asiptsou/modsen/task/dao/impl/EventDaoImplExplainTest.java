@@ -0,0 +1,204 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static asiptsou.modsen.task.dao.impl.EventDaoImpl.LIKE_ESCAPE;
+import static asiptsou.modsen.task.model.EventFilter.ASCENDING_SORTING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the queries Hibernate renders for {@link EventDaoImpl#getAllByFilter} are served by
+ * the indexes from the changelog, explained with values bound as they are when run. EVENT is
+ * partitioned, so the plans read each partition by its own copy of the index, named after the
+ * partition. Needs Docker and is skipped without it.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class EventDaoImplExplainTest {
+
+  public static final int EVENT_COUNT = 200_000;
+  private static final int LIMIT = 101;
+  private static final LocalDateTime FROM = LocalDateTime.of(2021, 2, 1, 0, 0);
+  private static final List<EventField> ALL_FIELDS = List.of(EventField.values());
+  private static final Pattern PARTITION = Pattern.compile("event_p(\\d{6}|default)");
+
+  @Container
+  private static final PostgreSQLContainer<?> POSTGRES =
+      new PostgreSQLContainer<>("postgres:13.1-alpine");
+
+  private static boolean seeded;
+  private static Set<String> seededPartitions;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private SessionFactory sessionFactory;
+
+  @DynamicPropertySource
+  static void datasourceProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+    registry.add("spring.datasource.username", POSTGRES::getUsername);
+    registry.add("spring.datasource.password", POSTGRES::getPassword);
+  }
+
+  @Test
+  void testDateRangeUsesDateIndex() {
+    assertIndexScan(
+        EventFilter.builder()
+            .fromDate(FROM)
+            .toDate(FROM.plusDays(1))
+            .isSortDate(true)
+            .dateSortDirection(ASCENDING_SORTING)
+            .build(),
+        null,
+        "date_id_idx",
+        FROM,
+        FROM.plusDays(1));
+  }
+
+  @Test
+  void testDateSortingPageUsesDateIndex() {
+    LocalDateTime cursorDate = FROM.plusHours(1);
+    assertIndexScan(
+        EventFilter.builder()
+            .fromDate(FROM)
+            .isSortDate(true)
+            .dateSortDirection(ASCENDING_SORTING)
+            .build(),
+        EventCursor.builder().id(500).date(cursorDate).build(),
+        "date_id_idx",
+        FROM,
+        cursorDate,
+        cursorDate,
+        cursorDate);
+  }
+
+  @Test
+  void testOrganizerAndDateSortingUsesCompositeIndex() {
+    assertIndexScan(
+        EventFilter.builder()
+            .isSortOrganizer(true)
+            .organizerSortDirection(ASCENDING_SORTING)
+            .isSortDate(true)
+            .dateSortDirection(ASCENDING_SORTING)
+            .build(),
+        null,
+        "organizer_date_idx");
+  }
+
+  @Test
+  void testTopicSubstringUsesTrigramIndex() {
+    assertIndexScan(
+        EventFilter.builder().topic("c 4242").build(),
+        null,
+        "topic_idx",
+        "%c 4242%",
+        LIKE_ESCAPE);
+  }
+
+  @Test
+  void testFullTextSearchUsesFullTextIndex() {
+    assertIndexScan(
+        EventFilter.builder().q("organizer42").build(),
+        null,
+        "to_tsvector_idx",
+        "organizer42",
+        "organizer42");
+  }
+
+  /**
+   * Asserts that partitions holding events are read by their index ending with {@code indexSuffix},
+   * e.g. event_p202102_date_id_idx, and none of them by a sequential scan. Empty partitions are
+   * left out, scanning them sequentially costs the same. The plan is of the SQL Hibernate renders
+   * for the filter, explained with {@code parameters} bound in their order and the limit last.
+   */
+  private void assertIndexScan(
+      EventFilter eventFilter, EventCursor after, String indexSuffix, Object... parameters) {
+    seed();
+    Object[] boundParameters = Arrays.copyOf(parameters, parameters.length + 1);
+    boundParameters[parameters.length] = LIMIT;
+    List<String> plan =
+        jdbcTemplate.queryForList(
+            "explain " + render(eventFilter, after), String.class, boundParameters);
+    String planText = String.join("\n", plan);
+    int indexScans = 0;
+    for (String node : plan) {
+      Matcher partition = PARTITION.matcher(node);
+      if (!partition.find() || !seededPartitions.contains(partition.group())) {
+        continue;
+      }
+      assertFalse(node.contains("Seq Scan"), planText);
+      if (node.contains("Index Scan") || node.contains("Index Only Scan")) {
+        assertTrue(node.contains(partition.group() + "_" + indexSuffix), planText);
+        indexScans++;
+      }
+    }
+    assertTrue(indexScans > 0, planText);
+  }
+
+  /** Runs the filter query as the DAO does and returns the SQL Hibernate sent for it. */
+  private String render(EventFilter eventFilter, EventCursor after) {
+    List<String> statements = new ArrayList<>();
+    try (Session session =
+        sessionFactory
+            .withOptions()
+            .statementInspector(
+                sql -> {
+                  statements.add(sql);
+                  return sql;
+                })
+            .openSession()) {
+      new EventDaoImpl(sessionFactory)
+          .createFilterQuery(session, eventFilter, ALL_FIELDS, after, LIMIT)
+          .setCacheable(false)
+          .list();
+    }
+    assertEquals(1, statements.size(), statements::toString);
+    return statements.get(0);
+  }
+
+  private void seed() {
+    if (seeded) {
+      return;
+    }
+    // only months from now on have partitions yet, events before would all go to the default one;
+    // two months of events keep the partitions big enough for their indexes to pay off
+    jdbcTemplate.queryForObject(
+        "select create_event_partitions('event', timestamp '2021-01-01', timestamp '2021-02-01')",
+        Integer.class);
+    jdbcTemplate.update(
+        "insert into event (id, version, topic, description, organizer, date, location) "
+            + "select nextval('event_id_sequence'), 0, 'topic ' || i, 'description ' || i, "
+            + "'organizer' || (i % 1000), timestamp '2021-01-01' + i * interval '25 seconds', "
+            + "'location ' || (i % 100) from generate_series(1, ?) as i",
+        EVENT_COUNT);
+    jdbcTemplate.execute("analyze event");
+    seededPartitions =
+        new HashSet<>(
+            jdbcTemplate.queryForList(
+                "select distinct tableoid::regclass::text from event", String.class));
+    seeded = true;
+  }
+}
@@ -0,0 +1,77 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.converter.EventConverter;
+import asiptsou.modsen.task.dao.index.EventIndex;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.model.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndexedEventDaoTest {
+
+  public static final long ID = 1L;
+
+  private Event event;
+
+  @Mock private EventDaoImpl eventDao;
+  @Mock private EventConverter eventConverter;
+
+  @BeforeEach
+  void setUp() {
+    TransactionSynchronizationManager.initSynchronization();
+    event = new Event();
+    event.setId(ID);
+    event.setVersion(0L);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @Test
+  void testWritesBeforeIndexIsLoadedCommit() {
+    EventIndex eventIndex = new EventIndex(100);
+    IndexedEventDao indexedEventDao = new IndexedEventDao(eventDao, eventIndex, eventConverter);
+    when(eventDao.save(event)).thenReturn(event);
+    when(eventDao.delete(ID)).thenReturn(1);
+    when(eventConverter.toDto(event)).thenReturn(EventDto.builder().id(ID).version(0L).build());
+
+    indexedEventDao.save(event);
+    indexedEventDao.delete(ID);
+    commit();
+
+    assertFalse(eventIndex.isLoaded());
+    assertEquals(0, eventIndex.size());
+  }
+
+  @Test
+  void testFailureOfIndexDoesNotFailCommittedWrite() {
+    EventIndex eventIndex = mock(EventIndex.class);
+    IndexedEventDao indexedEventDao = new IndexedEventDao(eventDao, eventIndex, eventConverter);
+    when(eventDao.save(event)).thenReturn(event);
+    doThrow(IllegalStateException.class).when(eventIndex).put(any());
+
+    indexedEventDao.save(event);
+    commit();
+  }
+
+  private static void commit() {
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+  }
+}
@@ -0,0 +1,74 @@
+package asiptsou.modsen.task.dao.impl;
+
+import asiptsou.modsen.task.dao.impl.ReactiveEventDaoImpl.SqlQuery;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static asiptsou.modsen.task.dto.EventField.DATE;
+import static asiptsou.modsen.task.dto.EventField.ID;
+import static asiptsou.modsen.task.dto.EventField.TOPIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveEventDaoImplTest {
+
+  public static final List<EventField> COLUMNS = List.of(ID, TOPIC, DATE);
+  public static final LocalDateTime DATE_VALUE = LocalDateTime.of(2025, 6, 15, 22, 49);
+
+  @Test
+  void createAllQuery_shouldSeekAfterCursorId() {
+    SqlQuery query =
+        ReactiveEventDaoImpl.createAllQuery(COLUMNS, EventCursor.builder().id(7L).build(), 11);
+
+    assertEquals(
+        "select id, topic, date from event where id > :afterId order by id limit :limit",
+        query.sql.toString());
+    assertEquals(Map.of("afterId", 7L, "limit", 11), query.parameters);
+  }
+
+  @Test
+  void createFilterQuery_shouldEscapeLikeAndSeekBySortKeys() {
+    EventFilter eventFilter =
+        EventFilter.builder()
+            .topic("50%_off")
+            .isSortDate(true)
+            .dateSortDirection(EventFilter.DESCENDING_SORTING)
+            .build();
+    EventCursor after = EventCursor.builder().id(7L).date(DATE_VALUE).build();
+
+    SqlQuery query = ReactiveEventDaoImpl.createFilterQuery(eventFilter, COLUMNS, after, 0);
+
+    assertEquals(
+        "select id, topic, date from event where topic like :topic escape '\\'"
+            + " and date <= :cursorDate"
+            + " and ((date < :cursorDate) or (date = :cursorDate and id > :cursorId))"
+            + " order by date desc, id asc",
+        query.sql.toString());
+    assertEquals("%50\\%\\_off%", query.parameters.get("topic"));
+    assertEquals(DATE_VALUE, query.parameters.get("cursorDate"));
+    assertEquals(7L, query.parameters.get("cursorId"));
+  }
+
+  @Test
+  void createFilterQuery_shouldSortByRankFirst_andSeekAfterRankOfCursor() {
+    EventFilter eventFilter = EventFilter.builder().q("rock concert").build();
+    EventCursor after = EventCursor.builder().id(7L).rank(0.25f).build();
+
+    SqlQuery query = ReactiveEventDaoImpl.createFilterQuery(eventFilter, COLUMNS, after, 5);
+    String sql = query.sql.toString();
+
+    assertTrue(sql.startsWith("select id, topic, date, ts_rank("));
+    assertTrue(sql.contains("@@ plainto_tsquery('simple', :q)"));
+    assertTrue(sql.contains(", plainto_tsquery('simple', :q)) <= :cursorRank and "));
+    assertFalse(sql.contains("c.id"));
+    assertTrue(sql.endsWith(", plainto_tsquery('simple', :q)) desc, id asc limit :limit"));
+    assertEquals(0.25f, query.parameters.get("cursorRank"));
+  }
+}
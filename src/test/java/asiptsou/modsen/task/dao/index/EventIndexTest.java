@@ -0,0 +1,293 @@
+package asiptsou.modsen.task.dao.index;
+
+import asiptsou.modsen.task.dto.EventChangeDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventChangeType;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventIndexTest {
+
+  private static final String[] DIRECTIONS = {null, "asc", "desc"};
+  private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+  private final Random random = new Random(42);
+  private final TreeMap<Long, EventDto> events = new TreeMap<>();
+
+  @Test
+  void testFindPagesThroughEventsAsReference() {
+    EventIndex eventIndex = loaded(2000);
+
+    for (int i = 0; i < 300; i++) {
+      assertPagesAsReference(eventIndex, randomFilter());
+    }
+  }
+
+  @Test
+  void testFindSeesWritesAndCompaction() {
+    EventIndex eventIndex = loaded(2000);
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 200; i++) {
+        write(eventIndex);
+      }
+      for (int i = 0; i < 40; i++) {
+        assertPagesAsReference(eventIndex, randomFilter());
+      }
+      if (round % 2 == 1) {
+        eventIndex.compact();
+        assertEquals(events.size(), eventIndex.size());
+      }
+    }
+  }
+
+  @Test
+  void testFindSelectsOnlyGivenFields() {
+    EventIndex eventIndex = loaded(10);
+
+    EventFilter all = EventFilter.builder().build();
+    EventDto found =
+        eventIndex.find(all, EnumSet.of(EventField.ID, EventField.DATE), null, 1).get(0);
+
+    assertEquals(events.firstKey(), found.getId());
+    assertEquals(events.firstEntry().getValue().getDate(), found.getDate());
+    assertNull(found.getTopic());
+    assertNull(found.getVersion());
+  }
+
+  @Test
+  void testChangeLogDoesNotBringBackOlderStates() {
+    EventIndex eventIndex = loaded(10);
+    EventDto event = events.firstEntry().getValue().toBuilder().build();
+    EventDto updated = event.toBuilder().version(event.getVersion() + 1).topic("updated").build();
+    eventIndex.put(updated);
+
+    eventIndex.apply(new EventChangeDto(EventChangeType.UPDATED, event.getId(), event));
+    assertEquals("updated", findFirst(eventIndex).getTopic());
+
+    eventIndex.remove(event.getId());
+    eventIndex.apply(new EventChangeDto(EventChangeType.UPDATED, event.getId(), updated));
+    assertTrue(findFirst(eventIndex).getId() > event.getId());
+
+    eventIndex.apply(new EventChangeDto(EventChangeType.DELETED, event.getId(), null));
+    assertEquals(events.size() - 1, countAll(eventIndex));
+  }
+
+  @Test
+  void testRemoveBeforeRemovesOlderEventsOfSegmentAndLog() {
+    EventIndex eventIndex = loaded(500);
+    for (int i = 0; i < 50; i++) {
+      write(eventIndex);
+    }
+    LocalDateTime before = START.plusHours(350);
+
+    int removed = eventIndex.removeBefore(before);
+    int expected = events.size();
+    events.values().removeIf(event -> event.getDate() != null && event.getDate().isBefore(before));
+
+    assertEquals(expected - events.size(), removed);
+    assertEquals(events.size(), countAll(eventIndex));
+    assertPagesAsReference(eventIndex, randomFilter());
+    eventIndex.compact();
+    assertEquals(events.size(), eventIndex.size());
+    assertEquals(0, eventIndex.removeBefore(before));
+  }
+
+  @Test
+  void testWritesBeforeLoadAreLeftToLoad() {
+    EventIndex eventIndex = new EventIndex(100);
+    EventDto event = randomEvent(1, 0);
+
+    eventIndex.put(event);
+    eventIndex.remove(event.getId());
+    eventIndex.load(action -> action.accept(event));
+
+    assertEquals(event.getId(), findFirst(eventIndex).getId());
+  }
+
+  @Test
+  void testDictionaryFindsValuesContainingPart() {
+    EventDictionary dictionary =
+        EventDictionary.of(List.of("concert", "conference", "content", "co"), true);
+
+    assertEquals("{1, 2}", dictionary.containing("nce").toString());
+    assertEquals("{}", dictionary.containing("xyz").toString());
+    assertNull(dictionary.containing("on"));
+    assertEquals(-1, dictionary.rank("a"));
+  }
+
+  @Test
+  void testDictionaryOrdersByCodePoints() {
+    EventDictionary dictionary = EventDictionary.of(List.of("🎵", "Ａ", "Z", "a"), false);
+
+    assertEquals("Z", dictionary.get(0));
+    assertEquals("a", dictionary.get(1));
+    assertEquals("Ａ", dictionary.get(2));
+    assertEquals("🎵", dictionary.get(3));
+  }
+
+  private EventIndex loaded(int count) {
+    for (int i = 0; i < count; i++) {
+      long id = 1 + i * 2L;
+      events.put(id, randomEvent(id, 0));
+    }
+    EventIndex eventIndex = new EventIndex(100);
+    eventIndex.load(action -> events.values().forEach(action));
+    return eventIndex;
+  }
+
+  private void write(EventIndex eventIndex) {
+    int choice = random.nextInt(3);
+    if (choice == 0) {
+      long id = events.lastKey() + 1 + random.nextInt(3);
+      EventDto created = randomEvent(id, 0);
+      events.put(id, created);
+      eventIndex.put(created);
+    } else {
+      long id = events.ceilingKey(1 + (long) random.nextInt(events.lastKey().intValue()));
+      if (choice == 1) {
+        EventDto updated = randomEvent(id, events.get(id).getVersion() + 1);
+        events.put(id, updated);
+        eventIndex.apply(new EventChangeDto(EventChangeType.UPDATED, id, updated));
+      } else {
+        events.remove(id);
+        eventIndex.remove(id);
+      }
+    }
+  }
+
+  private void assertPagesAsReference(EventIndex eventIndex, EventFilter eventFilter) {
+    List<Long> expected =
+        events.values().stream()
+            .filter(event -> matches(event, eventFilter))
+            .sorted(order(eventFilter))
+            .map(EventDto::getId)
+            .collect(Collectors.toList());
+    List<Long> found = new ArrayList<>();
+    int limit = 1 + random.nextInt(50);
+    EventCursor after = null;
+    while (true) {
+      List<EventDto> page =
+          eventIndex.find(eventFilter, EnumSet.allOf(EventField.class), after, limit);
+      page.forEach(event -> found.add(event.getId()));
+      if (page.size() < limit) {
+        break;
+      }
+      EventDto last = page.get(page.size() - 1);
+      after =
+          EventCursor.builder()
+              .sorting(eventFilter.sorting())
+              .id(last.getId())
+              .topic(last.getTopic())
+              .organizer(last.getOrganizer())
+              .date(last.getDate())
+              .build();
+    }
+    assertEquals(expected, found, eventFilter.toString());
+  }
+
+  private EventFilter randomFilter() {
+    LocalDateTime from = random.nextInt(3) == 0 ? START.plusHours(random.nextInt(300)) : null;
+    return EventFilter.builder()
+        .topic(random.nextInt(3) == 0 ? randomText(1 + random.nextInt(4)) : null)
+        .organizer(random.nextInt(4) == 0 ? randomText(1 + random.nextInt(3)) : null)
+        .fromDate(from)
+        .toDate(random.nextInt(3) == 0 ? START.plusHours(300 + random.nextInt(300)) : null)
+        .isSortTopic(true)
+        .topicSortDirection(DIRECTIONS[random.nextInt(3)])
+        .isSortOrganizer(true)
+        .organizerSortDirection(DIRECTIONS[random.nextInt(3)])
+        .isSortDate(true)
+        .dateSortDirection(DIRECTIONS[random.nextInt(3)])
+        .build();
+  }
+
+  private EventDto randomEvent(long id, long version) {
+    return EventDto.builder()
+        .id(id)
+        .version(version)
+        .topic(random.nextInt(20) == 0 ? null : randomText(3 + random.nextInt(5)))
+        .description(randomText(8))
+        .organizer(random.nextInt(10) == 0 ? null : "org" + randomText(2))
+        .date(random.nextInt(50) == 0 ? null : START.plusHours(random.nextInt(700)))
+        .location(random.nextInt(2) == 0 ? "Minsk" : "Brest")
+        .build();
+  }
+
+  private String randomText(int length) {
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      text.append("abcdeAB".charAt(random.nextInt(7)));
+    }
+    return text.toString();
+  }
+
+  private static boolean matches(EventDto event, EventFilter eventFilter) {
+    LocalDateTime date = event.getDate();
+    return (eventFilter.getFromDate() == null
+            || date != null && !date.isBefore(eventFilter.getFromDate()))
+        && (eventFilter.getToDate() == null
+            || date != null && !date.isAfter(eventFilter.getToDate()))
+        && contains(event.getTopic(), eventFilter.getTopic())
+        && contains(event.getOrganizer(), eventFilter.getOrganizer());
+  }
+
+  private static boolean contains(String value, String part) {
+    return part == null || value != null && value.contains(part);
+  }
+
+  /** ORDER BY of the database: NULLS LAST ascending, NULLS FIRST descending, then id. */
+  private static Comparator<EventDto> order(EventFilter eventFilter) {
+    Comparator<EventDto> order = Comparator.comparing(event -> 0);
+    order =
+        order.thenComparing(
+            key(Comparator.comparing(EventDto::getTopic, Comparator.nullsLast(String::compareTo)),
+                eventFilter.getTopicSortDirection()));
+    order =
+        order.thenComparing(
+            key(
+                Comparator.comparing(
+                    EventDto::getOrganizer, Comparator.nullsLast(String::compareTo)),
+                eventFilter.getOrganizerSortDirection()));
+    order =
+        order.thenComparing(
+            key(
+                Comparator.comparing(
+                    EventDto::getDate, Comparator.nullsLast(LocalDateTime::compareTo)),
+                eventFilter.getDateSortDirection()));
+    return order.thenComparing(EventDto::getId);
+  }
+
+  private static Comparator<EventDto> key(Comparator<EventDto> key, String direction) {
+    if (direction == null) {
+      return (left, right) -> 0;
+    }
+    return "asc".equals(direction) ? key : key.reversed();
+  }
+
+  private EventDto findFirst(EventIndex eventIndex) {
+    return eventIndex
+        .find(EventFilter.builder().build(), EnumSet.allOf(EventField.class), null, 1)
+        .get(0);
+  }
+
+  private int countAll(EventIndex eventIndex) {
+    return eventIndex
+        .find(EventFilter.builder().build(), EnumSet.of(EventField.ID), null, events.size() + 10)
+        .size();
+  }
+}
@@ -0,0 +1,76 @@
+package asiptsou.modsen.task.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EventFilterTest {
+
+  @Test
+  void testSortingInOrderOfApplying() {
+    EventFilter eventFilter =
+        EventFilter.builder()
+            .isSortDate(true)
+            .dateSortDirection("desc")
+            .isSortTopic(true)
+            .topicSortDirection("asc")
+            .isSortOrganizer(true)
+            .organizerSortDirection("")
+            .build();
+
+    assertEquals("topic:asc,date:desc", eventFilter.sorting());
+  }
+
+  @Test
+  void testSortingWithFullTextSearch() {
+    EventFilter eventFilter =
+        EventFilter.builder().q("music").isSortDate(true).dateSortDirection("asc").build();
+
+    assertEquals("relevance:desc,date:asc", eventFilter.sorting());
+  }
+
+  @Test
+  void testSortingWhenNothingSorted() {
+    assertEquals("", EventFilter.builder().q(" ").build().sorting());
+  }
+
+  @Test
+  void testShapeListsActiveConditions() {
+    EventFilter eventFilter =
+        EventFilter.builder()
+            .topic("")
+            .organizer("org")
+            .fromDate(LocalDateTime.of(2025, 6, 15, 22, 49))
+            .q("music")
+            .build();
+
+    assertEquals("organizer+from+q", eventFilter.shape());
+  }
+
+  @Test
+  void testShapeWhenNothingFiltered() {
+    assertEquals("none", EventFilter.builder().topic("").q(" ").build().shape());
+  }
+
+  @Test
+  void testNormalizedEqualsForSameQuery() {
+    EventFilter eventFilter =
+        EventFilter.builder()
+            .topic("")
+            .q(" ")
+            .isSortTopic(true)
+            .isSortOrganizer(false)
+            .organizerSortDirection("asc")
+            .isSortDate(true)
+            .dateSortDirection("desc")
+            .limit(10)
+            .build();
+    EventFilter same =
+        EventFilter.builder().isSortDate(true).dateSortDirection("desc").limit(10).build();
+
+    assertEquals(same, eventFilter.normalized());
+    assertEquals(same, same.normalized());
+  }
+}
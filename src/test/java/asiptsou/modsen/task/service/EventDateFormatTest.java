@@ -0,0 +1,103 @@
+package asiptsou.modsen.task.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class EventDateFormatTest {
+
+  private static final DateTimeFormatter FORMATTER =
+      DateTimeFormatter.ofPattern(EventDateFormat.PATTERN);
+
+  @Test
+  void testParseMatchesFormatter() {
+    for (String year : List.of("0000", "0001", "2024", "2025", "9999")) {
+      for (int month = 0; month <= 13; month++) {
+        for (int day = 0; day <= 32; day++) {
+          for (int hour = 0; hour <= 24; hour++) {
+            for (int minute : new int[] {0, 59, 60}) {
+              String text =
+                  String.format("%02d-%02d-%s %02d:%02d", day, month, year, hour, minute);
+              assertEquals(parseWithFormatter(text), EventDateFormat.parse(text), text);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  void testParseWhenTextDoesNotMatchFixedWidth() {
+    for (String text :
+        List.of(
+            "15-06-20251 22:49",
+            "15-06-2025 22:4",
+            "15/06/2025 22:49",
+            "1a-06-2025 22:49",
+            "15-06-2025T22:49",
+            "",
+            "not a date")) {
+      assertEquals(parseWithFormatter(text), EventDateFormat.parse(text), text);
+    }
+  }
+
+  @Test
+  void testParseCharsWithOffset() {
+    char[] chars = "{\"date\":\"15-06-2025 22:49\"}".toCharArray();
+
+    assertEquals(
+        LocalDateTime.of(2025, 6, 15, 22, 49),
+        EventDateFormat.parse(chars, 9, EventDateFormat.LENGTH));
+  }
+
+  @Test
+  void testFormatMatchesFormatter() {
+    for (LocalDateTime date :
+        List.of(
+            LocalDateTime.of(2025, 6, 15, 22, 49),
+            LocalDateTime.of(1, 1, 1, 0, 0),
+            LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+            LocalDateTime.of(10_000, 1, 1, 0, 0),
+            LocalDateTime.MAX)) {
+      char[] chars = new char[EventDateFormat.MAX_LENGTH + 1];
+      int length = EventDateFormat.format(date, chars, 1);
+
+      assertEquals(FORMATTER.format(date), new String(chars, 1, length));
+      assertEquals(FORMATTER.format(date), EventDateFormat.format(date));
+    }
+  }
+
+  @Test
+  void testJsonRoundTrip() throws IOException {
+    ObjectMapper objectMapper =
+        new ObjectMapper()
+            .registerModule(
+                new SimpleModule()
+                    .addSerializer(new LocalDateTimeSerializer())
+                    .addDeserializer(LocalDateTime.class, new LocalDateTimeDeserializer()));
+    LocalDateTime date = LocalDateTime.of(2025, 6, 15, 22, 49);
+
+    String json = objectMapper.writeValueAsString(date);
+
+    assertEquals("\"15-06-2025 22:49\"", json);
+    assertEquals(date, objectMapper.readValue(json, LocalDateTime.class));
+    assertNull(objectMapper.readValue("\"2025-06-15T22:49\"", LocalDateTime.class));
+  }
+
+  private static LocalDateTime parseWithFormatter(String text) {
+    try {
+      return LocalDateTime.parse(text, FORMATTER);
+    } catch (DateTimeParseException exception) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.dto.EventDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingEventServiceTest {
+
+  public static final long ID = 1L;
+
+  private EventDto eventDto;
+  private Cache<Long, EventDto> cache;
+  private CachingEventService cachingEventService;
+
+  @Mock private EventServiceImpl eventService;
+
+  @BeforeEach
+  void setUp() {
+    eventDto = EventDto.builder().id(ID).version(0L).topic("topic").build();
+    cache = Caffeine.newBuilder().build();
+    cachingEventService =
+        new CachingEventService(
+            eventService,
+            cache,
+            new EventQueryCoalescer(Duration.ofSeconds(1), new SimpleMeterRegistry()),
+            false);
+  }
+
+  @Test
+  void testGetByIdLoadsOnceThenHitsCache() {
+    when(eventService.getById(ID)).thenReturn(eventDto);
+
+    cachingEventService.getById(ID);
+    EventDto actual = cachingEventService.getById(ID);
+
+    assertEquals(eventDto, actual);
+    verify(eventService, times(1)).getById(ID);
+  }
+
+  @Test
+  void testGetByIdWhenNotExistIsNotCached() {
+    when(eventService.getById(ID)).thenThrow(NoSuchElementException.class);
+
+    assertThrows(NoSuchElementException.class, () -> cachingEventService.getById(ID));
+
+    assertNull(cache.getIfPresent(ID));
+  }
+
+  @Test
+  void testUpdateInvalidates() {
+    cache.put(ID, eventDto);
+
+    cachingEventService.update(ID, eventDto);
+
+    assertNull(cache.getIfPresent(ID));
+  }
+
+  @Test
+  void testFailedDeleteInvalidates() {
+    cache.put(ID, eventDto);
+    doThrow(IllegalStateException.class).when(eventService).deleteById(ID);
+
+    assertThrows(IllegalStateException.class, () -> cachingEventService.deleteById(ID));
+
+    assertNull(cache.getIfPresent(ID));
+  }
+
+  @Test
+  void testSaveWithDeduplicationSavesIfAbsent() {
+    cachingEventService =
+        new CachingEventService(
+            eventService,
+            cache,
+            new EventQueryCoalescer(Duration.ofSeconds(1), new SimpleMeterRegistry()),
+            true);
+    cache.put(ID, eventDto);
+    when(eventService.saveIfAbsent(eventDto)).thenReturn(eventDto);
+
+    cachingEventService.save(eventDto);
+
+    verify(eventService, never()).save(eventDto);
+    assertNull(cache.getIfPresent(ID));
+  }
+
+  @Test
+  void testLoadRacingWithUpdateIsNotCached() {
+    when(eventService.getById(ID))
+        .thenAnswer(
+            invocation -> {
+              cachingEventService.update(ID, eventDto);
+              return eventDto;
+            });
+
+    cachingEventService.getById(ID);
+
+    assertNull(cache.getIfPresent(ID));
+  }
+
+  @Test
+  void testInvalidateBeforeKeepsLaterEvents() {
+    LocalDateTime date = LocalDateTime.of(2020, 1, 1, 0, 0);
+    cache.put(ID, eventDto.toBuilder().date(date.minusDays(1)).build());
+    cache.put(ID + 1, eventDto.toBuilder().id(ID + 1).date(date).build());
+    cache.put(ID + 2, eventDto.toBuilder().id(ID + 2).build());
+
+    cachingEventService.invalidateBefore(date);
+
+    assertNull(cache.getIfPresent(ID));
+    assertEquals(2, cache.estimatedSize());
+  }
+}
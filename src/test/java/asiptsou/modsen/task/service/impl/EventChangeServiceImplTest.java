@@ -0,0 +1,129 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.converter.EventChangePositionConverter;
+import asiptsou.modsen.task.dao.EventChangeDao;
+import asiptsou.modsen.task.dto.EventChangeDto;
+import asiptsou.modsen.task.dto.EventChangePageDto;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.exception.EventChangesExpiredException;
+import asiptsou.modsen.task.model.EventChange;
+import asiptsou.modsen.task.model.EventChangePosition;
+import asiptsou.modsen.task.model.EventChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventChangeServiceImplTest {
+
+  public static final int LIMIT = 10;
+
+  @Mock private EventChangeDao eventChangeDao;
+
+  private EventChangePositionConverter positionConverter;
+  private EventChangeServiceImpl eventChangeService;
+
+  @BeforeEach
+  void setUp() {
+    positionConverter = new EventChangePositionConverter();
+    eventChangeService = new EventChangeServiceImpl(eventChangeDao, positionConverter);
+  }
+
+  @Test
+  void testGetChangesMergesChangesOfOneEventIntoItsLast() {
+    EventDto updated = EventDto.builder().id(1L).version(1L).topic("updated").build();
+    when(eventChangeDao.getAfter(any(), eq(LIMIT)))
+        .thenReturn(
+            List.of(
+                change(5, 1, EventChangeType.CREATED, 1L, updated),
+                change(5, 2, EventChangeType.CREATED, 2L, null),
+                change(6, 3, EventChangeType.UPDATED, 1L, updated),
+                change(7, 4, EventChangeType.DELETED, 2L, null)));
+
+    EventChangePageDto page = eventChangeService.getChanges(null, LIMIT);
+
+    List<EventChangeDto> changes = page.getChanges();
+    assertEquals(2, changes.size());
+    assertEquals(1L, changes.get(0).getId());
+    assertEquals(EventChangeType.UPDATED, changes.get(0).getType());
+    assertEquals("updated", changes.get(0).getEvent().getTopic());
+    assertEquals(2L, changes.get(1).getId());
+    assertEquals(EventChangeType.DELETED, changes.get(1).getType());
+    assertNull(changes.get(1).getEvent());
+    EventChangePosition next = positionConverter.fromToken(page.getNext());
+    assertEquals(7L, next.getXid());
+    assertEquals(4L, next.getSeq());
+  }
+
+  @Test
+  void testGetChangesReadsAfterSinceToken() {
+    String since = positionConverter.toToken(new EventChangePosition(9L, 40L));
+    when(eventChangeDao.getAfter(
+            argThat(after -> after.getXid() == 9L && after.getSeq() == 40L), eq(LIMIT)))
+        .thenReturn(List.of());
+    when(eventChangeDao.getPurged()).thenReturn(new EventChangePosition(9L, 40L));
+
+    EventChangePageDto page = eventChangeService.getChanges(since, LIMIT);
+
+    assertTrue(page.getChanges().isEmpty());
+    assertEquals(since, page.getNext());
+  }
+
+  @Test
+  void testGetChangesWhenChangesAfterTokenWereDeleted() {
+    String since = positionConverter.toToken(new EventChangePosition(9L, 40L));
+    when(eventChangeDao.getPurged()).thenReturn(new EventChangePosition(9L, 41L));
+
+    assertThrows(
+        EventChangesExpiredException.class, () -> eventChangeService.getChanges(since, LIMIT));
+  }
+
+  @Test
+  void testGetChangesFromStartReadsRetainedOnes() {
+    when(eventChangeDao.getAfter(EventChangePosition.START, LIMIT)).thenReturn(List.of());
+
+    assertTrue(eventChangeService.getChanges(null, LIMIT).getChanges().isEmpty());
+    verify(eventChangeDao, never()).getPurged();
+  }
+
+  @Test
+  void testGetChangesWhenLimitIsNotValid() {
+    assertThrows(IllegalArgumentException.class, () -> eventChangeService.getChanges(null, 0));
+    verify(eventChangeDao, never()).getAfter(any(), anyInt());
+  }
+
+  @Test
+  void testGetHead() {
+    when(eventChangeDao.getHead()).thenReturn(Optional.of(new EventChangePosition(3L, 8L)));
+
+    assertEquals(
+        positionConverter.toToken(new EventChangePosition(3L, 8L)), eventChangeService.getHead());
+  }
+
+  private static EventChange change(
+      long xid, long seq, EventChangeType type, long eventId, EventDto event) {
+    return EventChange.builder()
+        .position(new EventChangePosition(xid, seq))
+        .type(type)
+        .eventId(eventId)
+        .event(event)
+        .build();
+  }
+}
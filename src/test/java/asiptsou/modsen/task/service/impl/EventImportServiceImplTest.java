@@ -0,0 +1,180 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.converter.EventConverter;
+import asiptsou.modsen.task.dao.EventImportDao;
+import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.model.EventImport;
+import asiptsou.modsen.task.model.EventImportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.validation.Validation;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventImportServiceImplTest {
+
+  public static final int CHUNK_SIZE = 2;
+  public static final String CSV_FILE = "events.csv";
+  public static final String NDJSON_FILE = "events.ndjson";
+
+  @TempDir Path directory;
+
+  private EventImport checkpoint;
+  private List<Event> imported;
+  private List<Long> merged;
+  private EventImportServiceImpl eventImportService;
+
+  @Mock private EventImportDao eventImportDao;
+  @Mock private PlatformTransactionManager transactionManager;
+
+  @BeforeEach
+  void setUp() {
+    imported = new ArrayList<>();
+    merged = new ArrayList<>();
+    lenient()
+        .when(eventImportDao.getByFile(anyString()))
+        .thenAnswer(invocation -> Optional.ofNullable(checkpoint));
+    lenient()
+        .doAnswer(invocation -> checkpoint = invocation.getArgument(0))
+        .when(eventImportDao)
+        .save(any());
+    lenient()
+        .when(eventImportDao.copyToStaging(any()))
+        .thenAnswer(
+            invocation -> {
+              Iterator<Event> events = invocation.getArgument(0);
+              long count = 0;
+              while (events.hasNext()) {
+                imported.add(events.next());
+                count++;
+              }
+              return count;
+            });
+    lenient()
+        .doAnswer(
+            invocation -> {
+              merged.add(invocation.getArgument(0));
+              return 0;
+            })
+        .when(eventImportDao)
+        .mergeStaged(anyLong());
+    eventImportService =
+        new EventImportServiceImpl(
+            eventImportDao,
+            Mappers.getMapper(EventConverter.class),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ObjectMapper(),
+            transactionManager,
+            Runnable::run,
+            directory.toString(),
+            CHUNK_SIZE);
+  }
+
+  @Test
+  void testStartCsvSkipsInvalidRecords() throws IOException {
+    Files.writeString(
+        directory.resolve(CSV_FILE),
+        "topic,description,organizer,date,location\n"
+            + "topic 1,description,organizer,15-06-2025 22:49,location\n"
+            + "topic 2,description,organizer,not a date,location\n"
+            + "\"topic, 3\",description,organizer,15-06-2025 22:49,location\n");
+
+    eventImportService.start(CSV_FILE, EventImportFormat.CSV);
+
+    assertEquals(List.of("topic 1", "topic, 3"), topics());
+    assertEquals(List.of(1L, 1L), merged);
+    assertEquals(EventImport.COMPLETED, checkpoint.getStatus());
+    assertEquals(3, checkpoint.getRecords());
+    assertEquals(2, checkpoint.getImported());
+    assertEquals(1, checkpoint.getSkipped());
+  }
+
+  @Test
+  void testStartNdjsonResumesAfterCheckpoint() throws IOException {
+    Files.writeString(
+        directory.resolve(NDJSON_FILE),
+        "{\"topic\":\"topic 1\",\"description\":\"description\",\"organizer\":\"organizer\","
+            + "\"date\":\"15-06-2025 22:49\",\"location\":\"location\"}\n"
+            + "{\"topic\":\"topic 2\",\"description\":\"description\",\"organizer\":\"organizer\","
+            + "\"date\":\"15-06-2025 22:49\",\"location\":\"location\",\"id\":7}\n");
+    checkpoint =
+        EventImport.builder()
+            .file(NDJSON_FILE)
+            .format(EventImportFormat.NDJSON)
+            .status(EventImport.FAILED)
+            .records(1)
+            .imported(1)
+            .build();
+
+    eventImportService.start(NDJSON_FILE, EventImportFormat.NDJSON);
+
+    assertEquals(List.of("topic 2"), topics());
+    assertEquals(EventImport.COMPLETED, checkpoint.getStatus());
+    assertEquals(2, checkpoint.getRecords());
+    assertEquals(2, checkpoint.getImported());
+  }
+
+  @Test
+  void testStartWhenJsonIsMalformed() throws IOException {
+    Files.writeString(directory.resolve(NDJSON_FILE), "{\"topic\":\n");
+
+    eventImportService.start(NDJSON_FILE, EventImportFormat.NDJSON);
+
+    assertEquals(EventImport.FAILED, checkpoint.getStatus());
+    assertTrue(checkpoint.getError().contains("JsonEOFException"));
+  }
+
+  @Test
+  void testStartWhenFormatDiffersFromCheckpoint() throws IOException {
+    Files.writeString(directory.resolve(CSV_FILE), "");
+    checkpoint = EventImport.builder().file(CSV_FILE).format(EventImportFormat.NDJSON).build();
+
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> eventImportService.start(CSV_FILE, EventImportFormat.CSV));
+  }
+
+  @Test
+  void testStartWhenFileIsOutsideOfDirectory() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> eventImportService.start("../" + CSV_FILE, EventImportFormat.CSV));
+  }
+
+  @Test
+  void testGetByFileWhenNotExist() {
+    when(eventImportDao.getByFile(CSV_FILE)).thenReturn(Optional.empty());
+
+    assertThrows(NoSuchElementException.class, () -> eventImportService.getByFile(CSV_FILE));
+  }
+
+  private List<String> topics() {
+    return imported.stream().map(Event::getTopic).collect(Collectors.toList());
+  }
+}
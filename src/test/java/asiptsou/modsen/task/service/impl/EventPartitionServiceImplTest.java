@@ -0,0 +1,67 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.dao.EventPartitionDao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventPartitionServiceImplTest {
+
+  @Mock private EventPartitionDao eventPartitionDao;
+
+  @Test
+  void testCreateUpcomingPartitionsFromCurrentMonth() {
+    LocalDate month = EventPartitionServiceImpl.currentMonth();
+    when(eventPartitionDao.createPartitions(month, month.plusMonths(12))).thenReturn(1);
+
+    assertEquals(
+        1, new EventPartitionServiceImpl(eventPartitionDao, 12, 0).createUpcomingPartitions());
+  }
+
+  @Test
+  void testDetachExpiredPartitionsBeforeRetention() {
+    LocalDate month = EventPartitionServiceImpl.currentMonth();
+    when(eventPartitionDao.detachPartitionsBefore(month.minusMonths(24)))
+        .thenReturn(List.of("event_p202001"));
+
+    assertEquals(
+        List.of("event_p202001"),
+        new EventPartitionServiceImpl(eventPartitionDao, 12, 24).detachExpiredPartitions());
+  }
+
+  @Test
+  void testDetachExpiredPartitionsWithoutRetention() {
+    assertTrue(
+        new EventPartitionServiceImpl(eventPartitionDao, 12, 0).detachExpiredPartitions().isEmpty());
+    verify(eventPartitionDao, never()).detachPartitionsBefore(any());
+  }
+
+  @Test
+  void testRetainedFromByRetention() {
+    LocalDate month = EventPartitionServiceImpl.currentMonth();
+
+    assertEquals(
+        Optional.of(month.minusMonths(24)),
+        new EventPartitionServiceImpl(eventPartitionDao, 12, 24).getRetainedFrom());
+    assertTrue(
+        new EventPartitionServiceImpl(eventPartitionDao, 12, 0).getRetainedFrom().isEmpty());
+  }
+
+  @Test
+  void testCurrentMonthIsItsFirstDay() {
+    assertEquals(1, EventPartitionServiceImpl.currentMonth().getDayOfMonth());
+  }
+}
@@ -0,0 +1,128 @@
+package asiptsou.modsen.task.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static asiptsou.modsen.task.service.impl.EventQueryCoalescer.COALESCED_COUNTER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EventQueryCoalescerTest {
+
+  private static final String QUERY = "query";
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final EventQueryCoalescer coalescer =
+      new EventQueryCoalescer(Duration.ofSeconds(5), meterRegistry);
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private final AtomicInteger runs = new AtomicInteger();
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+  }
+
+  @Test
+  void testIdenticalQueriesInFlightRunOnce() throws Exception {
+    FutureTask<Object> first = start(coalescer, this::blockingQuery);
+    started.await();
+    FutureTask<Object> second = startWaiting(this::blockingQuery);
+
+    release.countDown();
+
+    assertSame(first.get(), second.get());
+    assertEquals(1, runs.get());
+    assertEquals(1, meterRegistry.counter(COALESCED_COUNTER, "outcome", "joined").count());
+  }
+
+  @Test
+  void testQueryAfterWriteDoesNotJoinQueryInFlight() throws Exception {
+    FutureTask<Object> first = start(coalescer, this::blockingQuery);
+    started.await();
+
+    coalescer.written();
+
+    assertEquals(2, coalescer.coalesce(QUERY, runs::incrementAndGet));
+    release.countDown();
+    assertEquals(1, first.get());
+  }
+
+  @Test
+  void testDifferentQueriesRunEach() throws Exception {
+    start(coalescer, this::blockingQuery);
+    started.await();
+
+    assertEquals(2, coalescer.coalesce("other", runs::incrementAndGet));
+  }
+
+  @Test
+  void testJoinedQueryGetsException() throws Exception {
+    FutureTask<Object> first =
+        start(
+            coalescer,
+            () -> {
+              blockingQuery();
+              throw new IllegalArgumentException();
+            });
+    started.await();
+    FutureTask<Object> second = startWaiting(this::blockingQuery);
+
+    release.countDown();
+
+    assertEquals(
+        IllegalArgumentException.class,
+        assertThrows(ExecutionException.class, first::get).getCause().getClass());
+    assertEquals(
+        IllegalArgumentException.class,
+        assertThrows(ExecutionException.class, second::get).getCause().getClass());
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  void testQueryRunsItselfAfterMaxWait() throws Exception {
+    EventQueryCoalescer impatient = new EventQueryCoalescer(Duration.ofMillis(10), meterRegistry);
+    start(impatient, this::blockingQuery);
+    started.await();
+
+    assertEquals(2, impatient.coalesce(QUERY, runs::incrementAndGet));
+  }
+
+  private FutureTask<Object> start(EventQueryCoalescer coalescer, Supplier<Object> action) {
+    FutureTask<Object> task = new FutureTask<>(() -> coalescer.coalesce(QUERY, action));
+    new Thread(task).start();
+    return task;
+  }
+
+  /** Starts the query and returns once it waits for the one in flight. */
+  private FutureTask<Object> startWaiting(Supplier<Object> action) throws InterruptedException {
+    FutureTask<Object> task = new FutureTask<>(() -> coalescer.coalesce(QUERY, action));
+    Thread thread = new Thread(task);
+    thread.start();
+    while (thread.getState() != Thread.State.TIMED_WAITING && !task.isDone()) {
+      Thread.sleep(1);
+    }
+    return task;
+  }
+
+  private Object blockingQuery() {
+    int run = runs.incrementAndGet();
+    started.countDown();
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return run;
+  }
+}
@@ -1,9 +1,15 @@
 package asiptsou.modsen.task.service.impl;
 
 import asiptsou.modsen.task.converter.EventConverter;
+import asiptsou.modsen.task.converter.EventCursorConverter;
 import asiptsou.modsen.task.dao.EventDao;
 import asiptsou.modsen.task.model.Event;
+import asiptsou.modsen.task.dto.EventBatchResultDto;
 import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.dto.EventPageDto;
+import asiptsou.modsen.task.model.EventBatchStatus;
+import asiptsou.modsen.task.model.EventCursor;
 import asiptsou.modsen.task.model.EventFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,16 +17,34 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validator;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static asiptsou.modsen.task.dto.EventField.DATE;
+import static asiptsou.modsen.task.dto.EventField.ID;
+import static asiptsou.modsen.task.dto.EventField.LOCATION;
+import static asiptsou.modsen.task.dto.EventField.TOPIC;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,6 +53,10 @@ import static org.mockito.Mockito.when;
 class EventServiceImplTest {
 
   public static final int MODIFIED_ROW_AFTER_DELETING = 1;
+  public static final int LIMIT = 10;
+  public static final String SORTING = "topic:asc,organizer:asc,date:asc";
+  public static final String CURSOR = "cursor";
+  public static final Set<EventField> ALL_FIELDS = EnumSet.allOf(EventField.class);
   public static final LocalDateTime FROM_DATE =
       LocalDateTime.parse("15-06-2025 22:49", DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"));
   public static final LocalDateTime TO_DATE =
@@ -39,6 +67,8 @@ class EventServiceImplTest {
   private EventFilter eventFilter;
   @Mock private EventDao eventDao;
   @Mock private EventConverter converter;
+  @Mock private EventCursorConverter cursorConverter;
+  @Mock private Validator validator;
 
   @InjectMocks private EventServiceImpl eventService;
 
@@ -60,6 +90,7 @@ class EventServiceImplTest {
             .topicSortDirection("asc")
             .dateSortDirection("asc")
             .organizerSortDirection("asc")
+            .limit(LIMIT)
             .build();
   }
 
@@ -85,15 +116,130 @@ class EventServiceImplTest {
     verify(converter).toEntity(new EventDto());
   }
 
+  @Test
+  void testSaveIfAbsentReturnsIdOfSavedOrExisting() {
+    when(converter.toEntity(eventDto)).thenReturn(event);
+    when(eventDao.saveIfAbsent(event)).thenReturn(event);
+    event.setId(7L);
+
+    EventDto saved = eventService.saveIfAbsent(eventDto);
+
+    assertEquals(7L, saved.getId());
+    verify(eventDao, never()).save(any());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testSaveAll_ok() {
+    EventDto invalidDto = EventDto.builder().topic("top").build();
+    ConstraintViolation<EventDto> violation = mock(ConstraintViolation.class);
+    Path path = mock(Path.class);
+    when(path.toString()).thenReturn("topic");
+    when(violation.getPropertyPath()).thenReturn(path);
+    when(violation.getMessage()).thenReturn("Can't be null");
+    when(validator.validate(eventDto)).thenReturn(Set.of());
+    when(validator.validate(invalidDto)).thenReturn(Set.of(violation));
+    when(converter.toEntity(eventDto)).thenReturn(event);
+
+    List<EventBatchResultDto> results = eventService.saveAll(List.of(invalidDto, eventDto));
+
+    assertEquals(EventBatchStatus.INVALID, results.get(0).getStatus());
+    assertEquals("Can't be null", results.get(0).getErrors().get("topic"));
+    assertEquals(EventBatchStatus.CREATED, results.get(1).getStatus());
+    assertEquals(1, results.get(1).getIndex());
+    assertEquals(event.getId(), results.get(1).getId());
+    verify(eventDao).saveAll(List.of(event));
+  }
+
+  @Test
+  void testSaveAllWhenEmpty() {
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> eventService.saveAll(List.of()));
+
+    assertEquals("Batch should contain from 1 to 10000 events but was 0", exception.getMessage());
+
+    verify(eventDao, never()).saveAll(any());
+  }
+
   @Test
   void testGetAll_ok() {
-    when(eventDao.getAll()).thenReturn(List.of(new Event()));
-    when(converter.toDto(new Event())).thenReturn(new EventDto());
+    when(eventDao.getAll(ALL_FIELDS, null, LIMIT + 1)).thenReturn(List.of(eventDto));
 
-    eventService.getAll();
+    EventPageDto page = eventService.getAll(null, LIMIT, null);
 
-    verify(eventDao).getAll();
-    verify(converter).toDto(new Event());
+    assertEquals(List.of(eventDto), page.getEvents());
+    assertNull(page.getNext());
+    verify(eventDao).getAll(ALL_FIELDS, null, LIMIT + 1);
+  }
+
+  @Test
+  void testGetAllWhenNextPageExists() {
+    EventDto last = EventDto.builder().id(2L).build();
+    EventCursor lastCursor = EventCursor.builder().sorting("").id(2L).build();
+    when(eventDao.getAll(ALL_FIELDS, null, 2)).thenReturn(List.of(eventDto, last));
+    when(cursorConverter.toCursor(eventDto, "")).thenReturn(lastCursor);
+    when(cursorConverter.toToken(lastCursor)).thenReturn(CURSOR);
+
+    EventPageDto page = eventService.getAll(null, 1, null);
+
+    assertEquals(1, page.getEvents().size());
+    assertEquals(CURSOR, page.getNext());
+  }
+
+  @Test
+  void testGetAllWithFieldsSelectsIdForCursor() {
+    EventDto selected = EventDto.builder().id(1L).topic("topic").date(FROM_DATE).build();
+    when(eventDao.getAll(EnumSet.of(ID, TOPIC, DATE), null, LIMIT + 1))
+        .thenReturn(List.of(selected));
+
+    EventPageDto page = eventService.getAll(null, LIMIT, "topic, date");
+
+    EventDto eventDto = page.getEvents().get(0);
+    assertNull(eventDto.getId());
+    assertEquals("topic", eventDto.getTopic());
+    assertEquals(FROM_DATE, eventDto.getDate());
+  }
+
+  @Test
+  void testGetAllWhenFieldIsUnknown() {
+    IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class, () -> eventService.getAll(null, LIMIT, "topic,name"));
+
+    assertEquals(
+        "Field {name} is unknown, use some of "
+            + "id,version,topic,description,organizer,date,location",
+        exception.getMessage());
+
+    verify(eventDao, never()).getAll(any(), any(), anyInt());
+  }
+
+  @Test
+  void testGetAllWhenLimitNotValid() {
+    IllegalArgumentException exception =
+        assertThrows(IllegalArgumentException.class, () -> eventService.getAll(null, 0, null));
+
+    assertEquals("Limit should be between 1 and 1000 but was 0", exception.getMessage());
+
+    verify(eventDao, never()).getAll(any(), any(), anyInt());
+  }
+
+  @Test
+  void testExportAll_ok() {
+    doAnswer(
+            invocation -> {
+              invocation.<Consumer<Event>>getArgument(0).accept(event);
+              return null;
+            })
+        .when(eventDao)
+        .scrollAll(any());
+    when(converter.toDto(event)).thenReturn(eventDto);
+    List<EventDto> exported = new ArrayList<>();
+
+    eventService.exportAll(exported::add);
+
+    assertEquals(List.of(eventDto), exported);
+    verify(eventDao).scrollAll(any());
   }
 
   @Test
@@ -107,30 +253,121 @@ class EventServiceImplTest {
 
   @Test
   void testUpdate_ok() {
-    when(eventDao.getById(anyLong())).thenReturn(Optional.of(event));
-    doNothing().when(eventDao).update(event);
+    when(eventDao.update(event)).thenReturn(1);
     when(converter.toEntity(eventDto)).thenReturn(event);
 
-    eventService.update(anyLong(), eventDto);
+    eventService.update(1L, eventDto);
 
     verify(eventDao).update(event);
     verify(converter).toEntity(eventDto);
-    verify(eventDao).getById(anyLong());
+    verify(eventDao, never()).getById(anyLong());
+  }
+
+  @Test
+  void testUpdateWhenNotExist() {
+    when(eventDao.update(event)).thenReturn(0);
+    when(converter.toEntity(eventDto)).thenReturn(event);
+
+    assertThrows(NoSuchElementException.class, () -> eventService.update(1L, eventDto));
+
+    verify(eventDao, never()).getById(anyLong());
+  }
+
+  @Test
+  void testUpdateWhenVersionConflicts() {
+    event.setVersion(3L);
+    when(eventDao.update(event)).thenReturn(0);
+    when(eventDao.getById(1L)).thenReturn(Optional.of(new Event()));
+    when(converter.toEntity(eventDto)).thenReturn(event);
+
+    assertThrows(
+        OptimisticLockingFailureException.class, () -> eventService.update(1L, eventDto));
+  }
+
+  @Test
+  void testUpdateWhenVersionIsGivenAndNotExist() {
+    event.setVersion(3L);
+    when(eventDao.update(event)).thenReturn(0);
+    when(eventDao.getById(1L)).thenReturn(Optional.empty());
+    when(converter.toEntity(eventDto)).thenReturn(event);
+
+    assertThrows(NoSuchElementException.class, () -> eventService.update(1L, eventDto));
   }
 
   @Test
   void testGetListEventByFilter_ok() {
-    when(eventDao.getAllByFilter(
-            FROM_DATE, TO_DATE, "organizer", "topic", true, true, true, "asc", "asc", "asc"))
-        .thenReturn(List.of(event));
-    when(converter.toDto(event)).thenReturn(eventDto);
+    when(eventDao.getAllByFilter(eventFilter, ALL_FIELDS, null, LIMIT + 1))
+        .thenReturn(List.of(eventDto));
+
+    eventService.getListEventByFilter(eventFilter);
+
+    verify(eventDao).getAllByFilter(eventFilter, ALL_FIELDS, null, LIMIT + 1);
+  }
+
+  @Test
+  void testGetListEventByFilterWithFieldsSelectsSortKeys() {
+    eventFilter.setFields("location");
+    eventFilter.setSortOrganizer(false);
+    EventDto selected =
+        EventDto.builder().id(1L).topic("topic").date(FROM_DATE).location("location").build();
+    when(eventDao.getAllByFilter(eventFilter, EnumSet.of(ID, TOPIC, DATE, LOCATION), null, 2))
+        .thenReturn(List.of(selected, new EventDto()));
+    EventCursor cursor = EventCursor.builder().sorting("topic:asc,date:asc").id(1L).build();
+    when(cursorConverter.toCursor(selected, "topic:asc,date:asc")).thenReturn(cursor);
+    when(cursorConverter.toToken(cursor)).thenReturn(CURSOR);
+    eventFilter.setLimit(1);
+
+    EventPageDto page = eventService.getListEventByFilter(eventFilter);
+
+    EventDto eventDto = page.getEvents().get(0);
+    assertEquals(CURSOR, page.getNext());
+    assertNull(eventDto.getId());
+    assertNull(eventDto.getTopic());
+    assertNull(eventDto.getDate());
+    assertEquals("location", eventDto.getLocation());
+  }
+
+  @Test
+  void testGetListEventByFilterWithCursor() {
+    EventCursor cursor = EventCursor.builder().sorting(SORTING).id(1L).build();
+    eventFilter.setCursor(CURSOR);
+    when(cursorConverter.fromToken(CURSOR)).thenReturn(cursor);
+    when(eventDao.getAllByFilter(eventFilter, ALL_FIELDS, cursor, LIMIT + 1))
+        .thenReturn(List.of(eventDto));
+
+    EventPageDto page = eventService.getListEventByFilter(eventFilter);
+
+    assertEquals(List.of(eventDto), page.getEvents());
+    verify(eventDao).getAllByFilter(eventFilter, ALL_FIELDS, cursor, LIMIT + 1);
+  }
+
+  @Test
+  void testGetListEventByFilterWhenCursorSortingDiffers() {
+    eventFilter.setCursor(CURSOR);
+    when(cursorConverter.fromToken(CURSOR))
+        .thenReturn(EventCursor.builder().sorting("date:desc").id(1L).build());
+
+    IllegalArgumentException exception =
+        assertThrows(
+            IllegalArgumentException.class, () -> eventService.getListEventByFilter(eventFilter));
+
+    assertEquals(
+        "Cursor was issued for sorting {date:desc} and can't be used with sorting {" + SORTING + "}",
+        exception.getMessage());
+
+    verify(eventDao, never()).getAllByFilter(any(), any(), any(), anyInt());
+  }
+
+  @Test
+  void testGetListEventByFilterWithoutDateBounds() {
+    eventFilter.setFromDate(null);
+    eventFilter.setToDate(null);
+    when(eventDao.getAllByFilter(eventFilter, ALL_FIELDS, null, LIMIT + 1))
+        .thenReturn(List.of(eventDto));
 
     eventService.getListEventByFilter(eventFilter);
 
-    verify(eventDao)
-        .getAllByFilter(
-            FROM_DATE, TO_DATE, "organizer", "topic", true, true, true, "asc", "asc", "asc");
-    verify(converter).toDto(event);
+    verify(eventDao).getAllByFilter(eventFilter, ALL_FIELDS, null, LIMIT + 1);
   }
 
   @Test()
@@ -146,9 +383,6 @@ class EventServiceImplTest {
         "Date from {2032-06-15T22:49} can't be after the date to {2025-06-15T22:49}",
         exception.getMessage());
 
-    verify(eventDao, never())
-        .getAllByFilter(
-            TO_DATE, FROM_DATE, "organizer", "topic", true, true, true, "asc", "asc", "asc");
-    verify(converter, never()).toDto(event);
+    verify(eventDao, never()).getAllByFilter(any(), any(), isNull(), anyInt());
   }
 }
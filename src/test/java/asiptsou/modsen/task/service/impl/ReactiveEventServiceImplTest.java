@@ -0,0 +1,164 @@
+package asiptsou.modsen.task.service.impl;
+
+import asiptsou.modsen.task.converter.EventCursorConverter;
+import asiptsou.modsen.task.dao.ReactiveEventDao;
+import asiptsou.modsen.task.dto.EventDto;
+import asiptsou.modsen.task.dto.EventField;
+import asiptsou.modsen.task.model.EventBatchStatus;
+import asiptsou.modsen.task.model.EventCursor;
+import asiptsou.modsen.task.model.EventFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validator;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveEventServiceImplTest {
+
+  public static final long ID = 1L;
+  public static final int LIMIT = 2;
+
+  @Mock private ReactiveEventDao reactiveEventDao;
+  @Mock private EventCursorConverter cursorConverter;
+  @Mock private Validator validator;
+
+  @InjectMocks private ReactiveEventServiceImpl reactiveEventService;
+
+  @Test
+  void getById_shouldSignalNotFound_whenEventIsMissing() {
+    when(reactiveEventDao.getById(ID)).thenReturn(Mono.empty());
+
+    StepVerifier.create(reactiveEventService.getById(ID))
+        .expectError(NoSuchElementException.class)
+        .verify();
+  }
+
+  @Test
+  void getListEventByFilter_shouldSignalError_whenDatesAreInWrongOrder() {
+    EventFilter eventFilter =
+        EventFilter.builder()
+            .fromDate(LocalDateTime.of(2030, 1, 1, 0, 0))
+            .toDate(LocalDateTime.of(2020, 1, 1, 0, 0))
+            .limit(LIMIT)
+            .build();
+
+    StepVerifier.create(reactiveEventService.getListEventByFilter(eventFilter))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+    verifyNoInteractions(reactiveEventDao);
+  }
+
+  @Test
+  void getListEventByFilter_shouldReturnNextCursor_whenMoreEventsThanLimit() {
+    EventFilter eventFilter = EventFilter.builder().limit(LIMIT).fields("topic").build();
+    List<EventDto> eventDtos = List.of(event(1L), event(2L), event(3L));
+    EventCursor eventCursor = EventCursor.builder().id(2L).sorting("").build();
+    when(reactiveEventDao.getAllByFilter(
+            eq(eventFilter), eq(EnumSet.of(EventField.ID, EventField.TOPIC)), any(), eq(LIMIT + 1)))
+        .thenReturn(Flux.fromIterable(eventDtos));
+    when(cursorConverter.toCursor(eventDtos.get(1), "")).thenReturn(eventCursor);
+    when(cursorConverter.toToken(eventCursor)).thenReturn("next");
+
+    StepVerifier.create(reactiveEventService.getListEventByFilter(eventFilter))
+        .assertNext(
+            page -> {
+              assertEquals(LIMIT, page.getEvents().size());
+              assertEquals("next", page.getNext());
+              assertNull(page.getEvents().get(0).getId());
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  void streamByFilter_shouldReadEveryEvent_regardlessOfLimit() {
+    EventFilter eventFilter = EventFilter.builder().limit(LIMIT).build();
+    when(reactiveEventDao.getAllByFilter(
+            eq(eventFilter), eq(EnumSet.allOf(EventField.class)), any(), eq(0)))
+        .thenReturn(Flux.just(event(1L), event(2L), event(3L)));
+
+    StepVerifier.create(reactiveEventService.streamByFilter(eventFilter))
+        .expectNextCount(3)
+        .verifyComplete();
+  }
+
+  @Test
+  void saveAll_shouldInsertOnlyValidEvents() {
+    EventDto valid = event(null);
+    EventDto invalid = EventDto.builder().topic("x").build();
+    @SuppressWarnings("unchecked")
+    ConstraintViolation<EventDto> violation = mock(ConstraintViolation.class);
+    when(violation.getPropertyPath()).thenReturn(mock(Path.class));
+    when(validator.validate(valid)).thenReturn(Set.of());
+    when(validator.validate(invalid)).thenReturn(Set.of(violation));
+    when(reactiveEventDao.saveAll(List.of(valid))).thenReturn(Flux.just(ID));
+
+    StepVerifier.create(reactiveEventService.saveAll(List.of(valid, invalid)))
+        .assertNext(
+            results -> {
+              assertEquals(EventBatchStatus.CREATED, results.get(0).getStatus());
+              assertEquals(ID, results.get(0).getId());
+              assertEquals(EventBatchStatus.INVALID, results.get(1).getStatus());
+            })
+        .verifyComplete();
+  }
+
+  @Test
+  void update_shouldSignalConflict_whenVersionChanged() {
+    EventDto eventDto = event(null);
+    eventDto.setVersion(3L);
+    when(reactiveEventDao.update(ID, eventDto)).thenReturn(Mono.just(0));
+    when(reactiveEventDao.getById(ID)).thenReturn(Mono.just(event(ID)));
+
+    StepVerifier.create(reactiveEventService.update(ID, eventDto))
+        .expectError(OptimisticLockingFailureException.class)
+        .verify();
+  }
+
+  @Test
+  void update_shouldSignalNotFound_withoutReading_whenNoVersionIsGiven() {
+    EventDto eventDto = event(null);
+    when(reactiveEventDao.update(ID, eventDto)).thenReturn(Mono.just(0));
+
+    StepVerifier.create(reactiveEventService.update(ID, eventDto))
+        .expectError(NoSuchElementException.class)
+        .verify();
+    verify(reactiveEventDao, never()).getById(ID);
+  }
+
+  @Test
+  void getAll_shouldSignalError_whenLimitIsTooBig() {
+    StepVerifier.create(reactiveEventService.getAll(null, 1001, null))
+        .expectError(IllegalArgumentException.class)
+        .verify();
+    verify(reactiveEventDao, never()).getAll(any(), any(), anyInt());
+  }
+
+  private static EventDto event(Long id) {
+    return EventDto.builder().id(id).topic("topic " + id).build();
+  }
+}